@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Starts the benchmarks. Accepts the same arguments as the JMH command line,
+ * but writes the results as JSON to "target/jmh-result.json" unless a
+ * different result format ("-rf") or file ("-rff") is given. Example:
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar LookupBenchmark -p shape=10x6 -rff lookup.json
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+	/** Default result file. */
+	public static final String RESULT_FILE = "target/jmh-result.json";
+
+	/**
+	 * Private utility class constructor.
+	 */
+	private BenchmarkRunner() {
+		throw new UnsupportedOperationException(
+				"It's not allowed to create an instance of a utility class");
+	}
+
+	/**
+	 * Runs the benchmarks.
+	 * 
+	 * @param args
+	 *            JMH command line arguments.
+	 * 
+	 * @throws CommandLineOptionException
+	 *             Invalid arguments.
+	 * @throws RunnerException
+	 *             Error running the benchmarks.
+	 * @throws IOException
+	 *             Error creating the result directory or writing the
+	 *             help.
+	 */
+	public static void main(final String[] args)
+			throws CommandLineOptionException, RunnerException, IOException {
+		final CommandLineOptions cmd = new CommandLineOptions(args);
+		if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams()
+				|| cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		final ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmd);
+		if (!cmd.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		final String result;
+		if (cmd.getResult().hasValue()) {
+			result = cmd.getResult().get();
+		} else {
+			result = RESULT_FILE;
+			builder.result(result);
+		}
+		final File dir = new File(result).getAbsoluteFile().getParentFile();
+		if (dir != null && !dir.exists() && !dir.mkdirs()) {
+			throw new IOException("Failed to create directory: " + dir);
+		}
+		new Runner(builder.build()).run();
+	}
+
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu.benchmark;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.fuin.mavenmenu.FrozenMenu;
+import org.fuin.mavenmenu.Menu;
+import org.fuin.mavenmenu.MenuElement;
+import org.fuin.mavenmenu.MenuOrdering;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to create a menu element by element or container by
+ * container with different orderings and the time to take a snapshot of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildBenchmark {
+
+	/** Width and depth of the generated menu. */
+	@Param({ "10x3", "10x4", "100x3", "10x6" })
+	public String shape;
+
+	private MenuGenerator generator;
+
+	private Menu menu;
+
+	private MenuOrdering collation;
+
+	private Collator collator;
+
+	private List<MenuElement> elements;
+
+	/**
+	 * Creates the generator and a menu for the snapshot benchmark.
+	 */
+	@Setup
+	public void setup() {
+		generator = MenuGenerator.valueOf(shape);
+		menu = generator.create();
+		collation = MenuOrdering.collation(Locale.ENGLISH);
+		collator = Collator.getInstance(Locale.ENGLISH);
+		elements = menu.stream().collect(Collectors.toList());
+	}
+
+	/**
+	 * Adds every element with a separate call.
+	 * 
+	 * @return New menu.
+	 */
+	@Benchmark
+	public Menu addElement() {
+		return generator.create(false);
+	}
+
+	/**
+	 * Adds all children of a container with a single call.
+	 * 
+	 * @return New menu.
+	 */
+	@Benchmark
+	public Menu addElements() {
+		return generator.create(true);
+	}
+
+	/**
+	 * Adds all children of a container with a single call and sorts them
+	 * case insensitive.
+	 * 
+	 * @return New menu.
+	 */
+	@Benchmark
+	public Menu addElementsCaseInsensitive() {
+		return generator.create(true, MenuOrdering.CASE_INSENSITIVE);
+	}
+
+	/**
+	 * Adds all children of a container with a single call and sorts them
+	 * with cached collation keys.
+	 * 
+	 * @return New menu.
+	 */
+	@Benchmark
+	public Menu addElementsCollation() {
+		return generator.create(true, collation);
+	}
+
+	/**
+	 * Sorts all elements with cached collation keys.
+	 * 
+	 * @return Sorted list.
+	 */
+	@Benchmark
+	public List<MenuElement> sortCollationKeys() {
+		final List<MenuElement> list = new ArrayList<MenuElement>(elements);
+		Collections.sort(list, collation);
+		return list;
+	}
+
+	/**
+	 * Sorts all elements with the collator itself, as a comparison for
+	 * {@link #sortCollationKeys()}.
+	 * 
+	 * @return Sorted list.
+	 */
+	@Benchmark
+	public List<MenuElement> sortCollator() {
+		final List<MenuElement> list = new ArrayList<MenuElement>(elements);
+		Collections.sort(list, (a, b) -> collator.compare(a.getTitle(), b.getTitle()));
+		return list;
+	}
+
+	/**
+	 * Creates a snapshot of the whole menu.
+	 * 
+	 * @return New snapshot.
+	 */
+	@Benchmark
+	public FrozenMenu freeze() {
+		return menu.freeze();
+	}
+
+}
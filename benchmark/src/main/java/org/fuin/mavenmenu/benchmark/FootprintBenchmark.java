@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+
+import org.fuin.mavenmenu.BinaryMenuWriter;
+import org.fuin.mavenmenu.LazyMenuReader;
+import org.fuin.mavenmenu.Menu;
+import org.fuin.mavenmenu.MenuXml;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the heap retained by the different representations of a menu.
+ * The time of these benchmarks is meaningless because it includes garbage
+ * collections. The results are the secondary metrics "bytes" (retained heap)
+ * and "bytesPerElement" that are reported by JMH together with the score. The
+ * values are taken from {@link Runtime} after forcing garbage collections, so
+ * they are only approximations and should be compared between runs with the
+ * same JVM and garbage collector. JMH sums the counters of all measurement
+ * iterations, therefore only a single iteration is measured. The created
+ * objects are kept in a field and not returned, because JMH would still hold
+ * the result of the previous invocation during the next measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class FootprintBenchmark {
+
+	private static final int MAX_GC = 10;
+
+	/** Width and depth of the generated menu. */
+	@Param({ "10x3", "10x4", "10x5", "10x6" })
+	public String shape;
+
+	private MenuGenerator generator;
+
+	private byte[] xml;
+
+	private byte[] binary;
+
+	// Volatile, so the compiler cannot drop the stores that decide what is
+	// reachable while the heap is measured
+	private volatile Object retained;
+
+	private volatile Menu source;
+
+	/**
+	 * Heap usage of the object created by the last invocation.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+
+		/** Retained heap in bytes. */
+		public long bytes;
+
+		/** Retained heap in bytes divided by the number of elements. */
+		public long bytesPerElement;
+
+		/**
+		 * Clears the values of the previous iteration.
+		 */
+		@Setup(Level.Iteration)
+		public void clear() {
+			bytes = 0;
+			bytesPerElement = 0;
+		}
+
+	}
+
+	/**
+	 * Creates the documents to read.
+	 * 
+	 * @throws JAXBException
+	 *             Error writing the XML document.
+	 * @throws IOException
+	 *             Error writing the binary document.
+	 */
+	@Setup
+	public void setup() throws JAXBException, IOException {
+		generator = MenuGenerator.valueOf(shape);
+		final Menu menu = generator.create();
+		final ByteArrayOutputStream xmlOut = new ByteArrayOutputStream();
+		MenuXml.write(menu, xmlOut);
+		xml = xmlOut.toByteArray();
+		final ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+		new BinaryMenuWriter().write(menu, binaryOut);
+		binary = binaryOut.toByteArray();
+	}
+
+	/**
+	 * Heap used by a completely loaded tree.
+	 * 
+	 * @param footprint
+	 *            Receives the result.
+	 */
+	@Benchmark
+	public void tree(final Footprint footprint) {
+		final long before = start();
+		retain(generator.create(), before, footprint);
+	}
+
+	/**
+	 * Heap used by a tree that is read lazily and only the root is loaded.
+	 * The XML document itself is not counted.
+	 * 
+	 * @param footprint
+	 *            Receives the result.
+	 */
+	@Benchmark
+	public void lazyTree(final Footprint footprint) {
+		final long before = start();
+		retain(new LazyMenuReader().read(ByteBuffer.wrap(xml)), before,
+				footprint);
+	}
+
+	/**
+	 * Heap used by a snapshot. The tree it was created from is not counted:
+	 * It is kept reachable by a field during both measurements and released
+	 * afterwards.
+	 * 
+	 * @param footprint
+	 *            Receives the result.
+	 */
+	@Benchmark
+	public void frozen(final Footprint footprint) {
+		source = generator.create();
+		try {
+			final long before = start();
+			retain(source.freeze(), before, footprint);
+		} finally {
+			source = null;
+		}
+	}
+
+	/**
+	 * Heap used by the binary document that can be used with a
+	 * {@link org.fuin.mavenmenu.MappedMenu}.
+	 * 
+	 * @param footprint
+	 *            Receives the result.
+	 */
+	@Benchmark
+	public void binary(final Footprint footprint) {
+		final long before = start();
+		retain(binary.clone(), before, footprint);
+	}
+
+	private long start() {
+		retained = null;
+		return usedHeap();
+	}
+
+	private void retain(final Object obj, final long before,
+			final Footprint footprint) {
+		retained = obj;
+		final long bytes = Math.max(0, usedHeap() - before);
+		footprint.bytes = bytes;
+		footprint.bytesPerElement = bytes / generator.getSize();
+	}
+
+	private static long usedHeap() {
+		// A single collection does not always free everything, so stop only
+		// after two collections in a row did not free anything
+		final Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		int stable = 0;
+		for (int i = 0; (i < MAX_GC) && (stable < 2); i++) {
+			System.gc();
+			final long current = runtime.totalMemory() - runtime.freeMemory();
+			if (current < used) {
+				used = current;
+				stable = 0;
+			} else {
+				stable++;
+			}
+		}
+		return used;
+	}
+
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.fuin.mavenmenu.BinaryMenuWriter;
+import org.fuin.mavenmenu.FrozenMenu;
+import org.fuin.mavenmenu.MappedMenu;
+import org.fuin.mavenmenu.Menu;
+import org.fuin.mavenmenu.MenuElement;
+import org.fuin.mavenmenu.MenuElementContainer;
+import org.fuin.mavenmenu.MenuMatch;
+import org.fuin.mavenmenu.Project;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single lookups in the tree, in a snapshot and in a memory mapped
+ * binary menu. Every invocation uses the next one of a fixed set of randomly
+ * selected existing elements.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+
+	private static final int SAMPLES = 1024;
+
+	private static final int MASK = SAMPLES - 1;
+
+	private static final int PREFIX_LENGTH = 3;
+
+	private static final int RESULT_LIMIT = 10;
+
+	/** Width and depth of the generated menu. */
+	@Param({ "10x3", "10x4", "100x3", "10x6", "10000x1" })
+	public String shape;
+
+	private Menu menu;
+
+	private FrozenMenu frozen;
+
+	private MappedMenu mapped;
+
+	private String[] paths;
+
+	private MenuElementContainer[] parents;
+
+	private String[] names;
+
+	private String[] titles;
+
+	private String[] prefixes;
+
+	private String[] typos;
+
+	private String[] groupIds;
+
+	private String[] artifactIds;
+
+	private int[] frozenParents;
+
+	private int[] mappedParents;
+
+	private int next;
+
+	/**
+	 * Creates the menus and selects the elements to look up.
+	 * 
+	 * @throws IOException
+	 *             Error creating the binary menu.
+	 */
+	@Setup
+	public void setup() throws IOException {
+		final MenuGenerator generator = MenuGenerator.valueOf(shape);
+		menu = generator.create();
+		frozen = menu.freeze();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BinaryMenuWriter().write(frozen, out);
+		mapped = new MappedMenu(ByteBuffer.wrap(out.toByteArray()));
+
+		paths = generator.randomPaths(SAMPLES, 4711).toArray(new String[SAMPLES]);
+		parents = new MenuElementContainer[SAMPLES];
+		names = new String[SAMPLES];
+		titles = new String[SAMPLES];
+		prefixes = new String[SAMPLES];
+		typos = new String[SAMPLES];
+		frozenParents = new int[SAMPLES];
+		mappedParents = new int[SAMPLES];
+		final List<Project> projects = new ArrayList<Project>();
+		for (int i = 0; i < SAMPLES; i++) {
+			final MenuElement element = menu.findByPath(paths[i]);
+			parents[i] = element.getParent();
+			names[i] = element.getCalcName();
+			titles[i] = element.getTitle();
+			prefixes[i] = titles[i].substring(0,
+					Math.min(PREFIX_LENGTH, titles[i].length()));
+			typos[i] = dropChar(titles[i]);
+			frozenParents[i] = frozen.getParent(frozen.findByPath(paths[i]));
+			mappedParents[i] = mapped.getParent(mapped.findByPath(paths[i]));
+			if (element instanceof Project) {
+				projects.add((Project) element);
+			}
+		}
+		// Build the search indexes before measuring
+		menu.findByPrefix("", 1);
+		menu.search("menu", 1);
+		groupIds = new String[SAMPLES];
+		artifactIds = new String[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			if (projects.isEmpty()) {
+				groupIds[i] = "org.example";
+				artifactIds[i] = "unknown";
+			} else {
+				final Project project = projects.get(i % projects.size());
+				groupIds[i] = project.getGroupId();
+				artifactIds[i] = project.getArtifactId();
+			}
+		}
+	}
+
+	private static String dropChar(final String title) {
+		if (title.length() < 2) {
+			return title;
+		}
+		final int pos = title.length() / 2;
+		return title.substring(0, pos) + title.substring(pos + 1);
+	}
+
+	private int next() {
+		next = (next + 1) & MASK;
+		return next;
+	}
+
+	/**
+	 * Looks up a direct child by it's calculated name.
+	 * 
+	 * @return Found element.
+	 */
+	@Benchmark
+	public MenuElement findByName() {
+		final int i = next();
+		return parents[i].findByName(names[i]);
+	}
+
+	/**
+	 * Looks up a direct child by it's title.
+	 * 
+	 * @return Found element.
+	 */
+	@Benchmark
+	public MenuElement findByTitle() {
+		final int i = next();
+		return parents[i].findByTitle(titles[i]);
+	}
+
+	/**
+	 * Resolves a path starting at the root.
+	 * 
+	 * @return Found element.
+	 */
+	@Benchmark
+	public MenuElement findByPath() {
+		return menu.findByPath(paths[next()]);
+	}
+
+	/**
+	 * Looks up a project by it's Maven coordinates.
+	 * 
+	 * @return Found project or null for a menu without projects.
+	 */
+	@Benchmark
+	public Project findProject() {
+		final int i = next();
+		return menu.findProject(groupIds[i], artifactIds[i]);
+	}
+
+	/**
+	 * Searches the first elements that start with a short prefix, like an
+	 * autocomplete field does.
+	 * 
+	 * @return Matches.
+	 */
+	@Benchmark
+	public List<MenuMatch> findByPrefix() {
+		return menu.findByPrefix(prefixes[next()], RESULT_LIMIT);
+	}
+
+	/**
+	 * Searches the best matches for a title with a missing character.
+	 * 
+	 * @return Matches.
+	 */
+	@Benchmark
+	public List<MenuMatch> search() {
+		return menu.search(typos[next()], RESULT_LIMIT);
+	}
+
+	/**
+	 * Looks up a direct child by it's calculated name in the snapshot.
+	 * 
+	 * @return Index of the found node.
+	 */
+	@Benchmark
+	public int frozenFindByName() {
+		final int i = next();
+		return frozen.findByName(frozenParents[i], names[i]);
+	}
+
+	/**
+	 * Resolves a path in the snapshot.
+	 * 
+	 * @return Index of the found node.
+	 */
+	@Benchmark
+	public int frozenFindByPath() {
+		return frozen.findByPath(paths[next()]);
+	}
+
+	/**
+	 * Looks up a direct child by it's calculated name in the binary menu.
+	 * 
+	 * @return Index of the found node.
+	 */
+	@Benchmark
+	public int mappedFindByName() {
+		final int i = next();
+		return mapped.findByName(mappedParents[i], names[i]);
+	}
+
+	/**
+	 * Resolves a path in the binary menu without decoding it first.
+	 * 
+	 * @return Index of the found node.
+	 */
+	@Benchmark
+	public int mappedFindByPath() {
+		return mapped.findByPath(paths[next()]);
+	}
+
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.mavenmenu.Menu;
+import org.fuin.mavenmenu.MenuElement;
+import org.fuin.mavenmenu.MenuElementContainer;
+import org.fuin.mavenmenu.MenuOrdering;
+import org.fuin.mavenmenu.Page;
+import org.fuin.mavenmenu.Project;
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Creates synthetic menus with the same structure as the "example.xml" test
+ * resource: The root contains menus, the menus contain projects that may
+ * contain nested projects and the last level consists of pages. Every
+ * container has the same number of children, so a menu with width
+ * <code>w</code> and depth <code>d</code> has
+ * <code>w + w<sup>2</sup> + ... + w<sup>d</sup></code> elements below the
+ * root. A width of 10 and a depth of 6 results in about 1.1 million elements.
+ * The generated menus only depend on the shape, so runs with the same shape
+ * can be compared.
+ */
+public final class MenuGenerator {
+
+	private static final String[] PAGE_TITLES = new String[] { "Background",
+			"Examples", "More", "Download", "Changelog" };
+
+	private final int width;
+
+	private final int depth;
+
+	/**
+	 * Constructor with the shape.
+	 * 
+	 * @param width
+	 *            Number of children of every container.
+	 * @param depth
+	 *            Number of levels below the root.
+	 */
+	public MenuGenerator(final int width, final int depth) {
+		super();
+		if (width < 1) {
+			throw new IllegalArgumentException(
+					"The argument 'width' must be greater than zero: " + width);
+		}
+		if (depth < 1) {
+			throw new IllegalArgumentException(
+					"The argument 'depth' must be greater than zero: " + depth);
+		}
+		this.width = width;
+		this.depth = depth;
+	}
+
+	/**
+	 * Creates a generator from a shape like "10x4" (width x depth). This is
+	 * the format used for the JMH "shape" parameters.
+	 * 
+	 * @param shape
+	 *            Width and depth separated by an 'x'.
+	 * 
+	 * @return New generator.
+	 */
+	@NeverNull
+	public static MenuGenerator valueOf(@NotNull final String shape) {
+		Contract.requireArgNotNull("shape", shape);
+		final int pos = shape.indexOf('x');
+		if (pos < 0) {
+			throw new IllegalArgumentException(
+					"Expected a shape like '10x4', but was: '" + shape + "'");
+		}
+		return new MenuGenerator(Integer.parseInt(shape.substring(0, pos)
+				.trim()), Integer.parseInt(shape.substring(pos + 1).trim()));
+	}
+
+	/**
+	 * Returns the number of children of every container.
+	 * 
+	 * @return Width.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the number of levels below the root.
+	 * 
+	 * @return Depth.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the number of elements of the generated menu including the
+	 * root.
+	 * 
+	 * @return Number of elements.
+	 */
+	public long getSize() {
+		long size = 1;
+		long level = 1;
+		for (int i = 0; i < depth; i++) {
+			level = level * width;
+			size = size + level;
+		}
+		return size;
+	}
+
+	/**
+	 * Creates a new menu. Every element is added with a separate call to
+	 * {@link MenuElementContainer#addElement(MenuElement)}.
+	 * 
+	 * @return New menu.
+	 */
+	@NeverNull
+	public Menu create() {
+		return create(false);
+	}
+
+	/**
+	 * Creates a new menu.
+	 * 
+	 * @param bulk
+	 *            TRUE if the children of a container are added with a single
+	 *            call to {@link MenuElementContainer#addElements(List)} or
+	 *            FALSE if every child is added with
+	 *            {@link MenuElementContainer#addElement(MenuElement)}.
+	 * 
+	 * @return New menu.
+	 */
+	@NeverNull
+	public Menu create(final boolean bulk) {
+		return create(bulk, MenuOrdering.NATURAL);
+	}
+
+	/**
+	 * Creates a new menu with the given ordering for all containers. The
+	 * ordering is set before the elements are added.
+	 * 
+	 * @param bulk
+	 *            TRUE if the children of a container are added with a single
+	 *            call to {@link MenuElementContainer#addElements(List)} or
+	 *            FALSE if every child is added with
+	 *            {@link MenuElementContainer#addElement(MenuElement)}.
+	 * @param ordering
+	 *            Order of the elements.
+	 * 
+	 * @return New menu.
+	 */
+	@NeverNull
+	public Menu create(final boolean bulk,
+			@NotNull final MenuOrdering ordering) {
+		Contract.requireArgNotNull("ordering", ordering);
+		final Menu root = new Menu("Menu", "root");
+		root.setOrdering(ordering);
+		fill(root, 1, "", bulk, ordering);
+		return root;
+	}
+
+	/**
+	 * Returns paths of elements of the generated menu that are selected
+	 * randomly from all levels. The same seed always returns the same paths.
+	 * 
+	 * @param count
+	 *            Number of paths to return.
+	 * @param seed
+	 *            Seed for the random generator.
+	 * 
+	 * @return Paths of calculated names that can be used with
+	 *         {@link MenuElementContainer#findByPath(String)}.
+	 */
+	@NeverNull
+	public List<String> randomPaths(final int count, final long seed) {
+		final Random random = new Random(seed);
+		final List<String> paths = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			final int levels = 1 + random.nextInt(depth);
+			final StringBuilder sb = new StringBuilder();
+			String prefix = "";
+			for (int level = 1; level <= levels; level++) {
+				final int index = random.nextInt(width);
+				final MenuElement element = create(level, prefix, index);
+				sb.append('/');
+				sb.append(element.getCalcName());
+				prefix = prefix + index + "-";
+			}
+			paths.add(sb.toString());
+		}
+		return paths;
+	}
+
+	private void fill(final MenuElementContainer container, final int level,
+			final String prefix, final boolean bulk,
+			final MenuOrdering ordering) {
+		final List<MenuElement> children = new ArrayList<MenuElement>(width);
+		for (int i = 0; i < width; i++) {
+			final MenuElement child = create(level, prefix, i);
+			if (child instanceof MenuElementContainer) {
+				final MenuElementContainer childContainer = (MenuElementContainer) child;
+				childContainer.setOrdering(ordering);
+				fill(childContainer, level + 1, prefix + i + "-", bulk,
+						ordering);
+			}
+			if (bulk) {
+				children.add(child);
+			} else {
+				container.addElement(child);
+			}
+		}
+		if (bulk) {
+			container.addElements(children);
+		}
+	}
+
+	private MenuElement create(final int level, final String prefix,
+			final int index) {
+		if (level == depth) {
+			return new Page(PAGE_TITLES[index % PAGE_TITLES.length] + " "
+					+ prefix + index);
+		}
+		if (level == 1) {
+			return new Menu("Area " + index);
+		}
+		final String artifactId = "module" + prefix + index;
+		final Project project = new Project("Module" + prefix + index + "J");
+		project.setGroupId("org.example.level" + level);
+		project.setArtifactId(artifactId);
+		project.setCi("https://ci.example.org/job/" + artifactId + "/");
+		return project;
+	}
+
+}
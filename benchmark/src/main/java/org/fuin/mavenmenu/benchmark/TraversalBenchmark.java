@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.fuin.mavenmenu.FrozenMenu;
+import org.fuin.mavenmenu.Menu;
+import org.fuin.mavenmenu.MenuElement;
+import org.fuin.mavenmenu.MenuElementContainer;
+import org.fuin.mavenmenu.MenuElementType;
+import org.fuin.mavenmenu.MenuTraversal;
+import org.fuin.mavenmenu.Project;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures visiting all elements of a menu. Every benchmark counts the
+ * projects, so all variants have to look at every element.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraversalBenchmark {
+
+	/** Width and depth of the generated menu. */
+	@Param({ "10x3", "10x4", "100x3", "10x6" })
+	public String shape;
+
+	private Menu menu;
+
+	private FrozenMenu frozen;
+
+	/**
+	 * Creates the menu and the snapshot.
+	 */
+	@Setup
+	public void setup() {
+		menu = MenuGenerator.valueOf(shape).create();
+		frozen = menu.freeze();
+	}
+
+	/**
+	 * Walks the tree recursively with {@link MenuElementContainer#getElements()}.
+	 * 
+	 * @return Number of projects.
+	 */
+	@Benchmark
+	public int recursive() {
+		return countProjects(menu);
+	}
+
+	/**
+	 * Uses the sequential depth first stream.
+	 * 
+	 * @return Number of projects.
+	 */
+	@Benchmark
+	public long stream() {
+		return menu.stream().filter(e -> e instanceof Project).count();
+	}
+
+	/**
+	 * Uses the parallel depth first stream.
+	 * 
+	 * @return Number of projects.
+	 */
+	@Benchmark
+	public long parallelStream() {
+		return menu.parallelStream().filter(e -> e instanceof Project).count();
+	}
+
+	/**
+	 * Uses the sequential breadth first stream.
+	 * 
+	 * @return Number of projects.
+	 */
+	@Benchmark
+	public long breadthFirst() {
+		return menu.entries(MenuTraversal.BREADTH_FIRST, false)
+				.filter(e -> e.getElement() instanceof Project).count();
+	}
+
+	/**
+	 * Iterates over the node indexes of the snapshot.
+	 * 
+	 * @return Number of projects.
+	 */
+	@Benchmark
+	public int frozen() {
+		int count = 0;
+		final int size = frozen.size();
+		for (int node = 0; node < size; node++) {
+			if (frozen.getType(node) == MenuElementType.PROJECT) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static int countProjects(final MenuElementContainer container) {
+		int count = 0;
+		final List<MenuElement> elements = container.getElements();
+		if (elements != null) {
+			for (final MenuElement element : elements) {
+				if (element instanceof Project) {
+					count++;
+				}
+				if (element instanceof MenuElementContainer) {
+					count = count + countProjects((MenuElementContainer) element);
+				}
+			}
+		}
+		return count;
+	}
+
+}
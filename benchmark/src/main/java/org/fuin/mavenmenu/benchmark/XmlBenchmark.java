@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+
+import org.fuin.mavenmenu.BinaryMenuReader;
+import org.fuin.mavenmenu.BinaryMenuWriter;
+import org.fuin.mavenmenu.FrozenMenu;
+import org.fuin.mavenmenu.LazyMenuReader;
+import org.fuin.mavenmenu.MappedMenu;
+import org.fuin.mavenmenu.Menu;
+import org.fuin.mavenmenu.MenuXml;
+import org.fuin.mavenmenu.StaxMenuReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading and storing a menu with JAXB, StAX, the lazy XML reader
+ * and the binary format. All documents are kept in memory, so only parsing
+ * and writing is measured and not the file system.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlBenchmark {
+
+	/** Width and depth of the generated menu. */
+	@Param({ "10x3", "10x4", "10x5" })
+	public String shape;
+
+	private Menu menu;
+
+	private FrozenMenu frozen;
+
+	private byte[] xml;
+
+	private byte[] binary;
+
+	private StaxMenuReader staxReader;
+
+	private LazyMenuReader lazyReader;
+
+	private BinaryMenuReader binaryReader;
+
+	private BinaryMenuWriter binaryWriter;
+
+	/**
+	 * Creates the menu and the documents to read.
+	 * 
+	 * @throws JAXBException
+	 *             Error writing the XML document.
+	 * @throws IOException
+	 *             Error writing the binary document.
+	 */
+	@Setup
+	public void setup() throws JAXBException, IOException {
+		menu = MenuGenerator.valueOf(shape).create();
+		frozen = menu.freeze();
+		staxReader = new StaxMenuReader();
+		lazyReader = new LazyMenuReader();
+		binaryReader = new BinaryMenuReader();
+		binaryWriter = new BinaryMenuWriter();
+
+		final ByteArrayOutputStream xmlOut = new ByteArrayOutputStream();
+		MenuXml.write(menu, xmlOut);
+		xml = xmlOut.toByteArray();
+		final ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+		binaryWriter.write(frozen, binaryOut);
+		binary = binaryOut.toByteArray();
+	}
+
+	/**
+	 * Reads the XML document with JAXB.
+	 * 
+	 * @return New menu.
+	 * 
+	 * @throws JAXBException
+	 *             Error reading the document.
+	 */
+	@Benchmark
+	public Menu readJaxb() throws JAXBException {
+		return MenuXml.read(new ByteArrayInputStream(xml));
+	}
+
+	/**
+	 * Reads the XML document with StAX.
+	 * 
+	 * @return New menu.
+	 * 
+	 * @throws XMLStreamException
+	 *             Error reading the document.
+	 */
+	@Benchmark
+	public Menu readStax() throws XMLStreamException {
+		return staxReader.read(new ByteArrayInputStream(xml));
+	}
+
+	/**
+	 * Reads only the root of the XML document.
+	 * 
+	 * @return New menu.
+	 */
+	@Benchmark
+	public Menu readLazy() {
+		return lazyReader.read(ByteBuffer.wrap(xml));
+	}
+
+	/**
+	 * Reads the XML document lazily and visits all elements afterwards.
+	 * 
+	 * @return Number of elements below the root.
+	 */
+	@Benchmark
+	public long readLazyFully() {
+		return lazyReader.read(ByteBuffer.wrap(xml)).stream().count();
+	}
+
+	/**
+	 * Reads the binary document into a new tree.
+	 * 
+	 * @return New menu.
+	 * 
+	 * @throws IOException
+	 *             Error reading the document.
+	 */
+	@Benchmark
+	public Menu readBinary() throws IOException {
+		return binaryReader.read(new ByteArrayInputStream(binary));
+	}
+
+	/**
+	 * Opens the binary document without decoding it.
+	 * 
+	 * @return Binary menu.
+	 * 
+	 * @throws IOException
+	 *             Invalid document.
+	 */
+	@Benchmark
+	public MappedMenu mapBinary() throws IOException {
+		return new MappedMenu(ByteBuffer.wrap(binary));
+	}
+
+	/**
+	 * Writes the XML document with JAXB.
+	 * 
+	 * @return Document.
+	 * 
+	 * @throws JAXBException
+	 *             Error writing the document.
+	 */
+	@Benchmark
+	public byte[] writeJaxb() throws JAXBException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(xml.length);
+		MenuXml.write(menu, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Writes the binary document from the snapshot.
+	 * 
+	 * @return Document.
+	 * 
+	 * @throws IOException
+	 *             Error writing the document.
+	 */
+	@Benchmark
+	public byte[] writeBinary() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(
+				binary.length);
+		binaryWriter.write(frozen, out);
+		return out.toByteArray();
+	}
+
+}
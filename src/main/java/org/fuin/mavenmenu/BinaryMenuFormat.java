@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+/**
+ * Layout of the binary menu format. All numbers are big endian 32 bit
+ * integers.
+ * 
+ * <pre>
+ * Header       magic, version, stringCount, nodeCount, stringDataLength
+ * Offsets      stringCount + 1 start offsets into the string data
+ * String data  UTF-8 encoded, distinct strings sorted like String.compareTo
+ * Node table   nodeCount records of NODE_INTS integers each
+ * Name order   nodeCount node indexes
+ * Title order  nodeCount node indexes
+ * </pre>
+ * 
+ * Nodes are stored breadth first with the root at index 0, so the children of
+ * a node are a contiguous range of the node table. A record contains the type
+ * (ordinal of {@link MenuElementType}), the indexes of title, name, calculated
+ * name, group ID, artifact ID and CI URL in the string table (-1 for null),
+ * the parent node (-1 for the root), the first child node and the number of
+ * children.<br>
+ * <br>
+ * The two order tables contain the children of every node sorted by the
+ * string index of their calculated name or title. Equal strings keep the order
+ * of the children. The children of a node use the same positions as in the
+ * node table, so the entry at position <code>firstChild + i</code> is the
+ * child with rank <code>i</code>. The entry at position 0 is not used. As the
+ * string table is sorted, comparing string indexes is the same as comparing
+ * the strings, so a child can be located with a binary search.
+ */
+final class BinaryMenuFormat {
+
+	/** Magic number at the start of the data: "MMNU". */
+	static final int MAGIC = 0x4D4D4E55;
+
+	/** Current version of the format. */
+	static final int VERSION = 2;
+
+	/** Size of the header in bytes. */
+	static final int HEADER_SIZE = 5 * 4;
+
+	/** Index of a string that is null. */
+	static final int NULL = -1;
+
+	/** Position of the type in a node record. */
+	static final int TYPE = 0;
+
+	/** Position of the title in a node record. */
+	static final int TITLE = 1;
+
+	/** Position of the name in a node record. */
+	static final int NAME = 2;
+
+	/** Position of the calculated name in a node record. */
+	static final int CALC_NAME = 3;
+
+	/** Position of the group ID in a node record. */
+	static final int GROUP_ID = 4;
+
+	/** Position of the artifact ID in a node record. */
+	static final int ARTIFACT_ID = 5;
+
+	/** Position of the CI URL in a node record. */
+	static final int CI = 6;
+
+	/** Position of the parent in a node record. */
+	static final int PARENT = 7;
+
+	/** Position of the first child in a node record. */
+	static final int FIRST_CHILD = 8;
+
+	/** Position of the number of children in a node record. */
+	static final int CHILD_COUNT = 9;
+
+	/** Number of integers in a node record. */
+	static final int NODE_INTS = 10;
+
+	private BinaryMenuFormat() {
+		throw new UnsupportedOperationException(
+				"It's not allowed to create an instance of a utility class");
+	}
+
+}
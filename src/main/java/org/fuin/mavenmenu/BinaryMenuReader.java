@@ -0,0 +1,314 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fuin.mavenmenu.BinaryMenuFormat.ARTIFACT_ID;
+import static org.fuin.mavenmenu.BinaryMenuFormat.CHILD_COUNT;
+import static org.fuin.mavenmenu.BinaryMenuFormat.CI;
+import static org.fuin.mavenmenu.BinaryMenuFormat.FIRST_CHILD;
+import static org.fuin.mavenmenu.BinaryMenuFormat.GROUP_ID;
+import static org.fuin.mavenmenu.BinaryMenuFormat.MAGIC;
+import static org.fuin.mavenmenu.BinaryMenuFormat.NAME;
+import static org.fuin.mavenmenu.BinaryMenuFormat.NODE_INTS;
+import static org.fuin.mavenmenu.BinaryMenuFormat.NULL;
+import static org.fuin.mavenmenu.BinaryMenuFormat.PARENT;
+import static org.fuin.mavenmenu.BinaryMenuFormat.TITLE;
+import static org.fuin.mavenmenu.BinaryMenuFormat.TYPE;
+import static org.fuin.mavenmenu.BinaryMenuFormat.VERSION;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Reads a menu that was written by {@link BinaryMenuWriter}. The data is read
+ * sequentially in one pass and the elements are created with their public
+ * constructors, so no XML parsing and no reflection is involved. The string
+ * offsets and the tree structure are validated, so corrupt or truncated data
+ * results in an {@link IOException}. Instances are thread safe.
+ */
+public final class BinaryMenuReader {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final MenuElementType[] TYPES = MenuElementType.values();
+
+	/** Initial size of a table that is read from the stream. */
+	private static final int CHUNK_SIZE = 8192;
+
+	/**
+	 * Default constructor.
+	 */
+	public BinaryMenuReader() {
+		super();
+	}
+
+	/**
+	 * Reads a menu from a stream. The stream is not closed.
+	 * 
+	 * @param in
+	 *            Stream to read from.
+	 * 
+	 * @return New menu.
+	 * 
+	 * @throws IOException
+	 *             Error reading the stream or invalid data.
+	 */
+	@NeverNull
+	public Menu read(@NotNull final InputStream in) throws IOException {
+		Contract.requireArgNotNull("in", in);
+		final DataInputStream din = new DataInputStream(
+				new BufferedInputStream(in));
+
+		if (din.readInt() != MAGIC) {
+			throw new IOException("Data is not a binary menu");
+		}
+		final int version = din.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported binary menu version: "
+					+ version);
+		}
+		final int stringCount = din.readInt();
+		final int nodeCount = din.readInt();
+		final int dataLength = din.readInt();
+		if ((stringCount < 0) || (stringCount == Integer.MAX_VALUE)
+				|| (nodeCount < 1) || (nodeCount > Integer.MAX_VALUE / NODE_INTS)
+				|| (dataLength < 0)) {
+			throw new IOException("Invalid binary menu header");
+		}
+
+		// The counts of the header are not trusted: The tables are read before
+		// anything depending on their size is allocated, so corrupt counts end
+		// with an EOF instead of an OutOfMemoryError
+		final int[] offsets = readInts(din, stringCount + 1);
+		int previous = 0;
+		for (int i = 0; i < offsets.length; i++) {
+			if ((offsets[i] < previous) || (offsets[i] > dataLength)) {
+				throw new IOException("Invalid offset of string " + i + ": "
+						+ offsets[i]);
+			}
+			previous = offsets[i];
+		}
+		final byte[] data = readBytes(din, dataLength);
+		final String[] strings = new String[stringCount];
+		for (int i = 0; i < stringCount; i++) {
+			strings[i] = new String(data, offsets[i], offsets[i + 1]
+					- offsets[i], UTF8);
+		}
+
+		final int[] records = readInts(din, nodeCount * NODE_INTS);
+		final MenuElement[] nodes = new MenuElement[nodeCount];
+		final int[] parents = new int[nodeCount];
+		final int[] firstChildren = new int[nodeCount];
+		final int[] childCounts = new int[nodeCount];
+		final int[] record = new int[NODE_INTS];
+		for (int node = 0; node < nodeCount; node++) {
+			System.arraycopy(records, node * NODE_INTS, record, 0, NODE_INTS);
+			nodes[node] = create(node, record, strings);
+			parents[node] = record[PARENT];
+			firstChildren[node] = record[FIRST_CHILD];
+			childCounts[node] = record[CHILD_COUNT];
+		}
+
+		if (!(nodes[0] instanceof Menu)) {
+			throw new IOException("Root of a binary menu must be a menu, but was: "
+					+ MenuElementType.of(nodes[0]));
+		}
+		if (parents[0] != NULL) {
+			throw new IOException("Root of a binary menu cannot have a parent: "
+					+ parents[0]);
+		}
+		// Breadth first layout: The children of all nodes follow each other
+		// without a gap, starting directly after the root
+		int next = 1;
+		for (int node = 0; node < nodeCount; node++) {
+			final int count = childCounts[node];
+			if (count < 0) {
+				throw new IOException("Invalid child count of node " + node
+						+ ": " + count);
+			}
+			if (count > 0) {
+				if (!(nodes[node] instanceof MenuElementContainer)) {
+					throw new IOException("Node " + node + " of type "
+							+ MenuElementType.of(nodes[node])
+							+ " cannot have children");
+				}
+				final int first = firstChildren[node];
+				if ((first != next) || (first <= node)
+						|| (count > nodeCount - first)) {
+					throw new IOException("Invalid children of node " + node
+							+ ": first=" + first + ", count=" + count);
+				}
+				final List<MenuElement> children = new ArrayList<MenuElement>(
+						count);
+				for (int child = first; child < first + count; child++) {
+					if (parents[child] != node) {
+						throw new IOException("Invalid parent of node "
+								+ child + ": " + parents[child]);
+					}
+					children.add(nodes[child]);
+				}
+				try {
+					((MenuElementContainer) nodes[node]).addElements(children);
+				} catch (final IllegalArgumentException ex) {
+					throw new IOException(ex.getMessage(), ex);
+				}
+				next += count;
+			}
+		}
+		if (next != nodeCount) {
+			throw new IOException("Nodes are not part of the tree: " + next
+					+ ".." + (nodeCount - 1));
+		}
+		verifyChildOrder(din, parents, "name");
+		verifyChildOrder(din, parents, "title");
+		return (Menu) nodes[0];
+	}
+
+	/**
+	 * Reads an order table. The tree is built without it, but every entry
+	 * must refer to a child of the same parent as the position it is stored
+	 * at.
+	 * 
+	 * @param din
+	 *            Stream to read from.
+	 * @param parents
+	 *            Parent of every node.
+	 * @param name
+	 *            Name of the table for error messages.
+	 * 
+	 * @throws IOException
+	 *             Error reading the stream or invalid data.
+	 */
+	private static void verifyChildOrder(final DataInputStream din,
+			final int[] parents, final String name) throws IOException {
+		din.readInt();
+		for (int pos = 1; pos < parents.length; pos++) {
+			final int child = din.readInt();
+			if ((child < 1) || (child >= parents.length)
+					|| (parents[child] != parents[pos])) {
+				throw new IOException("Invalid entry in " + name
+						+ " order at position " + pos + ": " + child);
+			}
+		}
+	}
+
+	/**
+	 * Reads a number of integers. The array grows with the data that was
+	 * actually read, so an invalid count from the header cannot allocate more
+	 * memory than the stream contains.
+	 * 
+	 * @param din
+	 *            Stream to read from.
+	 * @param count
+	 *            Number of integers to read.
+	 * 
+	 * @return Integers.
+	 * 
+	 * @throws IOException
+	 *             Error reading the stream, for example because it ended
+	 *             early.
+	 */
+	private static int[] readInts(final DataInputStream din, final int count)
+			throws IOException {
+		int[] values = new int[Math.min(count, CHUNK_SIZE)];
+		for (int i = 0; i < count; i++) {
+			if (i == values.length) {
+				values = Arrays.copyOf(values, (int) Math.min(count, 2L * i));
+			}
+			values[i] = din.readInt();
+		}
+		return values;
+	}
+
+	/**
+	 * Reads a number of bytes. The array grows with the data that was
+	 * actually read, so an invalid length from the header cannot allocate
+	 * more memory than the stream contains.
+	 * 
+	 * @param din
+	 *            Stream to read from.
+	 * @param length
+	 *            Number of bytes to read.
+	 * 
+	 * @return Bytes.
+	 * 
+	 * @throws IOException
+	 *             Error reading the stream, for example because it ended
+	 *             early.
+	 */
+	private static byte[] readBytes(final DataInputStream din, final int length)
+			throws IOException {
+		byte[] data = new byte[Math.min(length, CHUNK_SIZE)];
+		int read = 0;
+		while (read < length) {
+			if (read == data.length) {
+				data = Arrays.copyOf(data, (int) Math.min(length, 2L * read));
+			}
+			din.readFully(data, read, data.length - read);
+			read = data.length;
+		}
+		return data;
+	}
+
+	private static MenuElement create(final int node, final int[] record,
+			final String[] strings) throws IOException {
+		final String title = string(strings, record[TITLE]);
+		if (title == null) {
+			throw new IOException("Node " + node + " has no title");
+		}
+		final String name = string(strings, record[NAME]);
+		final int type = record[TYPE];
+		if ((type < 0) || (type >= TYPES.length)) {
+			throw new IOException("Unknown element type: " + type);
+		}
+		switch (TYPES[type]) {
+		case MENU:
+			return new Menu(title, name);
+		case PROJECT:
+			final Project project = new Project(title, name);
+			project.setGroupId(string(strings, record[GROUP_ID]));
+			project.setArtifactId(string(strings, record[ARTIFACT_ID]));
+			project.setCi(string(strings, record[CI]));
+			return project;
+		default:
+			return new Page(title, name);
+		}
+	}
+
+	private static String string(final String[] strings, final int idx)
+			throws IOException {
+		if (idx == NULL) {
+			return null;
+		}
+		if ((idx < 0) || (idx >= strings.length)) {
+			throw new IOException("Invalid string index: " + idx);
+		}
+		return strings[idx];
+	}
+
+}
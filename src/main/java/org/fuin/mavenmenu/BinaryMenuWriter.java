@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fuin.mavenmenu.BinaryMenuFormat.ARTIFACT_ID;
+import static org.fuin.mavenmenu.BinaryMenuFormat.CALC_NAME;
+import static org.fuin.mavenmenu.BinaryMenuFormat.CHILD_COUNT;
+import static org.fuin.mavenmenu.BinaryMenuFormat.CI;
+import static org.fuin.mavenmenu.BinaryMenuFormat.FIRST_CHILD;
+import static org.fuin.mavenmenu.BinaryMenuFormat.GROUP_ID;
+import static org.fuin.mavenmenu.BinaryMenuFormat.MAGIC;
+import static org.fuin.mavenmenu.BinaryMenuFormat.NAME;
+import static org.fuin.mavenmenu.BinaryMenuFormat.NODE_INTS;
+import static org.fuin.mavenmenu.BinaryMenuFormat.NULL;
+import static org.fuin.mavenmenu.BinaryMenuFormat.PARENT;
+import static org.fuin.mavenmenu.BinaryMenuFormat.TITLE;
+import static org.fuin.mavenmenu.BinaryMenuFormat.TYPE;
+import static org.fuin.mavenmenu.BinaryMenuFormat.VERSION;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Writes a menu in the compact binary format that is read by
+ * {@link BinaryMenuReader}. Every distinct string is stored only once.
+ * Instances are thread safe.
+ */
+public final class BinaryMenuWriter {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Default constructor.
+	 */
+	public BinaryMenuWriter() {
+		super();
+	}
+
+	/**
+	 * Writes a menu to a stream. The stream is flushed but not closed.
+	 * 
+	 * @param menu
+	 *            Menu to write.
+	 * @param out
+	 *            Stream to write to.
+	 * 
+	 * @throws IOException
+	 *             Error writing to the stream.
+	 */
+	public void write(@NotNull final Menu menu, @NotNull final OutputStream out)
+			throws IOException {
+		Contract.requireArgNotNull("menu", menu);
+		Contract.requireArgNotNull("out", out);
+		write(menu.freeze(), out);
+	}
+
+	/**
+	 * Writes a menu snapshot to a stream. The stream is flushed but not
+	 * closed.
+	 * 
+	 * @param menu
+	 *            Snapshot to write.
+	 * @param out
+	 *            Stream to write to.
+	 * 
+	 * @throws IOException
+	 *             Error writing to the stream.
+	 */
+	public void write(@NotNull final FrozenMenu menu,
+			@NotNull final OutputStream out) throws IOException {
+		Contract.requireArgNotNull("menu", menu);
+		Contract.requireArgNotNull("out", out);
+
+		final int nodeCount = menu.size();
+		final TreeSet<String> distinct = new TreeSet<String>();
+		for (int node = 0; node < nodeCount; node++) {
+			addIfNotNull(distinct, menu.getTitle(node));
+			addIfNotNull(distinct, menu.getName(node));
+			addIfNotNull(distinct, menu.getCalcName(node));
+			addIfNotNull(distinct, menu.getGroupId(node));
+			addIfNotNull(distinct, menu.getArtifactId(node));
+			addIfNotNull(distinct, menu.getCi(node));
+		}
+		final Map<String, Integer> indexes = new HashMap<String, Integer>();
+		final byte[][] encoded = new byte[distinct.size()][];
+		int dataLength = 0;
+		for (final String str : distinct) {
+			final int idx = indexes.size();
+			indexes.put(str, Integer.valueOf(idx));
+			encoded[idx] = str.getBytes(UTF8);
+			dataLength += encoded[idx].length;
+		}
+
+		final DataOutputStream dout = new DataOutputStream(
+				new BufferedOutputStream(out));
+		dout.writeInt(MAGIC);
+		dout.writeInt(VERSION);
+		dout.writeInt(encoded.length);
+		dout.writeInt(nodeCount);
+		dout.writeInt(dataLength);
+		int offset = 0;
+		for (final byte[] bytes : encoded) {
+			dout.writeInt(offset);
+			offset += bytes.length;
+		}
+		dout.writeInt(offset);
+		for (final byte[] bytes : encoded) {
+			dout.write(bytes);
+		}
+		final int[] record = new int[NODE_INTS];
+		final int[] calcNames = new int[nodeCount];
+		final int[] titles = new int[nodeCount];
+		for (int node = 0; node < nodeCount; node++) {
+			record[TYPE] = menu.getType(node).ordinal();
+			record[TITLE] = index(indexes, menu.getTitle(node));
+			record[NAME] = index(indexes, menu.getName(node));
+			record[CALC_NAME] = index(indexes, menu.getCalcName(node));
+			record[GROUP_ID] = index(indexes, menu.getGroupId(node));
+			record[ARTIFACT_ID] = index(indexes, menu.getArtifactId(node));
+			record[CI] = index(indexes, menu.getCi(node));
+			record[PARENT] = menu.getParent(node);
+			record[CHILD_COUNT] = menu.getChildCount(node);
+			if (record[CHILD_COUNT] == 0) {
+				record[FIRST_CHILD] = 0;
+			} else {
+				record[FIRST_CHILD] = menu.getChild(node, 0);
+			}
+			for (final int value : record) {
+				dout.writeInt(value);
+			}
+			calcNames[node] = record[CALC_NAME];
+			titles[node] = record[TITLE];
+		}
+		writeChildOrder(dout, menu, calcNames);
+		writeChildOrder(dout, menu, titles);
+		dout.flush();
+	}
+
+	/**
+	 * Writes the children of every node sorted by the string index of a key.
+	 * The sort is stable, so children with the same key keep their order.
+	 * 
+	 * @param dout
+	 *            Stream to write to.
+	 * @param menu
+	 *            Snapshot to write.
+	 * @param keys
+	 *            String index of the key for every node.
+	 * 
+	 * @throws IOException
+	 *             Error writing to the stream.
+	 */
+	private static void writeChildOrder(final DataOutputStream dout,
+			final FrozenMenu menu, final int[] keys) throws IOException {
+		final int[] order = new int[menu.size()];
+		for (int node = 0; node < order.length; node++) {
+			final int count = menu.getChildCount(node);
+			if (count > 0) {
+				final int first = menu.getChild(node, 0);
+				final Integer[] children = new Integer[count];
+				for (int i = 0; i < count; i++) {
+					children[i] = Integer.valueOf(first + i);
+				}
+				Arrays.sort(children, (a, b) -> Integer.compare(
+						keys[a.intValue()], keys[b.intValue()]));
+				for (int i = 0; i < count; i++) {
+					order[first + i] = children[i].intValue();
+				}
+			}
+		}
+		for (final int value : order) {
+			dout.writeInt(value);
+		}
+	}
+
+	private static void addIfNotNull(final TreeSet<String> set, final String str) {
+		if (str != null) {
+			set.add(str);
+		}
+	}
+
+	private static int index(final Map<String, Integer> indexes,
+			final String str) {
+		if (str == null) {
+			return NULL;
+		}
+		return indexes.get(str).intValue();
+	}
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Visits all descendants of a container in breadth first order. A split
+ * hands over half of the queued elements together with their subtrees. The
+ * parts are visited breadth first on their own, so the order of a parallel
+ * traversal is only kept inside each part.
+ */
+final class BreadthFirstSpliterator implements Spliterator<MenuTreeEntry> {
+
+	private final ArrayDeque<MenuTreeEntry> queue;
+
+	private long estimate;
+
+	/**
+	 * Creates a spliterator for all descendants of a container.
+	 * 
+	 * @param root
+	 *            Container to start with.
+	 */
+	BreadthFirstSpliterator(@NotNull final MenuElementContainer root) {
+		super();
+		queue = new ArrayDeque<MenuTreeEntry>();
+		enqueueChildren(root, 1);
+		estimate = Long.MAX_VALUE;
+	}
+
+	private BreadthFirstSpliterator(final ArrayDeque<MenuTreeEntry> queue,
+			final long estimate) {
+		super();
+		this.queue = queue;
+		this.estimate = estimate;
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super MenuTreeEntry> action) {
+		final MenuTreeEntry entry = queue.poll();
+		if (entry == null) {
+			return false;
+		}
+		if (entry.getElement() instanceof MenuElementContainer) {
+			enqueueChildren((MenuElementContainer) entry.getElement(),
+					entry.getDepth() + 1);
+		}
+		action.accept(entry);
+		return true;
+	}
+
+	@Override
+	public Spliterator<MenuTreeEntry> trySplit() {
+		final int half = queue.size() / 2;
+		if (half == 0) {
+			return null;
+		}
+		final ArrayDeque<MenuTreeEntry> prefix = new ArrayDeque<MenuTreeEntry>(
+				half);
+		for (int i = 0; i < half; i++) {
+			prefix.add(queue.poll());
+		}
+		estimate = estimate >>> 1;
+		return new BreadthFirstSpliterator(prefix, estimate);
+	}
+
+	@Override
+	public long estimateSize() {
+		return estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		return NONNULL;
+	}
+
+	private void enqueueChildren(final MenuElementContainer container,
+			final int depth) {
+		final List<MenuElement> children = container.getElements();
+		if (children != null) {
+			for (final MenuElement child : children) {
+				queue.add(new MenuTreeEntry(child, depth));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.List;
+
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Supplies the children of a container the first time they are accessed.
+ */
+interface ChildLoader {
+
+	/**
+	 * Creates the direct children of a container.
+	 * 
+	 * @return Children in any order - An empty list if there are none.
+	 */
+	@NeverNull
+	List<MenuElement> load();
+
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+/**
+ * State of the last build on a CI server.
+ */
+public enum CiState {
+
+	/** The last build was successful. */
+	SUCCESS,
+
+	/** The last build was successful, but tests failed. */
+	UNSTABLE,
+
+	/** The last build failed. */
+	FAILURE,
+
+	/** The last build was aborted. */
+	ABORTED,
+
+	/** A build is running. */
+	BUILDING,
+
+	/** The state could not be determined. */
+	UNKNOWN;
+
+}
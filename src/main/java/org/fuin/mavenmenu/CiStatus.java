@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+import org.fuin.objects4j.common.Nullable;
+
+/**
+ * Build status of a CI job as fetched by the {@link CiStatusPoller}.
+ * Instances are immutable.
+ */
+public final class CiStatus {
+
+	private final String url;
+
+	private final CiState state;
+
+	private final long fetched;
+
+	private final String etag;
+
+	private final String lastModified;
+
+	private final String error;
+
+	/**
+	 * Constructor with all data.
+	 * 
+	 * @param url
+	 *            CI URL of the project.
+	 * @param state
+	 *            State of the build.
+	 * @param fetched
+	 *            Time of the last successful request or validation in
+	 *            milliseconds since 1970-01-01.
+	 * @param etag
+	 *            ETag of the response or null.
+	 * @param lastModified
+	 *            Last-Modified header of the response or null.
+	 * @param error
+	 *            Reason why the state is unknown or null.
+	 */
+	public CiStatus(@NotNull final String url, @NotNull final CiState state,
+			final long fetched, @Nullable final String etag,
+			@Nullable final String lastModified, @Nullable final String error) {
+		super();
+		Contract.requireArgNotNull("url", url);
+		Contract.requireArgNotNull("state", state);
+		this.url = url;
+		this.state = state;
+		this.fetched = fetched;
+		this.etag = etag;
+		this.lastModified = lastModified;
+		this.error = error;
+	}
+
+	/**
+	 * Returns the CI URL of the project.
+	 * 
+	 * @return URL.
+	 */
+	@NeverNull
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * Returns the state of the build.
+	 * 
+	 * @return State.
+	 */
+	@NeverNull
+	public CiState getState() {
+		return state;
+	}
+
+	/**
+	 * Returns the time the state was fetched or validated the last time.
+	 * 
+	 * @return Milliseconds since 1970-01-01.
+	 */
+	public long getFetched() {
+		return fetched;
+	}
+
+	/**
+	 * Returns the ETag of the response.
+	 * 
+	 * @return ETag or null.
+	 */
+	@Nullable
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * Returns the Last-Modified header of the response.
+	 * 
+	 * @return Header value or null.
+	 */
+	@Nullable
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Returns the reason why the state is unknown.
+	 * 
+	 * @return Error message or null.
+	 */
+	@Nullable
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * Returns a copy with a new fetch time.
+	 * 
+	 * @param time
+	 *            Time of the validation.
+	 * 
+	 * @return New instance.
+	 */
+	@NeverNull
+	CiStatus validated(final long time) {
+		return new CiStatus(url, state, time, etag, lastModified, error);
+	}
+
+	@Override
+	public String toString() {
+		if (error == null) {
+			return url + ": " + state;
+		}
+		return url + ": " + state + " (" + error + ")";
+	}
+
+}
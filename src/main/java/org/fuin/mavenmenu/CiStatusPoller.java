@@ -0,0 +1,425 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+import org.fuin.objects4j.common.Nullable;
+
+/**
+ * Fetches the build status for the CI URLs of all projects in a menu. The
+ * URLs are expected to point to a Jenkins job, the state is read from the
+ * JSON API of the last build. Requests run concurrently on a pool with a
+ * fixed number of threads and every URL is only requested once per poll,
+ * even if it's used by more than one project or by polls running at the
+ * same time. Results are cached for a time to live. After that the next poll
+ * validates them with a conditional request, so an unchanged status only
+ * costs a "304 Not Modified" response. Every poll evicts the entries whose
+ * time to live expired, no matter which part of a menu they belong to.
+ */
+public final class CiStatusPoller implements Closeable {
+
+	/** Path of the JSON API of the last build relative to the job URL. */
+	private static final String API = "lastBuild/api/json?tree=result,building";
+
+	private static final Pattern RESULT = Pattern
+			.compile("\"result\"\\s*:\\s*\"([A-Z_]+)\"");
+
+	private static final Pattern BUILDING = Pattern
+			.compile("\"building\"\\s*:\\s*true");
+
+	private final ExecutorService pool;
+
+	private final long ttlMillis;
+
+	private final int timeoutMillis;
+
+	private final Map<String, CiStatus> cache;
+
+	private final Map<String, Future<CiStatus>> running;
+
+	private final LongSupplier clock;
+
+	/**
+	 * Constructor with a request timeout of 10 seconds.
+	 * 
+	 * @param maxConcurrent
+	 *            Maximum number of requests at the same time.
+	 * @param ttlMillis
+	 *            Time in milliseconds a status is used without asking the
+	 *            server again - Must be positive.
+	 */
+	public CiStatusPoller(final int maxConcurrent, final long ttlMillis) {
+		this(maxConcurrent, ttlMillis, 10000);
+	}
+
+	/**
+	 * Constructor with all data.
+	 * 
+	 * @param maxConcurrent
+	 *            Maximum number of requests at the same time.
+	 * @param ttlMillis
+	 *            Time in milliseconds a status is used without asking the
+	 *            server again - Must be positive.
+	 * @param timeoutMillis
+	 *            Connect and read timeout of a request in milliseconds - Must
+	 *            be positive.
+	 */
+	public CiStatusPoller(final int maxConcurrent, final long ttlMillis,
+			final int timeoutMillis) {
+		this(maxConcurrent, ttlMillis, timeoutMillis, System::currentTimeMillis);
+	}
+
+	/**
+	 * Constructor with a clock for tests.
+	 * 
+	 * @param maxConcurrent
+	 *            Maximum number of requests at the same time.
+	 * @param ttlMillis
+	 *            Time in milliseconds a status is used without asking the
+	 *            server again - Must be positive.
+	 * @param timeoutMillis
+	 *            Connect and read timeout of a request in milliseconds - Must
+	 *            be positive.
+	 * @param clock
+	 *            Returns the current time in milliseconds.
+	 */
+	CiStatusPoller(final int maxConcurrent, final long ttlMillis,
+			final int timeoutMillis, @NotNull final LongSupplier clock) {
+		super();
+		Contract.requireArgNotNull("clock", clock);
+		if (maxConcurrent < 1) {
+			throw new IllegalArgumentException(
+					"The number of concurrent requests must be at least 1, but was: "
+							+ maxConcurrent);
+		}
+		if (ttlMillis < 1) {
+			throw new IllegalArgumentException(
+					"The time to live must be at least 1 millisecond, but was: "
+							+ ttlMillis);
+		}
+		if (timeoutMillis < 1) {
+			throw new IllegalArgumentException(
+					"The timeout must be at least 1 millisecond, but was: "
+							+ timeoutMillis);
+		}
+		this.ttlMillis = ttlMillis;
+		this.timeoutMillis = timeoutMillis;
+		this.cache = new ConcurrentHashMap<String, CiStatus>();
+		this.running = new ConcurrentHashMap<String, Future<CiStatus>>();
+		this.clock = clock;
+		this.pool = Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+			final Thread thread = new Thread(runnable, "ci-status-poller");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Fetches the status of all projects with a CI URL in a container and
+	 * it's descendants and waits for the result.
+	 * 
+	 * @param root
+	 *            Container to poll.
+	 * 
+	 * @return Status by project - Compares the projects by identity.
+	 * 
+	 * @throws IllegalStateException
+	 *             The poller was closed.
+	 */
+	@NeverNull
+	public Map<Project, CiStatus> poll(@NotNull final MenuElementContainer root) {
+		Contract.requireArgNotNull("root", root);
+		requireOpen();
+		final List<Project> projects = new ArrayList<Project>();
+		if ((root instanceof Project) && (((Project) root).getCi() != null)) {
+			projects.add((Project) root);
+		}
+		root.stream().forEach(element -> {
+			if ((element instanceof Project)
+					&& (((Project) element).getCi() != null)) {
+				projects.add((Project) element);
+			}
+		});
+
+		final Map<String, Future<CiStatus>> futures = new HashMap<String, Future<CiStatus>>();
+		for (final Project project : projects) {
+			final String url = project.getCi();
+			if (!futures.containsKey(url)) {
+				futures.put(url, status(url));
+			}
+		}
+		// Outdated entries of this poll were already passed to the requests
+		evictExpired();
+
+		final Map<Project, CiStatus> result = new IdentityHashMap<Project, CiStatus>();
+		for (final Project project : projects) {
+			result.put(project, get(project.getCi(), futures.get(project.getCi())));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the cached status of a project without a request.
+	 * 
+	 * @param project
+	 *            Project to return the status for.
+	 * 
+	 * @return Status or null if the project has no CI URL or was not polled
+	 *         yet.
+	 */
+	@Nullable
+	public CiStatus getStatus(@NotNull final Project project) {
+		Contract.requireArgNotNull("project", project);
+		final String url = project.getCi();
+		if (url == null) {
+			return null;
+		}
+		return cache.get(url);
+	}
+
+	/**
+	 * Stops all running requests. Polls that wait for a request that never
+	 * started fail with an {@link IllegalStateException}.
+	 */
+	@Override
+	public void close() {
+		pool.shutdownNow();
+		for (final Future<CiStatus> task : running.values()) {
+			task.cancel(true);
+		}
+	}
+
+	private void requireOpen() {
+		if (pool.isShutdown()) {
+			throw new IllegalStateException("The poller is closed");
+		}
+	}
+
+	private void evictExpired() {
+		final long now = clock.getAsLong();
+		cache.values().removeIf(status -> isExpired(status, now));
+	}
+
+	private boolean isExpired(final CiStatus status, final long now) {
+		return now - status.getFetched() >= ttlMillis;
+	}
+
+	private Future<CiStatus> status(final String url) {
+		final CiStatus cached = cache.get(url);
+		if ((cached != null)
+				&& !isExpired(cached, clock.getAsLong())) {
+			return CompletableFuture.completedFuture(cached);
+		}
+		final FutureTask<CiStatus> task = new FutureTask<CiStatus>(
+				() -> fetch(url, cached));
+		Future<CiStatus> other = running.putIfAbsent(url, task);
+		while (other != null) {
+			if (!other.isDone()) {
+				return other;
+			}
+			// Finished, but not removed yet
+			running.remove(url, other);
+			other = running.putIfAbsent(url, task);
+		}
+		try {
+			pool.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					running.remove(url, task);
+				}
+			});
+		} catch (final RejectedExecutionException ex) {
+			// Closed concurrently: Never leave a task behind that won't run
+			running.remove(url, task);
+			requireOpen();
+			throw ex;
+		}
+		return task;
+	}
+
+	private CiStatus get(final String url, final Future<CiStatus> future) {
+		try {
+			return future.get();
+		} catch (final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while polling: "
+					+ url, ex);
+		} catch (final CancellationException ex) {
+			throw new IllegalStateException("Closed while polling: " + url, ex);
+		} catch (final ExecutionException ex) {
+			return new CiStatus(url, CiState.UNKNOWN, clock.getAsLong(), null,
+					null, String.valueOf(ex.getCause()));
+		}
+	}
+
+	/**
+	 * Requests the status from the server and updates the cache.
+	 * 
+	 * @param url
+	 *            CI URL of the project.
+	 * @param cached
+	 *            Outdated status from the cache or null.
+	 * 
+	 * @return New status.
+	 */
+	CiStatus fetch(@NotNull final String url, @Nullable final CiStatus cached) {
+		final long now = clock.getAsLong();
+		CiStatus status;
+		try {
+			final URLConnection connection = new URL(apiUrl(url))
+					.openConnection();
+			if (!(connection instanceof HttpURLConnection)) {
+				throw new IOException("Not an HTTP URL: " + url);
+			}
+			final HttpURLConnection con = (HttpURLConnection) connection;
+			con.setConnectTimeout(timeoutMillis);
+			con.setReadTimeout(timeoutMillis);
+			con.setRequestProperty("Accept", "application/json");
+			if ((cached != null) && (cached.getError() == null)) {
+				if (cached.getEtag() != null) {
+					con.setRequestProperty("If-None-Match", cached.getEtag());
+				}
+				if (cached.getLastModified() != null) {
+					con.setRequestProperty("If-Modified-Since",
+							cached.getLastModified());
+				}
+			}
+			final int code = con.getResponseCode();
+			if (code == HttpURLConnection.HTTP_OK) {
+				status = new CiStatus(url, parse(read(con.getInputStream())),
+						now, con.getHeaderField("ETag"),
+						con.getHeaderField("Last-Modified"), null);
+			} else {
+				discard(con);
+				if ((code == HttpURLConnection.HTTP_NOT_MODIFIED)
+						&& (cached != null)) {
+					status = cached.validated(now);
+				} else {
+					status = new CiStatus(url, CiState.UNKNOWN, now, null,
+							null, "HTTP " + code);
+				}
+			}
+		} catch (final IOException ex) {
+			status = new CiStatus(url, CiState.UNKNOWN, now, null, null,
+					ex.toString());
+		}
+		cache.put(url, status);
+		return status;
+	}
+
+	/**
+	 * Determines the state from the JSON of a Jenkins build.
+	 * 
+	 * @param json
+	 *            Response with the fields "result" and "building".
+	 * 
+	 * @return State.
+	 */
+	@NeverNull
+	static CiState parse(@NotNull final String json) {
+		if (BUILDING.matcher(json).find()) {
+			return CiState.BUILDING;
+		}
+		final Matcher matcher = RESULT.matcher(json);
+		if (!matcher.find()) {
+			return CiState.UNKNOWN;
+		}
+		try {
+			return CiState.valueOf(matcher.group(1));
+		} catch (final IllegalArgumentException ex) {
+			return CiState.UNKNOWN;
+		}
+	}
+
+	private static String apiUrl(final String url) {
+		if (url.endsWith("/")) {
+			return url + API;
+		}
+		return url + "/" + API;
+	}
+
+	/**
+	 * Reads and closes the body of a response that is not used, so the
+	 * connection can be reused.
+	 * 
+	 * @param con
+	 *            Connection with a response code other than "200 OK".
+	 */
+	private static void discard(final HttpURLConnection con) {
+		try {
+			InputStream in = con.getErrorStream();
+			if (in == null) {
+				in = con.getInputStream();
+			}
+			try {
+				final byte[] buf = new byte[4096];
+				while (in.read(buf) > -1) {
+					// Skip
+				}
+			} finally {
+				in.close();
+			}
+		} catch (final IOException ex) {
+			// No body available
+		}
+	}
+
+	private static String read(final InputStream in) throws IOException {
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buf = new byte[4096];
+			int count;
+			while ((count = in.read(buf)) > -1) {
+				out.write(buf, 0, count);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Nullable;
+
+/**
+ * Functions for calculating 64 bit content hashes. Every step mixes all bits,
+ * so the result depends on the order of the values.
+ */
+final class ContentHash {
+
+	private static final long SEED = 0x4D617665E3779B97L;
+
+	private static final long FNV_PRIME = 0x100000001B3L;
+
+	private static final long NULL_VALUE = 0x9E3779B97F4A7C15L;
+
+	private ContentHash() {
+		throw new UnsupportedOperationException(
+				"It's not allowed to create an instance of a utility class");
+	}
+
+	/**
+	 * Returns the initial hash for an element type.
+	 * 
+	 * @param type
+	 *            Type of the element.
+	 * 
+	 * @return Hash.
+	 */
+	static long start(@NotNull final MenuElementType type) {
+		return add(SEED, type.ordinal());
+	}
+
+	/**
+	 * Adds a string that may be null.
+	 * 
+	 * @param hash
+	 *            Current hash.
+	 * @param str
+	 *            String to add.
+	 * 
+	 * @return New hash.
+	 */
+	static long add(final long hash, @Nullable final String str) {
+		if (str == null) {
+			return add(hash, NULL_VALUE);
+		}
+		long h = hash;
+		final int len = str.length();
+		for (int i = 0; i < len; i++) {
+			h = (h ^ str.charAt(i)) * FNV_PRIME;
+		}
+		return add(h, len);
+	}
+
+	/**
+	 * Adds a value like the hash of a child element.
+	 * 
+	 * @param hash
+	 *            Current hash.
+	 * @param value
+	 *            Value to add.
+	 * 
+	 * @return New hash.
+	 */
+	static long add(final long hash, final long value) {
+		// Finalizer of MurmurHash3
+		long h = hash ^ (value * FNV_PRIME) ^ Long.rotateLeft(value, 31);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
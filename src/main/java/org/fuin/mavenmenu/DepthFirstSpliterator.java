@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Visits all descendants of a container in depth first order. A split hands
+ * over the subtree that is currently visited together with the first half
+ * of the remaining siblings on the highest level, so both parts get whole
+ * subtrees and the encounter order is kept.<br>
+ * <br>
+ * The sizes of the subtrees are not known, so the parts can be unbalanced.
+ * If the started subtree is large and only a few siblings remain on the
+ * highest level, the prefix gets most of the elements. Splitting the prefix
+ * again hands over it's siblings on the highest level first and then the
+ * remaining levels of the started subtree, so the work is still distributed,
+ * but with more splits. {@link #estimateSize()} is halved with every split
+ * and is only a rough guess.
+ */
+final class DepthFirstSpliterator implements Spliterator<MenuTreeEntry> {
+
+	/** Open levels - The first entry is the highest one. */
+	private final List<Level> levels;
+
+	private long estimate;
+
+	/**
+	 * Creates a spliterator for all descendants of a container.
+	 * 
+	 * @param root
+	 *            Container to start with.
+	 */
+	DepthFirstSpliterator(@NotNull final MenuElementContainer root) {
+		super();
+		levels = new ArrayList<Level>();
+		final List<MenuElement> children = root.getElements();
+		if (children != null) {
+			levels.add(new Level(children, 0, children.size(), 1));
+		}
+		estimate = Long.MAX_VALUE;
+	}
+
+	private DepthFirstSpliterator(final List<Level> levels,
+			final long estimate) {
+		super();
+		this.levels = levels;
+		this.estimate = estimate;
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super MenuTreeEntry> action) {
+		while (!levels.isEmpty()) {
+			final Level level = levels.get(levels.size() - 1);
+			if (level.next >= level.end) {
+				levels.remove(levels.size() - 1);
+				continue;
+			}
+			final MenuElement element = level.elements.get(level.next++);
+			if (element instanceof MenuElementContainer) {
+				final List<MenuElement> children = ((MenuElementContainer) element)
+						.getElements();
+				if ((children != null) && !children.isEmpty()) {
+					levels.add(new Level(children, 0, children.size(),
+							level.depth + 1));
+				}
+			}
+			action.accept(new MenuTreeEntry(element, level.depth));
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Spliterator<MenuTreeEntry> trySplit() {
+		int first = 0;
+		while ((first < levels.size())
+				&& (levels.get(first).next >= levels.get(first).end)) {
+			first++;
+		}
+		if (first == levels.size()) {
+			return null;
+		}
+		final Level level = levels.get(first);
+		final int remaining = level.end - level.next;
+		final int mid = level.next + (remaining / 2);
+		if ((mid == level.next) && !startedBelow(first)) {
+			// Only a single subtree left that was not started yet
+			return null;
+		}
+
+		// The prefix gets the lower levels and the first half of the siblings
+		final List<Level> prefix = new ArrayList<Level>(levels.subList(first,
+				levels.size()));
+		prefix.set(0, new Level(level.elements, level.next, mid, level.depth));
+		levels.clear();
+		levels.add(new Level(level.elements, mid, level.end, level.depth));
+		estimate = estimate >>> 1;
+		return new DepthFirstSpliterator(prefix, estimate);
+	}
+
+	private boolean startedBelow(final int index) {
+		for (int i = index + 1; i < levels.size(); i++) {
+			if (levels.get(i).next < levels.get(i).end) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public long estimateSize() {
+		return estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	/**
+	 * Range of siblings that still has to be visited.
+	 */
+	private static final class Level {
+
+		private final List<MenuElement> elements;
+
+		private int next;
+
+		private final int end;
+
+		private final int depth;
+
+		Level(final List<MenuElement> elements, final int next, final int end,
+				final int depth) {
+			super();
+			this.elements = elements;
+			this.next = next;
+			this.end = end;
+			this.depth = depth;
+		}
+
+	}
+
+}
@@ -0,0 +1,403 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+import org.fuin.objects4j.common.Nullable;
+
+/**
+ * Immutable snapshot of a menu tree. All nodes are stored in flat arrays and
+ * addressed by an <code>int</code> node index. The nodes are laid out breadth
+ * first, so the children of a node occupy a contiguous index range. Calculated
+ * names are computed once while freezing. Lookups use hash tables built during
+ * construction. No method allocates or locks, so any number of threads can
+ * use an instance concurrently.
+ */
+public final class FrozenMenu {
+
+	/** Index of the root node. */
+	public static final int ROOT = 0;
+
+	/** Index returned if a node was not found. */
+	public static final int NOT_FOUND = -1;
+
+	private final MenuElementType[] types;
+
+	private final String[] titles;
+
+	private final String[] names;
+
+	private final String[] calcNames;
+
+	private final String[] groupIds;
+
+	private final String[] artifactIds;
+
+	private final String[] cis;
+
+	private final int[] parents;
+
+	private final int[] firstChildren;
+
+	private final int[] childCounts;
+
+	/** Open addressing table (parent, calculated name) to node index + 1. */
+	private final int[] nameTable;
+
+	/** Open addressing table (parent, title) to node index + 1. */
+	private final int[] titleTable;
+
+	/**
+	 * Creates a snapshot of a container and all it's descendants.
+	 * 
+	 * @param root
+	 *            Root of the snapshot.
+	 */
+	FrozenMenu(@NotNull final MenuElementContainer root) {
+		super();
+		Contract.requireArgNotNull("root", root);
+
+		final List<MenuElement> nodes = new ArrayList<MenuElement>();
+		final List<Integer> parentList = new ArrayList<Integer>();
+		nodes.add(root);
+		parentList.add(Integer.valueOf(NOT_FOUND));
+		final List<Integer> firstChildList = new ArrayList<Integer>();
+		for (int i = 0; i < nodes.size(); i++) {
+			firstChildList.add(Integer.valueOf(nodes.size()));
+			final MenuElement node = nodes.get(i);
+			if (node instanceof MenuElementContainer) {
+				final List<MenuElement> children = ((MenuElementContainer) node)
+						.getElements();
+				if (children != null) {
+					for (final MenuElement child : children) {
+						nodes.add(child);
+						parentList.add(Integer.valueOf(i));
+					}
+				}
+			}
+		}
+
+		final int size = nodes.size();
+		types = new MenuElementType[size];
+		titles = new String[size];
+		names = new String[size];
+		calcNames = new String[size];
+		groupIds = new String[size];
+		artifactIds = new String[size];
+		cis = new String[size];
+		parents = new int[size];
+		firstChildren = new int[size];
+		childCounts = new int[size];
+		for (int i = 0; i < size; i++) {
+			final MenuElement node = nodes.get(i);
+			types[i] = MenuElementType.of(node);
+			titles[i] = node.getTitle();
+			names[i] = node.getName();
+			calcNames[i] = node.getCalcName();
+			if (node instanceof Project) {
+				final Project project = (Project) node;
+				groupIds[i] = project.getGroupId();
+				artifactIds[i] = project.getArtifactId();
+				cis[i] = project.getCi();
+			}
+			parents[i] = parentList.get(i).intValue();
+			firstChildren[i] = firstChildList.get(i).intValue();
+			if (i > 0) {
+				childCounts[parents[i]]++;
+			}
+		}
+
+		nameTable = new int[tableSize(size)];
+		titleTable = new int[tableSize(size)];
+		for (int i = 1; i < size; i++) {
+			put(nameTable, calcNames, i);
+			put(titleTable, titles, i);
+		}
+	}
+
+	/**
+	 * Returns the number of nodes including the root.
+	 * 
+	 * @return Number of nodes.
+	 */
+	public int size() {
+		return types.length;
+	}
+
+	/**
+	 * Returns the type of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Type.
+	 */
+	@NeverNull
+	public MenuElementType getType(final int node) {
+		return types[node];
+	}
+
+	/**
+	 * Returns the title of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Title.
+	 */
+	@NeverNull
+	public String getTitle(final int node) {
+		return titles[node];
+	}
+
+	/**
+	 * Returns the name of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Name or null.
+	 */
+	@Nullable
+	public String getName(final int node) {
+		return names[node];
+	}
+
+	/**
+	 * Returns the calculated name of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Calculated name.
+	 */
+	@NeverNull
+	public String getCalcName(final int node) {
+		return calcNames[node];
+	}
+
+	/**
+	 * Returns the Maven group ID of a project node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Group ID or null.
+	 */
+	@Nullable
+	public String getGroupId(final int node) {
+		return groupIds[node];
+	}
+
+	/**
+	 * Returns the Maven artifact ID of a project node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Artifact ID or null.
+	 */
+	@Nullable
+	public String getArtifactId(final int node) {
+		return artifactIds[node];
+	}
+
+	/**
+	 * Returns the CI server URL of a project node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return CI server URL or null.
+	 */
+	@Nullable
+	public String getCi(final int node) {
+		return cis[node];
+	}
+
+	/**
+	 * Returns the parent of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Index of the parent or {@link #NOT_FOUND} for the root.
+	 */
+	public int getParent(final int node) {
+		return parents[node];
+	}
+
+	/**
+	 * Returns the number of direct children of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Number of children.
+	 */
+	public int getChildCount(final int node) {
+		return childCounts[node];
+	}
+
+	/**
+	 * Returns a direct child of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @param index
+	 *            Position of the child (0 ... childCount - 1).
+	 * 
+	 * @return Index of the child node.
+	 */
+	public int getChild(final int node, final int index) {
+		if ((index < 0) || (index >= childCounts[node])) {
+			throw new IndexOutOfBoundsException("Child index " + index
+					+ " is not in range [0.." + childCounts[node] + "[");
+		}
+		return firstChildren[node] + index;
+	}
+
+	/**
+	 * Locates a direct child by it's calculated name.
+	 * 
+	 * @param node
+	 *            Index of the parent node.
+	 * @param name
+	 *            Name of the child.
+	 * 
+	 * @return Index of the child or {@link #NOT_FOUND}.
+	 */
+	public int findByName(final int node, @NotNull final String name) {
+		Contract.requireArgNotNull("name", name);
+		return get(nameTable, calcNames, node, name);
+	}
+
+	/**
+	 * Locates a direct child by it's title.
+	 * 
+	 * @param node
+	 *            Index of the parent node.
+	 * @param title
+	 *            Title of the child.
+	 * 
+	 * @return Index of the child or {@link #NOT_FOUND}.
+	 */
+	public int findByTitle(final int node, @NotNull final String title) {
+		Contract.requireArgNotNull("title", title);
+		return get(titleTable, titles, node, title);
+	}
+
+	/**
+	 * Locates a node by a path of calculated names separated by '/' relative
+	 * to the root. Works like {@link MenuElementContainer#findByPath(String)}.
+	 * 
+	 * @param path
+	 *            Path like "/a/kickstart-4-j/examples".
+	 * 
+	 * @return Index of the node or {@link #NOT_FOUND}.
+	 */
+	public int findByPath(@NotNull final String path) {
+		Contract.requireArgNotNull("path", path);
+		int current = ROOT;
+		int start = 0;
+		final int len = path.length();
+		while (start < len) {
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = len;
+			}
+			if (end > start) {
+				current = get(nameTable, calcNames, current, path, start, end);
+				if (current == NOT_FOUND) {
+					return NOT_FOUND;
+				}
+			}
+			start = end + 1;
+		}
+		return current;
+	}
+
+	private void put(final int[] table, final String[] keys, final int node) {
+		final int parent = parents[node];
+		final String key = keys[node];
+		final int mask = table.length - 1;
+		int slot = hash(parent, key.hashCode()) & mask;
+		while (table[slot] != 0) {
+			final int other = table[slot] - 1;
+			if ((parents[other] == parent) && keys[other].equals(key)) {
+				// First child in list order wins
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = node + 1;
+	}
+
+	private int get(final int[] table, final String[] keys, final int parent,
+			final String key) {
+		final int mask = table.length - 1;
+		int slot = hash(parent, key.hashCode()) & mask;
+		while (table[slot] != 0) {
+			final int other = table[slot] - 1;
+			if ((parents[other] == parent) && keys[other].equals(key)) {
+				return other;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return NOT_FOUND;
+	}
+
+	private int get(final int[] table, final String[] keys, final int parent,
+			final String path, final int start, final int end) {
+		final int len = end - start;
+		int keyHash = 0;
+		for (int i = start; i < end; i++) {
+			keyHash = 31 * keyHash + path.charAt(i);
+		}
+		final int mask = table.length - 1;
+		int slot = hash(parent, keyHash) & mask;
+		while (table[slot] != 0) {
+			final int other = table[slot] - 1;
+			if ((parents[other] == parent) && (keys[other].length() == len)
+					&& keys[other].regionMatches(0, path, start, len)) {
+				return other;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return NOT_FOUND;
+	}
+
+	private static int hash(final int parent, final int keyHash) {
+		final int h = (parent * 0x9E3779B9) ^ keyHash;
+		return h ^ (h >>> 16);
+	}
+
+	private static int tableSize(final int size) {
+		int capacity = 2;
+		while (capacity < size * 2) {
+			capacity = capacity << 1;
+		}
+		return capacity;
+	}
+
+}
@@ -0,0 +1,432 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Inverted trigram index for a tolerant search over all elements below a
+ * container. The indexed texts of an element are the lower case title, the
+ * calculated name and for projects the group and artifact ID. Every text is
+ * padded with two spaces in front and one at the end and split into all
+ * substrings of length three. A query only looks at the elements that share
+ * trigrams with it and ranks them by the Dice coefficient
+ * <code>2 * shared / (queryTrigrams + textTrigrams)</code> of their best
+ * matching text. Only the rarest trigrams of the query are used to find
+ * candidates, so frequent trigrams don't cause a scan of the whole menu. Not
+ * thread safe.
+ */
+final class FuzzyIndex {
+
+	/** Minimum score of a match. */
+	static final double MIN_SCORE = 0.3;
+
+	private static final Comparator<Set<MenuElement>> BY_SIZE = new Comparator<Set<MenuElement>>() {
+		@Override
+		public int compare(final Set<MenuElement> a, final Set<MenuElement> b) {
+			return Integer.compare(a.size(), b.size());
+		}
+	};
+
+	private final MenuElementContainer root;
+
+	/** Trigram to elements that contain it in at least one text. */
+	private final Map<String, Set<MenuElement>> postings;
+
+	/** Texts and trigrams each element was indexed with. */
+	private final Map<MenuElement, Entry> entries;
+
+	/**
+	 * Creates an index for all elements below a container.
+	 * 
+	 * @param root
+	 *            Container to index. The container itself is not indexed.
+	 */
+	FuzzyIndex(@NotNull final MenuElementContainer root) {
+		super();
+		this.root = root;
+		this.postings = new HashMap<String, Set<MenuElement>>();
+		this.entries = new IdentityHashMap<MenuElement, Entry>();
+		final List<MenuElement> children = root.getElements();
+		if (children != null) {
+			for (final MenuElement child : children) {
+				add(child);
+			}
+		}
+	}
+
+	/**
+	 * Adds an element and all elements below it.
+	 * 
+	 * @param element
+	 *            Element to add.
+	 */
+	void add(@NotNull final MenuElement element) {
+		index(element);
+		if (element instanceof MenuElementContainer) {
+			final List<MenuElement> children = ((MenuElementContainer) element)
+					.getElements();
+			if (children != null) {
+				for (final MenuElement child : children) {
+					add(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes an element and all elements below it.
+	 * 
+	 * @param element
+	 *            Element to remove.
+	 */
+	void remove(@NotNull final MenuElement element) {
+		unindex(element);
+		if (element instanceof MenuElementContainer) {
+			final List<MenuElement> children = ((MenuElementContainer) element)
+					.getElements();
+			if (children != null) {
+				for (final MenuElement child : children) {
+					remove(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Indexes an element again after it's texts changed.
+	 * 
+	 * @param element
+	 *            Changed element.
+	 */
+	void update(@NotNull final MenuElement element) {
+		unindex(element);
+		index(element);
+	}
+
+	/**
+	 * Returns the elements that match a query best.
+	 * 
+	 * @param query
+	 *            Text to search. The case is ignored.
+	 * @param limit
+	 *            Maximum number of elements to return. Nothing is returned if
+	 *            it's zero or less.
+	 * 
+	 * @return Matches with a score of at least {@link #MIN_SCORE} sorted by
+	 *         descending score, matching text and path.
+	 */
+	@NeverNull
+	List<MenuMatch> search(@NotNull final String query, final int limit) {
+		final String normalized = PrefixIndex.normalize(query.trim());
+		if ((limit <= 0) || (normalized.length() == 0)) {
+			return Collections.emptyList();
+		}
+		final String[] queryGrams = trigrams(normalized);
+
+		final List<Set<MenuElement>> lists = new ArrayList<Set<MenuElement>>(
+				queryGrams.length);
+		for (final String gram : queryGrams) {
+			final Set<MenuElement> elements = postings.get(gram);
+			if (elements == null) {
+				lists.add(Collections.<MenuElement> emptySet());
+			} else {
+				lists.add(elements);
+			}
+		}
+		Collections.sort(lists, BY_SIZE);
+
+		// Scan the posting lists from the rarest to the most frequent
+		// trigram. An element with a score of at least "s" shares at least
+		// "required(s)" trigrams with the query and is therefore contained in
+		// one of the first "length - required(s) + 1" lists. As soon as
+		// "limit" candidates were found, "s" is the worst of them, so the
+		// frequent trigrams are usually never scanned. The heap grows on
+		// demand, so a huge limit does not allocate anything up front.
+		final PriorityQueue<Candidate> best = new PriorityQueue<Candidate>(
+				Math.min(limit, 16) + 1, Collections.reverseOrder());
+		final Set<MenuElement> scored = Collections
+				.newSetFromMap(new IdentityHashMap<MenuElement, Boolean>());
+		for (int i = 0; i < lists.size(); i++) {
+			final double threshold;
+			if (best.size() < limit) {
+				threshold = MIN_SCORE;
+			} else {
+				threshold = best.peek().score;
+			}
+			if (i > queryGrams.length - required(threshold, queryGrams.length)) {
+				break;
+			}
+			for (final MenuElement element : lists.get(i)) {
+				if (scored.add(element)) {
+					offer(best, limit, element, queryGrams);
+				}
+			}
+		}
+
+		final List<Candidate> sorted = new ArrayList<Candidate>(best);
+		Collections.sort(sorted);
+		final List<MenuMatch> matches = new ArrayList<MenuMatch>(sorted.size());
+		for (final Candidate candidate : sorted) {
+			matches.add(new MenuMatch(candidate.element, candidate.path(),
+					candidate.key, candidate.score));
+		}
+		return matches;
+	}
+
+	private void offer(final PriorityQueue<Candidate> best, final int limit,
+			final MenuElement element, final String[] queryGrams) {
+		final Entry entry = entries.get(element);
+		double score = 0.0;
+		String key = null;
+		for (int i = 0; i < entry.texts.length; i++) {
+			final double textScore = dice(queryGrams, entry.grams[i]);
+			if (textScore > score) {
+				score = textScore;
+				key = entry.texts[i];
+			}
+		}
+		if (score < MIN_SCORE) {
+			return;
+		}
+		if (best.size() < limit) {
+			best.add(new Candidate(element, key, score));
+		} else if (score >= best.peek().score) {
+			final Candidate candidate = new Candidate(element, key, score);
+			if (candidate.compareTo(best.peek()) < 0) {
+				best.poll();
+				best.add(candidate);
+			}
+		}
+	}
+
+	/**
+	 * Returns the minimum number of trigrams a text must share with the query
+	 * to reach a score. A text with <code>c</code> shared trigrams has at
+	 * least <code>c</code> trigrams, so it's score is at most
+	 * <code>2c / (q + c)</code>.
+	 * 
+	 * @param score
+	 *            Score to reach.
+	 * @param queryLength
+	 *            Number of trigrams of the query.
+	 * 
+	 * @return Minimum number of shared trigrams - At least 1.
+	 */
+	static int required(final double score, final int queryLength) {
+		final double shared = score * queryLength / (2.0 - score);
+		return Math.max(1, (int) Math.ceil(shared - 1e-9));
+	}
+
+	/**
+	 * Returns the number of distinct trigrams.
+	 * 
+	 * @return Size of the index.
+	 */
+	int size() {
+		return postings.size();
+	}
+
+	private void index(final MenuElement element) {
+		final Entry entry = new Entry(element);
+		entries.put(element, entry);
+		for (final String gram : entry.distinct) {
+			Set<MenuElement> elements = postings.get(gram);
+			if (elements == null) {
+				elements = Collections
+						.newSetFromMap(new IdentityHashMap<MenuElement, Boolean>());
+				postings.put(gram, elements);
+			}
+			elements.add(element);
+		}
+	}
+
+	private void unindex(final MenuElement element) {
+		final Entry entry = entries.remove(element);
+		if (entry == null) {
+			return;
+		}
+		for (final String gram : entry.distinct) {
+			final Set<MenuElement> elements = postings.get(gram);
+			if (elements != null) {
+				elements.remove(element);
+				if (elements.isEmpty()) {
+					postings.remove(gram);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the texts of an element that are indexed.
+	 * 
+	 * @param element
+	 *            Element.
+	 * 
+	 * @return Distinct lower case texts.
+	 */
+	@NeverNull
+	static String[] texts(@NotNull final MenuElement element) {
+		final Set<String> texts = new TreeSet<String>();
+		texts.add(PrefixIndex.normalize(element.getTitle()));
+		texts.add(element.getCalcName());
+		if (element instanceof Project) {
+			final Project project = (Project) element;
+			if (project.getGroupId() != null) {
+				texts.add(PrefixIndex.normalize(project.getGroupId()));
+			}
+			if (project.getArtifactId() != null) {
+				texts.add(PrefixIndex.normalize(project.getArtifactId()));
+			}
+		}
+		texts.remove("");
+		return texts.toArray(new String[texts.size()]);
+	}
+
+	/**
+	 * Splits a text into trigrams.
+	 * 
+	 * @param text
+	 *            Lower case text.
+	 * 
+	 * @return Sorted distinct trigrams.
+	 */
+	@NeverNull
+	static String[] trigrams(@NotNull final String text) {
+		final String padded = "  " + text + " ";
+		final Set<String> grams = new TreeSet<String>();
+		for (int i = 0; i + 3 <= padded.length(); i++) {
+			grams.add(padded.substring(i, i + 3));
+		}
+		return grams.toArray(new String[grams.size()]);
+	}
+
+	/**
+	 * Calculates the Dice coefficient of two sorted sets of trigrams.
+	 * 
+	 * @param a
+	 *            First sorted set.
+	 * @param b
+	 *            Second sorted set.
+	 * 
+	 * @return Similarity between 0.0 and 1.0.
+	 */
+	static double dice(@NotNull final String[] a, @NotNull final String[] b) {
+		if ((a.length == 0) && (b.length == 0)) {
+			return 0.0;
+		}
+		int shared = 0;
+		int i = 0;
+		int j = 0;
+		while ((i < a.length) && (j < b.length)) {
+			final int result = a[i].compareTo(b[j]);
+			if (result == 0) {
+				shared++;
+				i++;
+				j++;
+			} else if (result < 0) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return (2.0 * shared) / (a.length + b.length);
+	}
+
+	/**
+	 * Scored element. Ordered by descending score, the matching text and the
+	 * path. The path is only built if score and text are equal.
+	 */
+	private final class Candidate implements Comparable<Candidate> {
+
+		private final MenuElement element;
+
+		private final String key;
+
+		private final double score;
+
+		private String path;
+
+		Candidate(final MenuElement element, final String key,
+				final double score) {
+			super();
+			this.element = element;
+			this.key = key;
+			this.score = score;
+		}
+
+		String path() {
+			if (path == null) {
+				path = MenuMatch.path(root, element);
+			}
+			return path;
+		}
+
+		@Override
+		public int compareTo(final Candidate other) {
+			int result = Double.compare(other.score, score);
+			if (result == 0) {
+				result = key.compareTo(other.key);
+				if (result == 0) {
+					result = path().compareTo(other.path());
+				}
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * Indexed texts of an element with their trigrams.
+	 */
+	private static final class Entry {
+
+		private final String[] texts;
+
+		private final String[][] grams;
+
+		private final String[] distinct;
+
+		Entry(final MenuElement element) {
+			super();
+			texts = texts(element);
+			grams = new String[texts.length][];
+			final Set<String> all = new TreeSet<String>();
+			for (int i = 0; i < texts.length; i++) {
+				grams[i] = trigrams(texts[i]);
+				all.addAll(Arrays.asList(grams[i]));
+			}
+			distinct = all.toArray(new String[all.size()]);
+		}
+
+	}
+
+}
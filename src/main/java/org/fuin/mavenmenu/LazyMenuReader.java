@@ -0,0 +1,640 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fuin.mavenmenu.StaxMenuReader.ARTIFACT_ID;
+import static org.fuin.mavenmenu.StaxMenuReader.CI;
+import static org.fuin.mavenmenu.StaxMenuReader.GROUP_ID;
+import static org.fuin.mavenmenu.StaxMenuReader.MENU;
+import static org.fuin.mavenmenu.StaxMenuReader.NAME;
+import static org.fuin.mavenmenu.StaxMenuReader.PAGE;
+import static org.fuin.mavenmenu.StaxMenuReader.PROJECT;
+import static org.fuin.mavenmenu.StaxMenuReader.TITLE;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Reads a menu XML document lazily. Only the root element is parsed
+ * immediately. The children of a container are parsed the first time they
+ * are accessed, until then a container only knows the byte range of it's
+ * content in the source. Startup time and heap usage therefore depend on the
+ * part of the menu that is actually used and not on the size of the document.
+ * <br>
+ * <br>
+ * The document must be encoded in UTF-8 (or US-ASCII) and must not use a DTD.
+ * The buffer must not be changed as long as the menu is in use. Errors in the
+ * part of the document that is loaded lazily are reported as
+ * {@link IllegalStateException} on first access of the container. This
+ * includes end tags that do not match their start tag and child elements of
+ * a page.
+ */
+public final class LazyMenuReader {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Default constructor.
+	 */
+	public LazyMenuReader() {
+		super();
+	}
+
+	/**
+	 * Maps a file into memory and reads the menu from it. The file is only
+	 * read when the elements are accessed.
+	 * 
+	 * @param file
+	 *            File to read.
+	 * 
+	 * @return New menu.
+	 * 
+	 * @throws IOException
+	 *             Error mapping the file.
+	 */
+	@NeverNull
+	public Menu read(@NotNull final File file) throws IOException {
+		Contract.requireArgNotNull("file", file);
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size()));
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads a menu from the remaining bytes of a buffer. The position of the
+	 * buffer is not changed.
+	 * 
+	 * @param buffer
+	 *            Buffer with the XML document.
+	 * 
+	 * @return New menu.
+	 */
+	@NeverNull
+	public Menu read(@NotNull final ByteBuffer buffer) {
+		Contract.requireArgNotNull("buffer", buffer);
+		final Source source = new Source(buffer.slice());
+		return source.readRoot();
+	}
+
+	/**
+	 * Loads the children of a container from a range of the source.
+	 */
+	private static final class SubtreeLoader implements ChildLoader {
+
+		private final Source source;
+
+		private final int start;
+
+		private final int end;
+
+		SubtreeLoader(final Source source, final int start, final int end) {
+			super();
+			this.source = source;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public List<MenuElement> load() {
+			return source.readChildren(start, end);
+		}
+
+	}
+
+	/**
+	 * Start tag of an element.
+	 */
+	private static final class Tag {
+
+		/** Local name. */
+		private String name;
+
+		/** Name including the prefix as used in the document. */
+		private String qname;
+
+		private String title;
+
+		private String nameAttr;
+
+		private String groupId;
+
+		private String artifactId;
+
+		private String ci;
+
+		/** Position after the closing '&gt;'. */
+		private int end;
+
+		/** Tag is closed with '/&gt;'. */
+		private boolean empty;
+
+	}
+
+	/**
+	 * Minimal XML scanner on the raw bytes of the document. Only absolute
+	 * reads are used, so the buffer can be shared between containers.
+	 */
+	private static final class Source {
+
+		private final ByteBuffer buf;
+
+		private final int limit;
+
+		Source(final ByteBuffer buf) {
+			super();
+			this.buf = buf;
+			this.limit = buf.limit();
+		}
+
+		Menu readRoot() {
+			int pos = skipProlog(0);
+			final Tag tag = readStartTag(pos);
+			if (!MENU.equals(tag.name)) {
+				throw error(pos, "Expected root element '" + MENU
+						+ "', but was: " + tag.name);
+			}
+			final Menu menu = (Menu) create(pos, tag);
+			if (!tag.empty) {
+				menu.setChildLoader(new SubtreeLoader(this, tag.end,
+						rootContentEnd(tag)));
+			}
+			return menu;
+		}
+
+		List<MenuElement> readChildren(final int start, final int end) {
+			List<MenuElement> children = null;
+			int pos = start;
+			while (pos < end) {
+				pos = indexOf((byte) '<', pos, end);
+				if (pos < 0) {
+					break;
+				}
+				final int next = skipSpecial(pos);
+				if (next > pos) {
+					pos = next;
+					continue;
+				}
+				if (get(pos + 1) == '/') {
+					throw error(pos, "Unexpected end tag");
+				}
+				final Tag tag = readStartTag(pos);
+				final MenuElement element = create(pos, tag);
+				if (tag.empty) {
+					pos = tag.end;
+				} else {
+					final int contentEnd = skipContent(tag.end, tag.qname);
+					if (element instanceof MenuElementContainer) {
+						((MenuElementContainer) element)
+								.setChildLoader(new SubtreeLoader(this,
+										tag.end, contentEnd));
+					} else {
+						requireNoChildren(tag, contentEnd);
+					}
+					pos = indexOf((byte) '>', contentEnd, limit) + 1;
+				}
+				if (children == null) {
+					children = new ArrayList<MenuElement>();
+				}
+				children.add(element);
+			}
+			if (children == null) {
+				return Collections.emptyList();
+			}
+			return children;
+		}
+
+		private MenuElement create(final int pos, final Tag tag) {
+			if ((tag.title == null) || (tag.title.length() == 0)) {
+				throw error(pos, "Attribute '" + TITLE
+						+ "' is required for element '" + tag.name + "'");
+			}
+			if (MENU.equals(tag.name)) {
+				return new Menu(tag.title, tag.nameAttr);
+			}
+			if (PROJECT.equals(tag.name)) {
+				final Project project = new Project(tag.title, tag.nameAttr);
+				project.setGroupId(tag.groupId);
+				project.setArtifactId(tag.artifactId);
+				project.setCi(tag.ci);
+				return project;
+			}
+			if (PAGE.equals(tag.name)) {
+				return new Page(tag.title, tag.nameAttr);
+			}
+			throw error(pos, "Unknown element: " + tag.name);
+		}
+
+		/**
+		 * Verifies that the content of an element that is not a container
+		 * has no child elements.
+		 */
+		private void requireNoChildren(final Tag tag, final int contentEnd) {
+			int pos = tag.end;
+			while (true) {
+				pos = indexOf((byte) '<', pos, contentEnd);
+				if (pos < 0) {
+					return;
+				}
+				final int next = skipSpecial(pos);
+				if (next == pos) {
+					throw error(pos, "Element '" + tag.name
+							+ "' cannot have children");
+				}
+				pos = next;
+			}
+		}
+
+		/**
+		 * Skips BOM, XML declaration, comments, processing instructions and
+		 * white space before the root element.
+		 */
+		private int skipProlog(final int start) {
+			int pos = start;
+			if ((limit >= 3) && ((get(0) & 0xFF) == 0xEF)
+					&& ((get(1) & 0xFF) == 0xBB) && ((get(2) & 0xFF) == 0xBF)) {
+				pos = 3;
+			}
+			if (startsWith(pos, "<?xml")) {
+				final int end = indexOf("?>", pos);
+				final String decl = decode(pos, end);
+				final int idx = decl.indexOf("encoding");
+				if (idx > 0) {
+					final String enc = decl.substring(idx).toUpperCase();
+					if (!(enc.contains("UTF-8") || enc.contains("US-ASCII"))) {
+						throw error(pos, "Only UTF-8 is supported: " + decl);
+					}
+				}
+				pos = end + 2;
+			}
+			while (true) {
+				pos = skipWhitespace(pos);
+				if (startsWith(pos, "<!DOCTYPE")) {
+					throw error(pos, "DTD is not supported");
+				}
+				final int next = skipSpecial(pos);
+				if (next == pos) {
+					return pos;
+				}
+				pos = next;
+			}
+		}
+
+		/**
+		 * Skips a comment, processing instruction or CDATA section.
+		 * 
+		 * @return Position after the construct or the unchanged position if
+		 *         there is none.
+		 */
+		private int skipSpecial(final int pos) {
+			if (startsWith(pos, "<!--")) {
+				return indexOf("-->", pos + 4) + 3;
+			}
+			if (startsWith(pos, "<![CDATA[")) {
+				return indexOf("]]>", pos + 9) + 3;
+			}
+			if (startsWith(pos, "<?")) {
+				return indexOf("?>", pos + 2) + 2;
+			}
+			return pos;
+		}
+
+		/**
+		 * Determines the end of the root element's content. Looks for the
+		 * root end tag from the end of the document and only scans the whole
+		 * document if something else follows it.
+		 */
+		private int rootContentEnd(final Tag root) {
+			final int contentStart = root.end;
+			int pos = limit - 1;
+			while ((pos >= contentStart) && isWhitespace(get(pos))) {
+				pos--;
+			}
+			if ((pos > contentStart) && (get(pos) == '>')
+					&& (get(pos - 1) != '-') && (get(pos - 1) != '?')) {
+				while ((pos >= contentStart) && (get(pos) != '<')) {
+					pos--;
+				}
+				if ((pos >= contentStart) && (get(pos + 1) == '/')) {
+					requireEndTag(pos, root.qname);
+					return pos;
+				}
+			}
+			return skipContent(contentStart, root.qname);
+		}
+
+		/**
+		 * Skips the content of an element.
+		 * 
+		 * @param start
+		 *            Position after the start tag.
+		 * @param qname
+		 *            Name of the start tag.
+		 * 
+		 * @return Position of the matching end tag.
+		 */
+		private int skipContent(final int start, final String qname) {
+			int depth = 1;
+			int pos = start;
+			while (true) {
+				pos = indexOf((byte) '<', pos, limit);
+				if (pos < 0) {
+					throw error(start, "Element is not closed");
+				}
+				final int next = skipSpecial(pos);
+				if (next > pos) {
+					pos = next;
+				} else if (get(pos + 1) == '/') {
+					depth--;
+					if (depth == 0) {
+						requireEndTag(pos, qname);
+						return pos;
+					}
+					pos = indexOf((byte) '>', pos, limit) + 1;
+				} else {
+					pos = skipTag(pos);
+					if (get(pos - 2) != '/') {
+						depth++;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Verifies that an end tag closes the expected element.
+		 * 
+		 * @param start
+		 *            Position of the end tag.
+		 * @param qname
+		 *            Name of the start tag.
+		 */
+		private void requireEndTag(final int start, final String qname) {
+			int pos = start + 2;
+			while ((pos < limit) && !isWhitespace(get(pos))
+					&& (get(pos) != '>')) {
+				pos++;
+			}
+			final String endName = decode(start + 2, pos);
+			if (!endName.equals(qname)) {
+				throw error(start, "End tag '" + endName
+						+ "' does not match start tag '" + qname + "'");
+			}
+			if (get(skipWhitespace(pos)) != '>') {
+				throw error(start, "Expected '>'");
+			}
+		}
+
+		/**
+		 * Skips a start tag without decoding it.
+		 * 
+		 * @return Position after the closing '&gt;'.
+		 */
+		private int skipTag(final int start) {
+			int pos = start + 1;
+			while (pos < limit) {
+				final byte b = get(pos);
+				if ((b == '"') || (b == '\'')) {
+					pos = indexOf(b, pos + 1, limit);
+					if (pos < 0) {
+						break;
+					}
+				} else if (b == '>') {
+					return pos + 1;
+				}
+				pos++;
+			}
+			throw error(start, "Tag is not closed");
+		}
+
+		private Tag readStartTag(final int start) {
+			final Tag tag = new Tag();
+			int pos = start + 1;
+			final int nameStart = pos;
+			while ((pos < limit) && !isWhitespace(get(pos))
+					&& (get(pos) != '/') && (get(pos) != '>')) {
+				pos++;
+			}
+			tag.qname = decode(nameStart, pos);
+			tag.name = localName(tag.qname);
+			while (true) {
+				pos = skipWhitespace(pos);
+				if (pos >= limit) {
+					throw error(start, "Tag is not closed");
+				}
+				final byte b = get(pos);
+				if (b == '>') {
+					tag.end = pos + 1;
+					return tag;
+				}
+				if (b == '/') {
+					if (get(pos + 1) != '>') {
+						throw error(pos, "Expected '>'");
+					}
+					tag.end = pos + 2;
+					tag.empty = true;
+					return tag;
+				}
+				final int attrStart = pos;
+				while ((pos < limit) && (get(pos) != '=')
+						&& !isWhitespace(get(pos))) {
+					pos++;
+				}
+				final String attrName = localName(decode(attrStart, pos));
+				pos = skipWhitespace(pos);
+				if (get(pos) != '=') {
+					throw error(pos, "Expected '='");
+				}
+				pos = skipWhitespace(pos + 1);
+				final byte quote = get(pos);
+				if ((quote != '"') && (quote != '\'')) {
+					throw error(pos, "Expected quote");
+				}
+				final int valueEnd = indexOf(quote, pos + 1, limit);
+				if (valueEnd < 0) {
+					throw error(pos, "Attribute value is not closed");
+				}
+				final String value = attributeValue(decode(pos + 1, valueEnd));
+				if (TITLE.equals(attrName)) {
+					tag.title = value;
+				} else if (NAME.equals(attrName)) {
+					tag.nameAttr = value;
+				} else if (GROUP_ID.equals(attrName)) {
+					tag.groupId = value;
+				} else if (ARTIFACT_ID.equals(attrName)) {
+					tag.artifactId = value;
+				} else if (CI.equals(attrName)) {
+					tag.ci = value;
+				}
+				pos = valueEnd + 1;
+			}
+		}
+
+		private static String localName(final String qname) {
+			final int idx = qname.indexOf(':');
+			if (idx < 0) {
+				return qname;
+			}
+			return qname.substring(idx + 1);
+		}
+
+		/**
+		 * Normalizes white space and replaces references in an attribute
+		 * value.
+		 */
+		private String attributeValue(final String raw) {
+			if ((raw.indexOf('&') < 0) && (raw.indexOf('\n') < 0)
+					&& (raw.indexOf('\r') < 0) && (raw.indexOf('\t') < 0)) {
+				return raw;
+			}
+			final StringBuilder sb = new StringBuilder(raw.length());
+			int i = 0;
+			while (i < raw.length()) {
+				final char ch = raw.charAt(i);
+				if (ch == '&') {
+					final int end = raw.indexOf(';', i);
+					if (end < 0) {
+						throw new IllegalStateException(
+								"Invalid reference in attribute value: " + raw);
+					}
+					appendReference(sb, raw.substring(i + 1, end), raw);
+					i = end + 1;
+				} else if (ch == '\r') {
+					sb.append(' ');
+					if ((i + 1 < raw.length()) && (raw.charAt(i + 1) == '\n')) {
+						i++;
+					}
+					i++;
+				} else if ((ch == '\n') || (ch == '\t')) {
+					sb.append(' ');
+					i++;
+				} else {
+					sb.append(ch);
+					i++;
+				}
+			}
+			return sb.toString();
+		}
+
+		private static void appendReference(final StringBuilder sb,
+				final String ref, final String raw) {
+			if (ref.equals("lt")) {
+				sb.append('<');
+			} else if (ref.equals("gt")) {
+				sb.append('>');
+			} else if (ref.equals("amp")) {
+				sb.append('&');
+			} else if (ref.equals("quot")) {
+				sb.append('"');
+			} else if (ref.equals("apos")) {
+				sb.append('\'');
+			} else if (ref.startsWith("#x")) {
+				sb.appendCodePoint(Integer.parseInt(ref.substring(2), 16));
+			} else if (ref.startsWith("#")) {
+				sb.appendCodePoint(Integer.parseInt(ref.substring(1)));
+			} else {
+				throw new IllegalStateException("Unknown entity '" + ref
+						+ "' in attribute value: " + raw);
+			}
+		}
+
+		private String decode(final int start, final int end) {
+			final byte[] bytes = new byte[end - start];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = get(start + i);
+			}
+			return new String(bytes, UTF8);
+		}
+
+		private int skipWhitespace(final int start) {
+			int pos = start;
+			while ((pos < limit) && isWhitespace(get(pos))) {
+				pos++;
+			}
+			return pos;
+		}
+
+		private static boolean isWhitespace(final byte b) {
+			return (b == ' ') || (b == '\t') || (b == '\n') || (b == '\r');
+		}
+
+		private boolean startsWith(final int pos, final String ascii) {
+			if (pos + ascii.length() > limit) {
+				return false;
+			}
+			for (int i = 0; i < ascii.length(); i++) {
+				if (get(pos + i) != ascii.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private int indexOf(final String ascii, final int start) {
+			final byte first = (byte) ascii.charAt(0);
+			int pos = start;
+			while (true) {
+				pos = indexOf(first, pos, limit);
+				if (pos < 0) {
+					throw error(start, "Expected '" + ascii + "'");
+				}
+				if (startsWith(pos, ascii)) {
+					return pos;
+				}
+				pos++;
+			}
+		}
+
+		private int indexOf(final byte b, final int start, final int end) {
+			for (int pos = start; pos < end; pos++) {
+				if (buf.get(pos) == b) {
+					return pos;
+				}
+			}
+			return -1;
+		}
+
+		private byte get(final int pos) {
+			if (pos >= limit) {
+				return 0;
+			}
+			return buf.get(pos);
+		}
+
+		private static IllegalStateException error(final int pos,
+				final String message) {
+			return new IllegalStateException(message + " [byte " + pos + "]");
+		}
+
+	}
+
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Counters and a latency histogram for one kind of lookup. The histogram has
+ * {@link #BUCKETS} buckets with power of two limits: Bucket <code>i</code>
+ * counts lookups that took less than <code>2<sup>i</sup></code> nanoseconds
+ * and at least as long as the limit of the previous bucket. The last bucket
+ * has no upper limit. Recording is lock free and can be done by any number
+ * of threads. Values read while lookups are recorded may be slightly
+ * inconsistent with each other.
+ */
+public final class LookupMetrics {
+
+	/** Number of histogram buckets. */
+	public static final int BUCKETS = 40;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder nanos = new LongAdder();
+
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * Package visible default constructor.
+	 */
+	LookupMetrics() {
+		super();
+	}
+
+	/**
+	 * Records a lookup.
+	 * 
+	 * @param hit
+	 *            TRUE if an element was found, else FALSE.
+	 * @param duration
+	 *            Duration of the lookup in nanoseconds.
+	 */
+	final void record(final boolean hit, final long duration) {
+		if (hit) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		nanos.add(duration);
+		histogram.incrementAndGet(bucket(duration));
+	}
+
+	/**
+	 * Returns the number of lookups.
+	 * 
+	 * @return Hits plus misses.
+	 */
+	public final long getCount() {
+		return hits.sum() + misses.sum();
+	}
+
+	/**
+	 * Returns the number of lookups that found an element.
+	 * 
+	 * @return Number of hits.
+	 */
+	public final long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of lookups that didn't find an element.
+	 * 
+	 * @return Number of misses.
+	 */
+	public final long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the share of lookups that found an element.
+	 * 
+	 * @return Value between 0.0 and 1.0 - 0.0 if there was no lookup.
+	 */
+	public final double getHitRate() {
+		final long hitCount = hits.sum();
+		final long count = hitCount + misses.sum();
+		if (count == 0) {
+			return 0.0;
+		}
+		return (double) hitCount / count;
+	}
+
+	/**
+	 * Returns the share of lookups that didn't find an element.
+	 * 
+	 * @return Value between 0.0 and 1.0 - 0.0 if there was no lookup.
+	 */
+	public final double getMissRate() {
+		final long missCount = misses.sum();
+		final long count = hits.sum() + missCount;
+		if (count == 0) {
+			return 0.0;
+		}
+		return (double) missCount / count;
+	}
+
+	/**
+	 * Returns the sum of all lookup durations.
+	 * 
+	 * @return Nanoseconds.
+	 */
+	public final long getTotalNanos() {
+		return nanos.sum();
+	}
+
+	/**
+	 * Returns the average lookup duration.
+	 * 
+	 * @return Nanoseconds - 0.0 if there was no lookup.
+	 */
+	public final double getMeanNanos() {
+		final long count = getCount();
+		if (count == 0) {
+			return 0.0;
+		}
+		return (double) nanos.sum() / count;
+	}
+
+	/**
+	 * Returns a copy of the latency histogram.
+	 * 
+	 * @return Number of lookups per bucket - Always {@link #BUCKETS} entries.
+	 */
+	@NeverNull
+	public final long[] getHistogram() {
+		final long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = histogram.get(i);
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns an upper limit for the duration of the given share of all
+	 * lookups. The result is the limit of the histogram bucket that contains
+	 * the percentile, so it's accurate within a factor of two.
+	 * 
+	 * @param percentile
+	 *            Value between 0.0 and 1.0, for example 0.99.
+	 * 
+	 * @return Nanoseconds - 0 if there was no lookup.
+	 */
+	public final long getPercentileNanos(final double percentile) {
+		if ((percentile < 0.0) || (percentile > 1.0)) {
+			throw new IllegalArgumentException(
+					"The argument 'percentile' must be between 0.0 and 1.0: "
+							+ percentile);
+		}
+		final long[] counts = getHistogram();
+		long count = 0;
+		for (final long bucketCount : counts) {
+			count = count + bucketCount;
+		}
+		if (count == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(percentile * count));
+		long sum = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			sum = sum + counts[i];
+			if (sum >= rank) {
+				return getBucketLimit(i);
+			}
+		}
+		return getBucketLimit(BUCKETS - 1);
+	}
+
+	/**
+	 * Sets all counters to zero.
+	 */
+	public final void reset() {
+		hits.reset();
+		misses.reset();
+		nanos.reset();
+		for (int i = 0; i < BUCKETS; i++) {
+			histogram.set(i, 0);
+		}
+	}
+
+	@Override
+	public final String toString() {
+		return "count=" + getCount() + ", hitRate=" + getHitRate()
+				+ ", meanNanos=" + getMeanNanos() + ", p99Nanos="
+				+ getPercentileNanos(0.99);
+	}
+
+	/**
+	 * Returns the exclusive upper limit of a histogram bucket.
+	 * 
+	 * @param bucket
+	 *            Index of the bucket from 0 to {@link #BUCKETS} - 1.
+	 * 
+	 * @return Nanoseconds - {@link Long#MAX_VALUE} for the last bucket.
+	 */
+	public static long getBucketLimit(final int bucket) {
+		if ((bucket < 0) || (bucket >= BUCKETS)) {
+			throw new IllegalArgumentException(
+					"The argument 'bucket' must be between 0 and "
+							+ (BUCKETS - 1) + ": " + bucket);
+		}
+		if (bucket == BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+		return 1L << bucket;
+	}
+
+	/**
+	 * Returns the histogram bucket for a duration.
+	 * 
+	 * @param duration
+	 *            Nanoseconds.
+	 * 
+	 * @return Bucket index.
+	 */
+	static int bucket(final long duration) {
+		if (duration <= 0) {
+			return 0;
+		}
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(duration));
+	}
+
+}
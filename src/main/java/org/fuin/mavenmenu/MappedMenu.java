@@ -0,0 +1,509 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fuin.mavenmenu.BinaryMenuFormat.ARTIFACT_ID;
+import static org.fuin.mavenmenu.BinaryMenuFormat.CALC_NAME;
+import static org.fuin.mavenmenu.BinaryMenuFormat.CHILD_COUNT;
+import static org.fuin.mavenmenu.BinaryMenuFormat.CI;
+import static org.fuin.mavenmenu.BinaryMenuFormat.FIRST_CHILD;
+import static org.fuin.mavenmenu.BinaryMenuFormat.GROUP_ID;
+import static org.fuin.mavenmenu.BinaryMenuFormat.HEADER_SIZE;
+import static org.fuin.mavenmenu.BinaryMenuFormat.MAGIC;
+import static org.fuin.mavenmenu.BinaryMenuFormat.NAME;
+import static org.fuin.mavenmenu.BinaryMenuFormat.NODE_INTS;
+import static org.fuin.mavenmenu.BinaryMenuFormat.NULL;
+import static org.fuin.mavenmenu.BinaryMenuFormat.PARENT;
+import static org.fuin.mavenmenu.BinaryMenuFormat.TITLE;
+import static org.fuin.mavenmenu.BinaryMenuFormat.TYPE;
+import static org.fuin.mavenmenu.BinaryMenuFormat.VERSION;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+import org.fuin.objects4j.common.Nullable;
+
+/**
+ * Read-only menu that works directly on a file in the format written by
+ * {@link BinaryMenuWriter}. The file is mapped into memory, so no element is
+ * created on the heap and all JVMs on a host that map the same file share one
+ * copy in the page cache. Nodes are addressed by an <code>int</code> index
+ * like in {@link FrozenMenu}. Strings are only decoded when a getter is
+ * called. Lookups compare string table indexes and do not decode anything.
+ * A direct child is located with a binary search over the order tables of
+ * the format, so the cost grows logarithmically with the number of children.
+ * Only absolute reads are used, so any number of threads can use an instance
+ * concurrently.
+ */
+public final class MappedMenu {
+
+	/** Index of the root node. */
+	public static final int ROOT = 0;
+
+	/** Index returned if a node was not found. */
+	public static final int NOT_FOUND = -1;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final MenuElementType[] TYPES = MenuElementType.values();
+
+	private final ByteBuffer buf;
+
+	private final int stringCount;
+
+	private final int nodeCount;
+
+	private final int offsetsStart;
+
+	private final int dataStart;
+
+	private final int nodesStart;
+
+	private final int nameOrderStart;
+
+	private final int titleOrderStart;
+
+	/**
+	 * Maps a file into memory.
+	 * 
+	 * @param file
+	 *            File written by {@link BinaryMenuWriter}.
+	 * 
+	 * @throws IOException
+	 *             Error mapping the file or invalid content.
+	 */
+	public MappedMenu(@NotNull final File file) throws IOException {
+		this(map(file));
+	}
+
+	/**
+	 * Uses the remaining content of a buffer. The position of the buffer is
+	 * not changed and the content must not be changed afterwards.
+	 * 
+	 * @param buffer
+	 *            Buffer with data written by {@link BinaryMenuWriter}.
+	 * 
+	 * @throws IOException
+	 *             Invalid content.
+	 */
+	public MappedMenu(@NotNull final ByteBuffer buffer) throws IOException {
+		super();
+		Contract.requireArgNotNull("buffer", buffer);
+		buf = buffer.slice();
+		if ((buf.limit() < HEADER_SIZE) || (buf.getInt(0) != MAGIC)) {
+			throw new IOException("Data is not a binary menu");
+		}
+		final int version = buf.getInt(4);
+		if (version != VERSION) {
+			throw new IOException("Unsupported binary menu version: "
+					+ version);
+		}
+		stringCount = buf.getInt(8);
+		nodeCount = buf.getInt(12);
+		final int dataLength = buf.getInt(16);
+		offsetsStart = HEADER_SIZE;
+		dataStart = offsetsStart + ((stringCount + 1) * 4);
+		nodesStart = dataStart + dataLength;
+		if ((stringCount < 0) || (nodeCount < 1) || (dataLength < 0)
+				|| (nodesStart + ((long) nodeCount * (NODE_INTS + 2) * 4) > buf.limit())) {
+			throw new IOException("Invalid binary menu header");
+		}
+		nameOrderStart = nodesStart + (nodeCount * NODE_INTS * 4);
+		titleOrderStart = nameOrderStart + (nodeCount * 4);
+	}
+
+	private static ByteBuffer map(final File file) throws IOException {
+		Contract.requireArgNotNull("file", file);
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Returns the number of nodes including the root.
+	 * 
+	 * @return Number of nodes.
+	 */
+	public int size() {
+		return nodeCount;
+	}
+
+	/**
+	 * Returns the type of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Type.
+	 */
+	@NeverNull
+	public MenuElementType getType(final int node) {
+		return TYPES[field(node, TYPE)];
+	}
+
+	/**
+	 * Returns the title of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Title.
+	 */
+	@NeverNull
+	public String getTitle(final int node) {
+		return string(field(node, TITLE));
+	}
+
+	/**
+	 * Returns the name of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Name or null.
+	 */
+	@Nullable
+	public String getName(final int node) {
+		return string(field(node, NAME));
+	}
+
+	/**
+	 * Returns the calculated name of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Calculated name.
+	 */
+	@NeverNull
+	public String getCalcName(final int node) {
+		return string(field(node, CALC_NAME));
+	}
+
+	/**
+	 * Returns the Maven group ID of a project node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Group ID or null.
+	 */
+	@Nullable
+	public String getGroupId(final int node) {
+		return string(field(node, GROUP_ID));
+	}
+
+	/**
+	 * Returns the Maven artifact ID of a project node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Artifact ID or null.
+	 */
+	@Nullable
+	public String getArtifactId(final int node) {
+		return string(field(node, ARTIFACT_ID));
+	}
+
+	/**
+	 * Returns the CI server URL of a project node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return CI server URL or null.
+	 */
+	@Nullable
+	public String getCi(final int node) {
+		return string(field(node, CI));
+	}
+
+	/**
+	 * Returns the parent of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Index of the parent or {@link #NOT_FOUND} for the root.
+	 */
+	public int getParent(final int node) {
+		return field(node, PARENT);
+	}
+
+	/**
+	 * Returns the number of direct children of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * 
+	 * @return Number of children.
+	 */
+	public int getChildCount(final int node) {
+		return field(node, CHILD_COUNT);
+	}
+
+	/**
+	 * Returns a direct child of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @param index
+	 *            Position of the child (0 ... childCount - 1).
+	 * 
+	 * @return Index of the child node.
+	 */
+	public int getChild(final int node, final int index) {
+		final int count = getChildCount(node);
+		if ((index < 0) || (index >= count)) {
+			throw new IndexOutOfBoundsException("Child index " + index
+					+ " is not in range [0.." + count + "[");
+		}
+		return field(node, FIRST_CHILD) + index;
+	}
+
+	/**
+	 * Locates a direct child by it's calculated name.
+	 * 
+	 * @param node
+	 *            Index of the parent node.
+	 * @param name
+	 *            Name of the child.
+	 * 
+	 * @return Index of the child or {@link #NOT_FOUND}.
+	 */
+	public int findByName(final int node, @NotNull final String name) {
+		Contract.requireArgNotNull("name", name);
+		return findChild(node, CALC_NAME, nameOrderStart, findString(name));
+	}
+
+	/**
+	 * Locates a direct child by it's title.
+	 * 
+	 * @param node
+	 *            Index of the parent node.
+	 * @param title
+	 *            Title of the child.
+	 * 
+	 * @return Index of the child or {@link #NOT_FOUND}.
+	 */
+	public int findByTitle(final int node, @NotNull final String title) {
+		Contract.requireArgNotNull("title", title);
+		return findChild(node, TITLE, titleOrderStart, findString(title));
+	}
+
+	/**
+	 * Locates a node by a path of calculated names separated by '/' relative
+	 * to the root. Works like {@link MenuElementContainer#findByPath(String)}.
+	 * 
+	 * @param path
+	 *            Path like "/a/kickstart-4-j/examples".
+	 * 
+	 * @return Index of the node or {@link #NOT_FOUND}.
+	 */
+	public int findByPath(@NotNull final String path) {
+		Contract.requireArgNotNull("path", path);
+		int current = ROOT;
+		int start = 0;
+		final int len = path.length();
+		while (start < len) {
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = len;
+			}
+			if (end > start) {
+				current = findByName(current, path.substring(start, end));
+				if (current == NOT_FOUND) {
+					return NOT_FOUND;
+				}
+			}
+			start = end + 1;
+		}
+		return current;
+	}
+
+	/**
+	 * Locates a direct child with a binary search in an order table. If more
+	 * than one child has the string, the first one in child order is
+	 * returned.
+	 * 
+	 * @param node
+	 *            Index of the parent node.
+	 * @param field
+	 *            Position of the string in the node record.
+	 * @param orderStart
+	 *            Start of the order table sorted by the field.
+	 * @param str
+	 *            Index of the string to find.
+	 * 
+	 * @return Index of the child or {@link #NOT_FOUND}.
+	 */
+	private int findChild(final int node, final int field,
+			final int orderStart, final int str) {
+		if (str == NULL) {
+			return NOT_FOUND;
+		}
+		final int first = field(node, FIRST_CHILD);
+		int low = first;
+		int high = first + getChildCount(node) - 1;
+		int found = NOT_FOUND;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int child = buf.getInt(orderStart + (mid * 4));
+			final int key = field(child, field);
+			if (key < str) {
+				low = mid + 1;
+			} else {
+				if (key == str) {
+					found = child;
+				}
+				high = mid - 1;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Locates a string in the sorted string table with a binary search.
+	 * 
+	 * @param str
+	 *            String to find.
+	 * 
+	 * @return Index in the string table or {@link BinaryMenuFormat#NULL}.
+	 */
+	private int findString(final String str) {
+		int low = 0;
+		int high = stringCount - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int cmp = compare(mid, str);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return NULL;
+	}
+
+	/**
+	 * Compares a string of the table with another string like
+	 * {@link String#compareTo(String)} does, decoding the UTF-8 bytes on the
+	 * fly into UTF-16 characters.
+	 * 
+	 * @param idx
+	 *            Index in the string table.
+	 * @param str
+	 *            String to compare with.
+	 * 
+	 * @return Negative, zero or positive if the table string is less, equal or
+	 *         greater.
+	 */
+	private int compare(final int idx, final String str) {
+		int pos = dataStart + buf.getInt(offsetsStart + (idx * 4));
+		final int end = dataStart + buf.getInt(offsetsStart + ((idx + 1) * 4));
+		final int len = str.length();
+		int k = 0;
+		while ((pos < end) && (k < len)) {
+			final int b = buf.get(pos) & 0xFF;
+			final int cp;
+			if (b < 0x80) {
+				cp = b;
+				pos++;
+			} else if (b < 0xE0) {
+				cp = ((b & 0x1F) << 6) | (buf.get(pos + 1) & 0x3F);
+				pos += 2;
+			} else if (b < 0xF0) {
+				cp = ((b & 0x0F) << 12) | ((buf.get(pos + 1) & 0x3F) << 6)
+						| (buf.get(pos + 2) & 0x3F);
+				pos += 3;
+			} else {
+				cp = ((b & 0x07) << 18) | ((buf.get(pos + 1) & 0x3F) << 12)
+						| ((buf.get(pos + 2) & 0x3F) << 6)
+						| (buf.get(pos + 3) & 0x3F);
+				pos += 4;
+			}
+			if (cp < 0x10000) {
+				final int diff = cp - str.charAt(k);
+				if (diff != 0) {
+					return diff;
+				}
+				k++;
+			} else {
+				final int high = ((cp - 0x10000) >>> 10) + 0xD800;
+				final int low = ((cp - 0x10000) & 0x3FF) + 0xDC00;
+				int diff = high - str.charAt(k);
+				if (diff != 0) {
+					return diff;
+				}
+				k++;
+				if (k == len) {
+					return 1;
+				}
+				diff = low - str.charAt(k);
+				if (diff != 0) {
+					return diff;
+				}
+				k++;
+			}
+		}
+		if (pos < end) {
+			return 1;
+		}
+		if (k < len) {
+			return -1;
+		}
+		return 0;
+	}
+
+	private String string(final int idx) {
+		if (idx == NULL) {
+			return null;
+		}
+		final int start = dataStart + buf.getInt(offsetsStart + (idx * 4));
+		final int end = dataStart + buf.getInt(offsetsStart + ((idx + 1) * 4));
+		final byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buf.get(start + i);
+		}
+		return new String(bytes, UTF8);
+	}
+
+	private int field(final int node, final int field) {
+		if ((node < 0) || (node >= nodeCount)) {
+			throw new IndexOutOfBoundsException("Node index " + node
+					+ " is not in range [0.." + nodeCount + "[");
+		}
+		return buf.getInt(nodesStart + (((node * NODE_INTS) + field) * 4));
+	}
+
+}
@@ -16,11 +16,20 @@
  */
 package org.fuin.mavenmenu;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.validation.constraints.NotNull;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
 import org.fuin.objects4j.common.Nullable;
 
 /**
@@ -30,6 +39,22 @@ import org.fuin.objects4j.common.Nullable;
 @XmlRootElement(name = "menu")
 public class Menu extends MenuElementContainer {
 
+	/** All projects below this menu by "groupId:artifactId" - Built on demand. */
+	@XmlTransient
+	private Map<String, List<Project>> projectIndex;
+
+	/** Prefix index over titles and calculated names - Built on demand. */
+	@XmlTransient
+	private PrefixIndex prefixIndex;
+
+	/** Trigram index for tolerant searches - Built on demand. */
+	@XmlTransient
+	private FuzzyIndex fuzzyIndex;
+
+	/** Lookup statistics - Null if disabled. */
+	@XmlTransient
+	private volatile MenuMetrics metrics;
+
 	/**
 	 * Protected default constructor for deserialization.
 	 */
@@ -58,5 +83,267 @@ public class Menu extends MenuElementContainer {
 	public Menu(@NotNull final String title, @Nullable final String name) {
 		super(title, name);
 	}
-	
+
+	/**
+	 * Creates an immutable snapshot of this menu that can be shared between
+	 * threads. Later changes of the menu are not visible in the snapshot.
+	 * 
+	 * @return New snapshot.
+	 */
+	@NeverNull
+	public final FrozenMenu freeze() {
+		return new FrozenMenu(this);
+	}
+
+	/**
+	 * Starts recording the lookups of this menu and all containers below it.
+	 * Does nothing if the metrics are already enabled. Call
+	 * {@link #disableMetrics()} when the metrics are no longer needed, because
+	 * lookups of all other menus are slightly slower as long as any menu has
+	 * metrics enabled.
+	 * 
+	 * @return Metrics of this menu.
+	 */
+	@NeverNull
+	public final synchronized MenuMetrics enableMetrics() {
+		if (metrics == null) {
+			metrics = new MenuMetrics();
+			MenuMetrics.enabled();
+		}
+		return metrics;
+	}
+
+	/**
+	 * Stops recording the lookups and drops the metrics.
+	 */
+	public final synchronized void disableMetrics() {
+		if (metrics != null) {
+			metrics = null;
+			MenuMetrics.disabled();
+		}
+	}
+
+	/**
+	 * Returns the lookup metrics.
+	 * 
+	 * @return Metrics or null if disabled.
+	 */
+	@Nullable
+	public final MenuMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Locates a project anywhere below this menu by it's Maven coordinates.
+	 * 
+	 * @param groupId
+	 *            Maven group ID.
+	 * @param artifactId
+	 *            Maven artifact ID.
+	 * 
+	 * @return First project found or null if there is no project with the
+	 *         coordinates.
+	 */
+	@Nullable
+	public final Project findProject(@NotNull final String groupId,
+			@NotNull final String artifactId) {
+		final List<Project> projects = findProjects(groupId, artifactId);
+		if (projects.isEmpty()) {
+			return null;
+		}
+		return projects.get(0);
+	}
+
+	/**
+	 * Locates all projects anywhere below this menu with the given Maven
+	 * coordinates. The index is built with the first call and kept up to date
+	 * afterwards. Access to the index is synchronized.
+	 * 
+	 * @param groupId
+	 *            Maven group ID.
+	 * @param artifactId
+	 *            Maven artifact ID.
+	 * 
+	 * @return Unmodifiable copy of the list of projects.
+	 */
+	@NeverNull
+	public final synchronized List<Project> findProjects(@NotNull final String groupId,
+			@NotNull final String artifactId) {
+		Contract.requireArgNotNull("groupId", groupId);
+		Contract.requireArgNotNull("artifactId", artifactId);
+		if (projectIndex == null) {
+			projectIndex = new HashMap<String, List<Project>>();
+			indexProjects(this);
+		}
+		final List<Project> projects = projectIndex.get(key(groupId,
+				artifactId));
+		if (projects == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(new ArrayList<Project>(projects));
+	}
+
+	/**
+	 * Locates elements anywhere below this menu whose title, a word of the
+	 * title or calculated name starts with a prefix. The case is ignored. The
+	 * index is built with the first call and kept up to date afterwards, so
+	 * the cost of a query depends on the number of texts starting with the
+	 * prefix and not on the size of the menu. Access to the index is
+	 * synchronized.
+	 * 
+	 * @param prefix
+	 *            Prefix to search, for example "kick" or "src-mix".
+	 * @param limit
+	 *            Maximum number of results. Nothing is returned if it's zero or
+	 *            less.
+	 * 
+	 * @return Best matches first - Shorter matching texts are better.
+	 *         Every element is returned only once.
+	 */
+	@NeverNull
+	public final synchronized List<MenuMatch> findByPrefix(
+			@NotNull final String prefix, final int limit) {
+		Contract.requireArgNotNull("prefix", prefix);
+		if (prefixIndex == null) {
+			prefixIndex = new PrefixIndex(this);
+		}
+		return prefixIndex.find(prefix, limit);
+	}
+
+	/**
+	 * Searches elements anywhere below this menu that are similar to a query,
+	 * so misspelled or partial input like "kickstrt4j" or "srcmixin" still
+	 * finds the element. Compared are the title, the calculated name and for
+	 * projects the group and artifact ID, ignoring the case. The trigram index
+	 * is built with the first call and kept up to date afterwards. Access to
+	 * the index is synchronized.
+	 * 
+	 * @param query
+	 *            Text to search.
+	 * @param limit
+	 *            Maximum number of results. Nothing is returned if it's zero or
+	 *            less.
+	 * 
+	 * @return Best matches first. Elements with a score below 0.3 are not
+	 *         returned.
+	 */
+	@NeverNull
+	public final synchronized List<MenuMatch> search(
+			@NotNull final String query, final int limit) {
+		Contract.requireArgNotNull("query", query);
+		if (fuzzyIndex == null) {
+			fuzzyIndex = new FuzzyIndex(this);
+		}
+		return fuzzyIndex.search(query, limit);
+	}
+
+	@Override
+	final synchronized void descendantAdded(final MenuElement element) {
+		if (projectIndex != null) {
+			indexProjects(element);
+		}
+		if (prefixIndex != null) {
+			prefixIndex.add(element);
+		}
+		if (fuzzyIndex != null) {
+			fuzzyIndex.add(element);
+		}
+	}
+
+	@Override
+	final synchronized void descendantRemoved(final MenuElement element) {
+		if (projectIndex != null) {
+			unindexProjects(element);
+		}
+		if (prefixIndex != null) {
+			prefixIndex.remove(element);
+		}
+		if (fuzzyIndex != null) {
+			fuzzyIndex.remove(element);
+		}
+	}
+
+	@Override
+	final synchronized void projectChanged(final Project project, final String oldGroupId,
+			final String oldArtifactId) {
+		if (projectIndex != null) {
+			unindexProject(project, oldGroupId, oldArtifactId);
+			indexProject(project);
+		}
+		if (fuzzyIndex != null) {
+			fuzzyIndex.update(project);
+		}
+	}
+
+	private void indexProjects(final MenuElement element) {
+		if (element instanceof Project) {
+			indexProject((Project) element);
+		}
+		if (element instanceof MenuElementContainer) {
+			final List<MenuElement> children = ((MenuElementContainer) element)
+					.getElements();
+			if (children != null) {
+				for (final MenuElement child : children) {
+					indexProjects(child);
+				}
+			}
+		}
+	}
+
+	private void unindexProjects(final MenuElement element) {
+		if (element instanceof Project) {
+			final Project project = (Project) element;
+			unindexProject(project, project.getGroupId(),
+					project.getArtifactId());
+		}
+		if (element instanceof MenuElementContainer) {
+			final List<MenuElement> children = ((MenuElementContainer) element)
+					.getElements();
+			if (children != null) {
+				for (final MenuElement child : children) {
+					unindexProjects(child);
+				}
+			}
+		}
+	}
+
+	private void indexProject(final Project project) {
+		if ((project.getGroupId() == null)
+				|| (project.getArtifactId() == null)) {
+			return;
+		}
+		final String key = key(project.getGroupId(), project.getArtifactId());
+		List<Project> projects = projectIndex.get(key);
+		if (projects == null) {
+			projects = new ArrayList<Project>(1);
+			projectIndex.put(key, projects);
+		}
+		projects.add(project);
+	}
+
+	private void unindexProject(final Project project, final String groupId,
+			final String artifactId) {
+		if ((groupId == null) || (artifactId == null)) {
+			return;
+		}
+		final String key = key(groupId, artifactId);
+		final List<Project> projects = projectIndex.get(key);
+		if (projects == null) {
+			return;
+		}
+		for (int i = 0; i < projects.size(); i++) {
+			if (projects.get(i) == project) {
+				projects.remove(i);
+				break;
+			}
+		}
+		if (projects.isEmpty()) {
+			projectIndex.remove(key);
+		}
+	}
+
+	private static String key(final String groupId, final String artifactId) {
+		return groupId + ":" + artifactId;
+	}
+
 }
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+import org.fuin.objects4j.common.Nullable;
+
+/**
+ * Single difference between two menus. Paths are built from calculated names
+ * like in {@link MenuElementContainer#findByPath(String)}.
+ */
+public final class MenuChange {
+
+	private final MenuChangeType type;
+
+	private final String oldPath;
+
+	private final MenuElement oldElement;
+
+	private final String newPath;
+
+	private final MenuElement newElement;
+
+	/**
+	 * Constructor with all data.
+	 * 
+	 * @param type
+	 *            Kind of change.
+	 * @param oldPath
+	 *            Path in the old menu or null if the element was added.
+	 * @param oldElement
+	 *            Element in the old menu or null if the element was added.
+	 * @param newPath
+	 *            Path in the new menu or null if the element was removed.
+	 * @param newElement
+	 *            Element in the new menu or null if the element was removed.
+	 */
+	public MenuChange(@NotNull final MenuChangeType type,
+			@Nullable final String oldPath,
+			@Nullable final MenuElement oldElement,
+			@Nullable final String newPath,
+			@Nullable final MenuElement newElement) {
+		super();
+		Contract.requireArgNotNull("type", type);
+		this.type = type;
+		this.oldPath = oldPath;
+		this.oldElement = oldElement;
+		this.newPath = newPath;
+		this.newElement = newElement;
+	}
+
+	/**
+	 * Returns the kind of change.
+	 * 
+	 * @return Type.
+	 */
+	@NeverNull
+	public MenuChangeType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the path in the old menu.
+	 * 
+	 * @return Path or null if the element was added.
+	 */
+	@Nullable
+	public String getOldPath() {
+		return oldPath;
+	}
+
+	/**
+	 * Returns the element in the old menu.
+	 * 
+	 * @return Element or null if the element was added.
+	 */
+	@Nullable
+	public MenuElement getOldElement() {
+		return oldElement;
+	}
+
+	/**
+	 * Returns the path in the new menu.
+	 * 
+	 * @return Path or null if the element was removed.
+	 */
+	@Nullable
+	public String getNewPath() {
+		return newPath;
+	}
+
+	/**
+	 * Returns the element in the new menu.
+	 * 
+	 * @return Element or null if the element was removed.
+	 */
+	@Nullable
+	public MenuElement getNewElement() {
+		return newElement;
+	}
+
+	@Override
+	public String toString() {
+		if (oldPath == null) {
+			return type + " " + newPath;
+		}
+		if ((newPath == null) || newPath.equals(oldPath)) {
+			return type + " " + oldPath;
+		}
+		return type + " " + oldPath + " -> " + newPath;
+	}
+
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+/**
+ * Kind of a difference between two menus.
+ */
+public enum MenuChangeType {
+
+	/** The element exists only in the new menu. */
+	ADDED,
+
+	/** The element exists only in the old menu. */
+	REMOVED,
+
+	/**
+	 * The title of the element changed. Without an explicit name the path of
+	 * the element changes as well.
+	 */
+	RETITLED,
+
+	/** The name or a project attribute of the element changed. */
+	CHANGED,
+
+	/** An unchanged subtree is located under a different path. */
+	MOVED;
+
+}
@@ -0,0 +1,460 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Calculates the differences between two menus. Children are matched by
+ * their calculated name and subtrees with the same content hash are skipped,
+ * so the effort depends on the size of the changes and not on the size of
+ * the menus. Children that have no counterpart with the same name are
+ * matched by their content without the title. A single remaining container
+ * is matched with a single new one at the same position if they still share
+ * a child. This detects retitled elements without an explicit name. Other
+ * children without a counterpart are reported as removed and added, and a
+ * removed subtree that is added somewhere else with the same content is
+ * reported as a single move.
+ */
+public final class MenuDiff {
+
+	private final List<MenuChange> changes;
+
+	/**
+	 * Private constructor used by {@link #diff(Menu, Menu)}.
+	 */
+	private MenuDiff() {
+		super();
+		changes = new ArrayList<MenuChange>();
+	}
+
+	/**
+	 * Returns the changes that turn the old menu into the new one. Changes of
+	 * the same subtree are returned in depth first order.
+	 * 
+	 * @param oldMenu
+	 *            Old menu.
+	 * @param newMenu
+	 *            New menu.
+	 * 
+	 * @return List of changes - Empty if both menus have the same content.
+	 */
+	@NeverNull
+	public static List<MenuChange> diff(@NotNull final Menu oldMenu,
+			@NotNull final Menu newMenu) {
+		Contract.requireArgNotNull("oldMenu", oldMenu);
+		Contract.requireArgNotNull("newMenu", newMenu);
+		final MenuDiff diff = new MenuDiff();
+		diff.compare("/", "/", oldMenu, newMenu);
+		return diff.detectMoves();
+	}
+
+	private void compare(final String oldPath, final String newPath,
+			final MenuElement oldElement, final MenuElement newElement) {
+		if (oldElement.getContentHash() == newElement.getContentHash()) {
+			return;
+		}
+		if (!oldElement.getTitle().equals(newElement.getTitle())) {
+			changes.add(new MenuChange(MenuChangeType.RETITLED, oldPath,
+					oldElement, newPath, newElement));
+		}
+		if (attributesChanged(oldElement, newElement)) {
+			changes.add(new MenuChange(MenuChangeType.CHANGED, oldPath,
+					oldElement, newPath, newElement));
+		}
+		if (oldElement instanceof MenuElementContainer) {
+			compareChildren(prefix(oldPath), prefix(newPath),
+					(MenuElementContainer) oldElement,
+					(MenuElementContainer) newElement);
+		}
+	}
+
+	private void compareChildren(final String oldPrefix,
+			final String newPrefix, final MenuElementContainer oldContainer,
+			final MenuElementContainer newContainer) {
+		final List<MenuElement> oldChildren = elements(oldContainer);
+		final List<MenuElement> newChildren = elements(newContainer);
+
+		if (sameNames(oldChildren, newChildren)) {
+			// Usual case without added or removed children
+			for (int i = 0; i < oldChildren.size(); i++) {
+				pair(oldPrefix, newPrefix, oldChildren.get(i),
+						newChildren.get(i));
+			}
+			return;
+		}
+
+		final Map<MenuElement, MenuElement> matched = match(oldChildren,
+				newChildren);
+		for (final MenuElement newChild : newChildren) {
+			final MenuElement oldChild = matched.get(newChild);
+			if (oldChild == null) {
+				changes.add(new MenuChange(MenuChangeType.ADDED, null, null,
+						path(newPrefix, newChild), newChild));
+			} else {
+				pair(oldPrefix, newPrefix, oldChild, newChild);
+			}
+		}
+		for (final MenuElement oldChild : unmatched(oldChildren, matched)) {
+			changes.add(new MenuChange(MenuChangeType.REMOVED, path(oldPrefix,
+					oldChild), oldChild, null, null));
+		}
+	}
+
+	/**
+	 * Returns the old children that are not matched with a new child.
+	 * 
+	 * @param oldChildren
+	 *            Children of the old container.
+	 * @param matched
+	 *            Old child for every matched new child.
+	 * 
+	 * @return Unmatched old children in their original order.
+	 */
+	private static List<MenuElement> unmatched(
+			final List<MenuElement> oldChildren,
+			final Map<MenuElement, MenuElement> matched) {
+		// Elements are equal if their titles are equal, so use identity
+		final Set<MenuElement> matchedOld = Collections
+				.newSetFromMap(new IdentityHashMap<MenuElement, Boolean>());
+		matchedOld.addAll(matched.values());
+		final List<MenuElement> result = new ArrayList<MenuElement>();
+		for (final MenuElement oldChild : oldChildren) {
+			if (!matchedOld.contains(oldChild)) {
+				result.add(oldChild);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Pairs the children of two versions of a container. Children are first
+	 * matched by their calculated name. As the calculated name of an element
+	 * without an explicit name is derived from the title, a retitled element
+	 * is not found this way. The remaining children are therefore matched by
+	 * their content without the title, if they have children or project
+	 * attributes. A page that only has a title cannot be told apart from a
+	 * replaced one, so there is no match by position alone. Only if exactly
+	 * one old and one new container remain at the same position and they
+	 * still share a child, they are considered to be the same.
+	 * 
+	 * @param oldChildren
+	 *            Children of the old container.
+	 * @param newChildren
+	 *            Children of the new container.
+	 * 
+	 * @return Old child for every matched new child.
+	 */
+	private static Map<MenuElement, MenuElement> match(
+			final List<MenuElement> oldChildren,
+			final List<MenuElement> newChildren) {
+
+		final Map<MenuElement, MenuElement> matched = new IdentityHashMap<MenuElement, MenuElement>();
+
+		final Map<String, ArrayDeque<MenuElement>> byName = new HashMap<String, ArrayDeque<MenuElement>>();
+		for (final MenuElement oldChild : oldChildren) {
+			queue(byName, oldChild.getCalcName()).add(oldChild);
+		}
+		final List<MenuElement> unmatchedNew = new ArrayList<MenuElement>();
+		for (final MenuElement newChild : newChildren) {
+			final ArrayDeque<MenuElement> sameName = byName.get(newChild
+					.getCalcName());
+			final MenuElement oldChild = (sameName == null) ? null : sameName
+					.poll();
+			if (oldChild == null) {
+				unmatchedNew.add(newChild);
+			} else {
+				matched.put(newChild, oldChild);
+			}
+		}
+		if (unmatchedNew.isEmpty()) {
+			return matched;
+		}
+
+		final Map<Long, ArrayDeque<MenuElement>> byContent = new HashMap<Long, ArrayDeque<MenuElement>>();
+		for (final MenuElement oldChild : unmatched(oldChildren, matched)) {
+			if (hasContent(oldChild)) {
+				queue(byContent, Long.valueOf(contentWithoutTitle(oldChild)))
+						.add(oldChild);
+			}
+		}
+		final List<MenuElement> stillUnmatched = new ArrayList<MenuElement>();
+		for (final MenuElement newChild : unmatchedNew) {
+			final ArrayDeque<MenuElement> sameContent = hasContent(newChild) ? byContent
+					.get(Long.valueOf(contentWithoutTitle(newChild))) : null;
+			final MenuElement oldChild = (sameContent == null) ? null
+					: sameContent.poll();
+			if (oldChild == null) {
+				stillUnmatched.add(newChild);
+			} else {
+				matched.put(newChild, oldChild);
+			}
+		}
+
+		final List<MenuElement> unmatchedOld = unmatched(oldChildren, matched);
+		if ((stillUnmatched.size() == 1) && (unmatchedOld.size() == 1)) {
+			final MenuElement newChild = stillUnmatched.get(0);
+			final MenuElement oldChild = unmatchedOld.get(0);
+			if ((oldChild.getClass() == newChild.getClass())
+					&& (indexOf(oldChildren, oldChild) == indexOf(newChildren,
+							newChild)) && shareChild(oldChild, newChild)) {
+				matched.put(newChild, oldChild);
+			}
+		}
+		return matched;
+	}
+
+	/**
+	 * Determines if two containers have at least one child with the same
+	 * calculated name.
+	 * 
+	 * @param oldElement
+	 *            Old element.
+	 * @param newElement
+	 *            New element of the same type.
+	 * 
+	 * @return TRUE if both are containers with a common child.
+	 */
+	private static boolean shareChild(final MenuElement oldElement,
+			final MenuElement newElement) {
+		if (!(oldElement instanceof MenuElementContainer)) {
+			return false;
+		}
+		final Set<String> names = new HashSet<String>();
+		for (final MenuElement child : elements((MenuElementContainer) oldElement)) {
+			names.add(child.getCalcName());
+		}
+		for (final MenuElement child : elements((MenuElementContainer) newElement)) {
+			if (names.contains(child.getCalcName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int indexOf(final List<MenuElement> elements,
+			final MenuElement element) {
+		// Elements are equal if their titles are equal, so use identity
+		for (int i = 0; i < elements.size(); i++) {
+			if (elements.get(i) == element) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void pair(final String oldPrefix, final String newPrefix,
+			final MenuElement oldChild, final MenuElement newChild) {
+		if (oldChild.getClass() == newChild.getClass()) {
+			compare(path(oldPrefix, oldChild), path(newPrefix, newChild),
+					oldChild, newChild);
+		} else {
+			changes.add(new MenuChange(MenuChangeType.REMOVED, path(oldPrefix,
+					oldChild), oldChild, null, null));
+			changes.add(new MenuChange(MenuChangeType.ADDED, null, null, path(
+					newPrefix, newChild), newChild));
+		}
+	}
+
+	/**
+	 * Replaces every pair of a removed and an added subtree with the same
+	 * content hash with a move at the position of the added one.
+	 * 
+	 * @return Final list of changes.
+	 */
+	private List<MenuChange> detectMoves() {
+		final Map<Long, ArrayDeque<Integer>> removed = new HashMap<Long, ArrayDeque<Integer>>();
+		for (int i = 0; i < changes.size(); i++) {
+			final MenuChange change = changes.get(i);
+			if (change.getType() == MenuChangeType.REMOVED) {
+				final Long hash = Long.valueOf(change.getOldElement()
+						.getContentHash());
+				ArrayDeque<Integer> sameHash = removed.get(hash);
+				if (sameHash == null) {
+					sameHash = new ArrayDeque<Integer>(1);
+					removed.put(hash, sameHash);
+				}
+				sameHash.add(Integer.valueOf(i));
+			}
+		}
+		if (removed.isEmpty()) {
+			return changes;
+		}
+
+		// Index of the removal for every addition that is a move
+		final int[] movedFrom = new int[changes.size()];
+		final boolean[] movedAway = new boolean[changes.size()];
+		for (int i = 0; i < changes.size(); i++) {
+			movedFrom[i] = -1;
+			final MenuChange change = changes.get(i);
+			if (change.getType() == MenuChangeType.ADDED) {
+				final ArrayDeque<Integer> sameHash = removed.get(Long
+						.valueOf(change.getNewElement().getContentHash()));
+				if ((sameHash != null) && !sameHash.isEmpty()) {
+					movedFrom[i] = sameHash.poll().intValue();
+					movedAway[movedFrom[i]] = true;
+				}
+			}
+		}
+
+		final List<MenuChange> result = new ArrayList<MenuChange>(
+				changes.size());
+		for (int i = 0; i < changes.size(); i++) {
+			final MenuChange change = changes.get(i);
+			if (movedFrom[i] >= 0) {
+				final MenuChange from = changes.get(movedFrom[i]);
+				result.add(new MenuChange(MenuChangeType.MOVED, from
+						.getOldPath(), from.getOldElement(), change
+						.getNewPath(), change.getNewElement()));
+			} else if (!movedAway[i]) {
+				result.add(change);
+			}
+		}
+		return result;
+	}
+
+	private static boolean attributesChanged(final MenuElement oldElement,
+			final MenuElement newElement) {
+		if (!equal(oldElement.getName(), newElement.getName())) {
+			return true;
+		}
+		if (oldElement instanceof Project) {
+			final Project oldProject = (Project) oldElement;
+			final Project newProject = (Project) newElement;
+			return !equal(oldProject.getGroupId(), newProject.getGroupId())
+					|| !equal(oldProject.getArtifactId(),
+							newProject.getArtifactId())
+					|| !equal(oldProject.getCi(), newProject.getCi());
+		}
+		return false;
+	}
+
+	private static boolean sameNames(final List<MenuElement> oldChildren,
+			final List<MenuElement> newChildren) {
+		if (oldChildren.size() != newChildren.size()) {
+			return false;
+		}
+		for (int i = 0; i < oldChildren.size(); i++) {
+			if (!oldChildren.get(i).getCalcName()
+					.equals(newChildren.get(i).getCalcName())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determines if an element has more content than title and name. Only
+	 * such elements can be recognized by their content after a retitle.
+	 * 
+	 * @param element
+	 *            Element to test.
+	 * 
+	 * @return TRUE if the element has children or project attributes.
+	 */
+	private static boolean hasContent(final MenuElement element) {
+		if (element instanceof Project) {
+			final Project project = (Project) element;
+			if ((project.getGroupId() != null)
+					|| (project.getArtifactId() != null)
+					|| (project.getCi() != null)) {
+				return true;
+			}
+		}
+		return (element instanceof MenuElementContainer)
+				&& !elements((MenuElementContainer) element).isEmpty();
+	}
+
+	/**
+	 * Calculates a hash over the content of an element without the title.
+	 * The name is included, so only elements without an explicit name or
+	 * with the same name have the same result.
+	 * 
+	 * @param element
+	 *            Element to use.
+	 * 
+	 * @return Hash of type, name, project attributes and children.
+	 */
+	private static long contentWithoutTitle(final MenuElement element) {
+		long hash = ContentHash.add(
+				ContentHash.start(MenuElementType.of(element)),
+				element.getName());
+		if (element instanceof Project) {
+			final Project project = (Project) element;
+			hash = ContentHash.add(hash, project.getGroupId());
+			hash = ContentHash.add(hash, project.getArtifactId());
+			hash = ContentHash.add(hash, project.getCi());
+		}
+		if (element instanceof MenuElementContainer) {
+			for (final MenuElement child : elements((MenuElementContainer) element)) {
+				hash = ContentHash.add(hash, child.getContentHash());
+			}
+		}
+		return hash;
+	}
+
+	private static <K> ArrayDeque<MenuElement> queue(
+			final Map<K, ArrayDeque<MenuElement>> map, final K key) {
+		ArrayDeque<MenuElement> queue = map.get(key);
+		if (queue == null) {
+			queue = new ArrayDeque<MenuElement>(1);
+			map.put(key, queue);
+		}
+		return queue;
+	}
+
+	private static List<MenuElement> elements(
+			final MenuElementContainer container) {
+		final List<MenuElement> elements = container.getElements();
+		if (elements == null) {
+			return Collections.emptyList();
+		}
+		return elements;
+	}
+
+	private static String prefix(final String path) {
+		if (path.equals("/")) {
+			return "";
+		}
+		return path;
+	}
+
+	private static String path(final String prefix, final MenuElement element) {
+		return prefix + "/" + element.getCalcName();
+	}
+
+	private static boolean equal(final String a, final String b) {
+		if (a == null) {
+			return b == null;
+		}
+		return a.equals(b);
+	}
+
+}
@@ -16,15 +16,14 @@
  */
 package org.fuin.mavenmenu;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.text.CollationKey;
 
 import javax.validation.constraints.NotNull;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlTransient;
 
-import org.apache.commons.lang3.StringUtils;
 import org.fuin.objects4j.common.Contract;
 import org.fuin.objects4j.common.NeverNull;
 import org.fuin.objects4j.common.NotEmpty;
@@ -45,6 +44,24 @@ public abstract class MenuElement implements Comparable<MenuElement> {
 	@XmlAttribute
 	private String title;
 
+	@XmlTransient
+	private String calcName;
+
+	@XmlTransient
+	private MenuElementContainer parent;
+
+	/** Cached content hash - 0 if not calculated yet. */
+	@XmlTransient
+	private volatile long contentHash;
+
+	/** Incremented on every invalidation of the content hash. */
+	@XmlTransient
+	private volatile int contentHashVersion;
+
+	/** Collation key of the title for the last used collation ordering. */
+	@XmlTransient
+	private volatile CachedCollationKey collationKey;
+
 	/**
 	 * Package visible default constructor for deserialization.
 	 */
@@ -79,32 +96,84 @@ public abstract class MenuElement implements Comparable<MenuElement> {
 	}
 
 	/**
-	 * Returns the name if set or a name that is derived from the title.
+	 * Returns the name if set or a name that is derived from the title. The
+	 * result is calculated only once and cached afterwards.
 	 * 
 	 * @return Name with camel case and spaces converted into '-'. All other
 	 *         characters will be removed.
 	 */
 	@NeverNull
 	public final String getCalcName() {
-		if (name == null) {
-			final String[] parts = removeEmptyElements(StringUtils
-					.splitByCharacterTypeCamelCase(title));
-			return StringUtils.join(parts, '-');
+		if (calcName == null) {
+			if (name == null) {
+				calcName = calcName(title);
+			} else {
+				calcName = name;
+			}
 		}
-		return name;
+		return calcName;
 	}
 
-	private String[] removeEmptyElements(final String[] parts) {
-		if (parts == null) {
-			return null; 
+	/**
+	 * Derives a name from a title in a single pass. The title is split into
+	 * tokens of the same character type (camel case aware, like
+	 * <code>StringUtils.splitByCharacterTypeCamelCase(String)</code>), tokens
+	 * that consist of a single space are dropped and the remaining tokens are
+	 * converted to lower case and joined with '-'.
+	 * 
+	 * @param title
+	 *            Title to convert.
+	 * 
+	 * @return Calculated name.
+	 */
+	@NeverNull
+	static String calcName(@NotNull final String title) {
+		final int len = title.length();
+		if (len == 0) {
+			return title;
 		}
-		final List<String> list = new ArrayList<String>();
-		for (String part : parts) {
-			if (!part.equals(" ")) {
-				list.add(part.toLowerCase());
+		// Worst case is a separator between every character
+		final char[] buf = new char[(len * 2) - 1];
+		int count = 0;
+		int tokenStart = 0;
+		int currentType = Character.getType(title.charAt(0));
+		for (int pos = 1; pos < len; pos++) {
+			final int type = Character.getType(title.charAt(pos));
+			if (type == currentType) {
+				continue;
 			}
+			if ((type == Character.LOWERCASE_LETTER)
+					&& (currentType == Character.UPPERCASE_LETTER)) {
+				// Upper case letter before lower case belongs to the next token
+				final int newTokenStart = pos - 1;
+				if (newTokenStart != tokenStart) {
+					count = appendToken(buf, count, title, tokenStart,
+							newTokenStart);
+					tokenStart = newTokenStart;
+				}
+			} else {
+				count = appendToken(buf, count, title, tokenStart, pos);
+				tokenStart = pos;
+			}
+			currentType = type;
 		}
-		return list.toArray(new String[list.size()]);
+		count = appendToken(buf, count, title, tokenStart, len);
+		return new String(buf, 0, count);
+	}
+
+	private static int appendToken(final char[] buf, final int count,
+			final String str, final int start, final int end) {
+		if ((end - start == 1) && (str.charAt(start) == ' ')) {
+			return count;
+		}
+		int pos = count;
+		if (pos > 0) {
+			buf[pos++] = '-';
+		}
+		for (int i = start; i < end; i++) {
+			buf[pos++] = Character.toLowerCase(str.charAt(i));
+		}
+		return pos;
 	}
 
 	/**
@@ -117,6 +186,101 @@ public abstract class MenuElement implements Comparable<MenuElement> {
 		return title;
 	}
 
+	/**
+	 * Returns the container this element was added to.
+	 * 
+	 * @return Parent or null if the element is not part of a container.
+	 */
+	@Nullable
+	public final MenuElementContainer getParent() {
+		return parent;
+	}
+
+	/**
+	 * Sets the container this element belongs to.
+	 * 
+	 * @param parent
+	 *            Parent or null.
+	 */
+	final void setParent(@Nullable final MenuElementContainer parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Returns a hash of the content of this element and all it's
+	 * descendants. It covers type, title, name and the project attributes.
+	 * Elements with equal content have the same hash, so it can be used to
+	 * skip unchanged subtrees or as an HTTP ETag. The result is cached and
+	 * only recalculated after a change below this element.
+	 * 
+	 * @return 64 bit hash.
+	 */
+	public final long getContentHash() {
+		long hash = contentHash;
+		if (hash == 0) {
+			final int version = contentHashVersion;
+			hash = calculateContentHash();
+			if (hash == 0) {
+				// Zero marks an invalid hash
+				hash = 1;
+			}
+			synchronized (this) {
+				// Don't cache a result that was outdated by a concurrent change
+				if (version == contentHashVersion) {
+					contentHash = hash;
+				}
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Calculates the content hash without using the cache. Subclasses add
+	 * their own content to the result of the super method.
+	 * 
+	 * @return Hash.
+	 */
+	long calculateContentHash() {
+		return ContentHash.add(
+				ContentHash.add(ContentHash.start(MenuElementType.of(this)),
+						title), name);
+	}
+
+	/**
+	 * Invalidates the cached content hash of this element and all ancestors.
+	 * Must be called after the content was changed.
+	 */
+	final void invalidateContentHash() {
+		MenuElement element = this;
+		while (element != null) {
+			synchronized (element) {
+				element.contentHashVersion++;
+				element.contentHash = 0;
+			}
+			element = element.getParent();
+		}
+	}
+
+	/**
+	 * Returns the collation key of the title. The key is created with the
+	 * first call and reused as long as the same ordering asks for it.
+	 * 
+	 * @param ordering
+	 *            Ordering that needs the key.
+	 * 
+	 * @return Key for the title.
+	 */
+	@NeverNull
+	final CollationKey getCollationKey(
+			@NotNull final MenuOrdering.Collation ordering) {
+		final CachedCollationKey cached = collationKey;
+		if ((cached != null) && (cached.ordering == ordering)) {
+			return cached.key;
+		}
+		final CollationKey key = ordering.createKey(title);
+		collationKey = new CachedCollationKey(ordering, key);
+		return key;
+	}
 
 	@Override
 	public final int compareTo(final MenuElement other) {
@@ -151,5 +315,22 @@ public abstract class MenuElement implements Comparable<MenuElement> {
 
 	// CHECKSTYLE:ON
 
-	
+	/**
+	 * Collation key together with the ordering it was created for.
+	 */
+	private static final class CachedCollationKey {
+
+		private final MenuOrdering.Collation ordering;
+
+		private final CollationKey key;
+
+		CachedCollationKey(final MenuOrdering.Collation ordering,
+				final CollationKey key) {
+			super();
+			this.ordering = ordering;
+			this.key = key;
+		}
+
+	}
+
 }
@@ -16,17 +16,23 @@
  */
 package org.fuin.mavenmenu;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAnyElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
 import org.fuin.objects4j.common.Nullable;
 
 /**
@@ -39,6 +45,22 @@ public abstract class MenuElementContainer extends MenuElement {
 	@XmlAnyElement(lax = true)
 	private List<MenuElement> elements;
 
+	/** Sorted and indexed elements - Always refers to the same list as "elements". */
+	@XmlTransient
+	private volatile SortedElements sorted;
+
+	/** Loads the children on first access - Null if already loaded. */
+	@XmlTransient
+	private volatile ChildLoader loader;
+
+	/** Copy on write mode for concurrent readers. */
+	@XmlTransient
+	private volatile boolean concurrent;
+
+	/** Order of the elements. */
+	@XmlTransient
+	private volatile MenuOrdering ordering = MenuOrdering.NATURAL;
+
 	/**
 	 * Protected default constructor for deserialization.
 	 */
@@ -70,58 +92,77 @@ public abstract class MenuElementContainer extends MenuElement {
 	}
 
 	/**
-	 * Returns the elements of the container.
+	 * Returns the elements of the container. In concurrent mode the result is
+	 * a snapshot that does not change when elements are added or removed.
 	 * 
 	 * @return Unmodifiable list.
 	 */
 	@Nullable
 	public final List<MenuElement> getElements() {
-		if (elements == null) {
+		materialize();
+		final SortedElements current = sorted;
+		if (current == null) {
 			return null;
 		}
-		return Collections.unmodifiableList(elements);
+		return Collections.unmodifiableList(current.list());
 	}
 
 	/**
-	 * Adds an element to the container.
+	 * Adds an element to the container. The element is inserted at it's sorted
+	 * position, after all elements that compare equal to it. An element that
+	 * is part of another container must be removed from it first.
 	 * 
 	 * @param elementToAdd
 	 *            Element to add.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             The element already has a different parent.
 	 */
 	public final void addElement(@NotNull final MenuElement elementToAdd) {
 		Contract.requireArgNotNull("elementToAdd", elementToAdd);
-		if (elements == null) {
-			elements = new ArrayList<MenuElement>();
+		materialize();
+		synchronized (this) {
+			requireNoOtherParent(elementToAdd);
+			final SortedElements modified = modifiable();
+			modified.add(elementToAdd);
+			adopt(elementToAdd);
+			publish(modified);
 		}
-		if (elements.contains(elementToAdd)) {
-			throw new IllegalArgumentException(
-					"The element is already contained in the list: "
-							+ elementToAdd);
-		}
-		elements.add(elementToAdd);
-		Collections.sort(elements);
+		invalidateContentHash();
+		fireAdded(elementToAdd);
 	}
 
 	/**
-	 * Adds a list of elements to the container.
+	 * Adds a list of elements to the container. The new elements are sorted
+	 * once and then merged with the existing ones. In concurrent mode readers
+	 * see either none or all of the new elements.
 	 * 
 	 * @param elementsToAdd
 	 *            Elements to add.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             One of the elements already has a different parent. No
+	 *             element is added in this case.
 	 */
 	public final void addElements(@NotNull final List<MenuElement> elementsToAdd) {
 		Contract.requireArgNotNull("elementsToAdd", elementsToAdd);
-		if (elements == null) {
-			elements = new ArrayList<MenuElement>();
-		}
-		for (MenuElement elementToAdd : elementsToAdd) {
-			if (elements.contains(elementToAdd)) {
-				throw new IllegalArgumentException(
-						"The element is already contained in the list: "
-								+ elementToAdd);
+		materialize();
+		final List<MenuElement> added;
+		synchronized (this) {
+			for (final MenuElement elementToAdd : elementsToAdd) {
+				requireNoOtherParent(elementToAdd);
 			}
-			elements.add(elementToAdd);
+			final SortedElements modified = modifiable();
+			added = modified.addAll(elementsToAdd);
+			for (final MenuElement elementToAdd : added) {
+				adopt(elementToAdd);
+			}
+			publish(modified);
+		}
+		invalidateContentHash();
+		for (final MenuElement elementToAdd : added) {
+			fireAdded(elementToAdd);
 		}
-		Collections.sort(elements);
 	}
 
 	/**
@@ -132,11 +173,22 @@ public abstract class MenuElementContainer extends MenuElement {
 	 */
 	public final void removeElement(@NotNull final MenuElement element) {
 		Contract.requireArgNotNull("element", element);
-		if ((elements == null) || !elements.contains(element)) {
-			throw new IllegalArgumentException(
-					"The element is not in the list: " + element);
+		materialize();
+		final MenuElement removed;
+		synchronized (this) {
+			if (sorted == null) {
+				throw new IllegalArgumentException(
+						"The element is not in the list: " + element);
+			}
+			final SortedElements modified = modifiable();
+			removed = modified.remove(element);
+			if (removed.getParent() == this) {
+				removed.setParent(null);
+			}
+			publish(modified);
 		}
-		elements.remove(element);
+		invalidateContentHash();
+		fireRemoved(removed);
 	}
 
 	/**
@@ -153,15 +205,17 @@ public abstract class MenuElementContainer extends MenuElement {
 	@Nullable
 	public final <T extends MenuElement> T findByName(@NotNull final String name) {
 		Contract.requireArgNotNull("name", name);
-		if (elements == null) {
-			return null;
-		}
-		for (final MenuElement element : elements) {
-			if (element.getCalcName().equals(name)) {
-				return (T) element;
+		if (MenuMetrics.isActive()) {
+			final MenuMetrics metrics = findMetrics();
+			if (metrics != null) {
+				final long start = System.nanoTime();
+				final MenuElement found = lookupByName(name);
+				metrics.getNameLookups().record(found != null,
+						System.nanoTime() - start);
+				return (T) found;
 			}
 		}
-		return null;
+		return (T) lookupByName(name);
 	}
 
 	/**
@@ -179,15 +233,477 @@ public abstract class MenuElementContainer extends MenuElement {
 	public final <T extends MenuElement> T findByTitle(
 			@NotNull final String title) {
 		Contract.requireArgNotNull("title", title);
-		if (elements == null) {
+		if (MenuMetrics.isActive()) {
+			final MenuMetrics metrics = findMetrics();
+			if (metrics != null) {
+				final long start = System.nanoTime();
+				final MenuElement found = lookupByTitle(title);
+				metrics.getTitleLookups().record(found != null,
+						System.nanoTime() - start);
+				return (T) found;
+			}
+		}
+		return (T) lookupByTitle(title);
+	}
+
+	/**
+	 * Locates a descendant by a path of calculated names separated by '/'.
+	 * Empty segments are ignored, so "/a/b", "a/b" and "a/b/" all address the
+	 * same element. Every segment is resolved with a single lookup in the
+	 * name index of the container on that level.
+	 * 
+	 * @param path
+	 *            Path relative to this container, for example
+	 *            "/a/kickstart-4-j/examples".
+	 * 
+	 * @return Element, this container for an empty path or null if no element
+	 *         was found.
+	 * 
+	 * @param <T> Element type
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public final <T extends MenuElement> T findByPath(
+			@NotNull final String path) {
+		Contract.requireArgNotNull("path", path);
+		MenuElement current = this;
+		int start = 0;
+		final int len = path.length();
+		while (start < len) {
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = len;
+			}
+			if (end > start) {
+				if (!(current instanceof MenuElementContainer)) {
+					return null;
+				}
+				final MenuElementContainer container = (MenuElementContainer) current;
+				container.materialize();
+				final SortedElements children = container.sorted;
+				if (children == null) {
+					return null;
+				}
+				current = children.findByName(path.substring(start, end));
+				if (current == null) {
+					return null;
+				}
+			}
+			start = end + 1;
+		}
+		return (T) current;
+	}
+
+	/**
+	 * Returns all descendants of this container in depth first order.
+	 * 
+	 * @return Sequential stream.
+	 */
+	@NeverNull
+	public final Stream<MenuElement> stream() {
+		return entries(MenuTraversal.DEPTH_FIRST, false).map(
+				MenuTreeEntry::getElement);
+	}
+
+	/**
+	 * Returns all descendants of this container as a parallel stream. The
+	 * tree is split into subtrees that are processed by different threads.
+	 * 
+	 * @return Parallel stream in depth first encounter order.
+	 */
+	@NeverNull
+	public final Stream<MenuElement> parallelStream() {
+		return entries(MenuTraversal.DEPTH_FIRST, true).map(
+				MenuTreeEntry::getElement);
+	}
+
+	/**
+	 * Returns all descendants of this container together with their depth.
+	 * The tree is read when the terminal operation starts. A parallel
+	 * breadth first stream keeps the order only inside each subtree that is
+	 * processed by a thread.
+	 * 
+	 * @param traversal
+	 *            Order of the elements.
+	 * @param parallel
+	 *            TRUE for a parallel stream.
+	 * 
+	 * @return Stream of elements with their depth relative to this container.
+	 */
+	@NeverNull
+	public final Stream<MenuTreeEntry> entries(
+			@NotNull final MenuTraversal traversal, final boolean parallel) {
+		Contract.requireArgNotNull("traversal", traversal);
+		if (traversal == MenuTraversal.DEPTH_FIRST) {
+			return StreamSupport.stream(
+					() -> new DepthFirstSpliterator(this),
+					Spliterator.ORDERED | Spliterator.NONNULL, parallel);
+		}
+		return StreamSupport.stream(() -> new BreadthFirstSpliterator(this),
+				Spliterator.NONNULL, parallel);
+	}
+
+	/**
+	 * Counts the elements by type and determines the maximum depth and width
+	 * of this container and everything below it. All lazily loaded children
+	 * are loaded, so for a menu read by {@link LazyMenuReader} this parses the
+	 * whole document.
+	 * 
+	 * @return New statistics.
+	 */
+	@NeverNull
+	public final MenuStats getStats() {
+		return MenuStats.of(this);
+	}
+
+	/**
+	 * Switches the concurrent mode for this container and all containers below
+	 * it. Containers that are added later to a container in concurrent mode
+	 * are switched as well.<br>
+	 * <br>
+	 * In concurrent mode every change creates a new sorted list and new
+	 * indexes that are published at once, so reading methods never block and
+	 * never see a partial change. Changes are serialized per container. The
+	 * mode should be set before the menu is shared with other threads.
+	 * 
+	 * @param concurrent
+	 *            TRUE to use copy on write, FALSE to change the list in place.
+	 */
+	public final void setConcurrent(final boolean concurrent) {
+		this.concurrent = concurrent;
+		final SortedElements current = sorted;
+		if (current != null) {
+			for (final MenuElement element : current.list()) {
+				if (element instanceof MenuElementContainer) {
+					((MenuElementContainer) element).setConcurrent(concurrent);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the concurrent mode.
+	 * 
+	 * @return TRUE if changes use copy on write.
+	 */
+	public final boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Sets the order of the elements for this container and all containers
+	 * below it. The elements are sorted again immediately. Containers that
+	 * are added later to a container get it's ordering as well. Elements
+	 * that compare equal keep the order in which they were added.
+	 * 
+	 * @param ordering
+	 *            Ordering to use.
+	 */
+	public final void setOrdering(@NotNull final MenuOrdering ordering) {
+		Contract.requireArgNotNull("ordering", ordering);
+		final SortedElements current;
+		synchronized (this) {
+			this.ordering = ordering;
+			if (sorted != null) {
+				publish(new SortedElements(sorted.list(), ordering));
+			}
+			current = sorted;
+		}
+		if (current != null) {
+			invalidateContentHash();
+			for (final MenuElement element : current.list()) {
+				if (element instanceof MenuElementContainer) {
+					((MenuElementContainer) element).setOrdering(ordering);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the order of the elements.
+	 * 
+	 * @return Ordering - {@link MenuOrdering#NATURAL} if never set.
+	 */
+	@NeverNull
+	public final MenuOrdering getOrdering() {
+		return ordering;
+	}
+
+	/**
+	 * Combines the own content with the hashes of all children in list order.
+	 * 
+	 * @return Hash.
+	 */
+	@Override
+	long calculateContentHash() {
+		long hash = super.calculateContentHash();
+		final List<MenuElement> children = getElements();
+		if (children != null) {
+			for (final MenuElement child : children) {
+				hash = ContentHash.add(hash, child.getContentHash());
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns the children without creating a wrapper. The result must not be
+	 * changed.
+	 * 
+	 * @return Loaded children - Empty list if there are none.
+	 */
+	@NeverNull
+	final List<MenuElement> children() {
+		materialize();
+		final SortedElements current = sorted;
+		if (current == null) {
+			return Collections.emptyList();
+		}
+		return current.list();
+	}
+
+	private MenuElement lookupByName(final String name) {
+		materialize();
+		final SortedElements current = sorted;
+		if (current == null) {
 			return null;
 		}
-		for (final MenuElement element : elements) {
-			if (element.getTitle().equals(title)) {
-				return (T) element;
+		return current.findByName(name);
+	}
+
+	private MenuElement lookupByTitle(final String title) {
+		materialize();
+		final SortedElements current = sorted;
+		if (current == null) {
+			return null;
+		}
+		return current.findByTitle(title);
+	}
+
+	/**
+	 * Returns the metrics of the nearest menu with enabled metrics, starting
+	 * with this container.
+	 * 
+	 * @return Metrics or null if no menu records lookups.
+	 */
+	private MenuMetrics findMetrics() {
+		MenuElementContainer current = this;
+		while (current != null) {
+			if (current instanceof Menu) {
+				final MenuMetrics metrics = ((Menu) current).getMetrics();
+				if (metrics != null) {
+					return metrics;
+				}
 			}
+			current = current.getParent();
 		}
 		return null;
 	}
 
+	/**
+	 * Sets a loader that supplies the children on first access. Used to
+	 * create the tree lazily.
+	 * 
+	 * @param loader
+	 *            Loader to use.
+	 */
+	final void setChildLoader(@NotNull final ChildLoader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Determines if the children of this container are already loaded.
+	 * 
+	 * @return TRUE if the children are available, FALSE if they will be
+	 *         loaded on next access.
+	 */
+	final boolean isLoaded() {
+		return loader == null;
+	}
+
+	/**
+	 * Loads the children if a loader is set. The loaded children are treated
+	 * as if they had always been part of the tree, so no ancestor is informed.
+	 */
+	private void materialize() {
+		if (loader == null) {
+			return;
+		}
+		synchronized (this) {
+			final ChildLoader childLoader = loader;
+			if (childLoader == null) {
+				return;
+			}
+			final List<MenuElement> children = childLoader.load();
+			if (!children.isEmpty()) {
+				for (final MenuElement element : children) {
+					adopt(element);
+				}
+				publish(new SortedElements(children, ordering));
+			}
+			loader = null;
+		}
+	}
+
+	/**
+	 * Returns the instance to change. In concurrent mode this is always a
+	 * copy of the current one.
+	 * 
+	 * @return Sorted elements to change and publish afterwards.
+	 */
+	private SortedElements modifiable() {
+		final SortedElements current = sorted;
+		if (current == null) {
+			return new SortedElements(ordering);
+		}
+		if (concurrent) {
+			return new SortedElements(current);
+		}
+		return current;
+	}
+
+	/**
+	 * Makes a changed instance visible to readers.
+	 * 
+	 * @param modified
+	 *            Changed instance.
+	 */
+	private void publish(final SortedElements modified) {
+		elements = modified.list();
+		sorted = modified;
+	}
+
+	/**
+	 * Verifies that a new child is not part of another container. Otherwise
+	 * the indexes of the other tree would keep entries for it.
+	 * 
+	 * @param element
+	 *            New child.
+	 */
+	private void requireNoOtherParent(final MenuElement element) {
+		final MenuElementContainer parent = element.getParent();
+		if (parent != null && parent != this) {
+			throw new IllegalArgumentException(
+					"The element already belongs to another container: "
+							+ element);
+		}
+	}
+
+	/**
+	 * Makes this container the parent of a new child.
+	 * 
+	 * @param element
+	 *            New child.
+	 */
+	private void adopt(final MenuElement element) {
+		element.setParent(this);
+		if (element instanceof MenuElementContainer) {
+			final MenuElementContainer container = (MenuElementContainer) element;
+			if (concurrent) {
+				container.setConcurrent(true);
+			}
+			if (container.ordering != ordering) {
+				container.setOrdering(ordering);
+			}
+		}
+	}
+
+	/**
+	 * Sorts the unmarshalled elements and builds the indexes.
+	 * 
+	 * @param unmarshaller
+	 *            Unmarshaller.
+	 * @param parent
+	 *            Parent object.
+	 */
+	final void afterUnmarshal(final Unmarshaller unmarshaller,
+			final Object parent) {
+		if (elements == null) {
+			return;
+		}
+		for (final MenuElement element : elements) {
+			element.setParent(this);
+		}
+		publish(new SortedElements(elements, ordering));
+	}
+
+	/**
+	 * Loads lazily read children, so they are part of the marshalled
+	 * document.
+	 * 
+	 * @param marshaller
+	 *            Marshaller.
+	 */
+	final void beforeMarshal(final Marshaller marshaller) {
+		materialize();
+	}
+
+	/**
+	 * Informs this container and all it's ancestors that a subtree was added.
+	 * 
+	 * @param element
+	 *            Root of the added subtree.
+	 */
+	private void fireAdded(final MenuElement element) {
+		MenuElementContainer container = this;
+		while (container != null) {
+			container.descendantAdded(element);
+			container = container.getParent();
+		}
+	}
+
+	/**
+	 * Informs this container and all it's ancestors that a subtree was
+	 * removed.
+	 * 
+	 * @param element
+	 *            Root of the removed subtree.
+	 */
+	private void fireRemoved(final MenuElement element) {
+		MenuElementContainer container = this;
+		while (container != null) {
+			container.descendantRemoved(element);
+			container = container.getParent();
+		}
+	}
+
+	/**
+	 * Called after a subtree was added somewhere below this container. Does
+	 * nothing by default.
+	 * 
+	 * @param element
+	 *            Root of the added subtree.
+	 */
+	void descendantAdded(@NotNull final MenuElement element) {
+		// Override if necessary
+	}
+
+	/**
+	 * Called after a subtree was removed somewhere below this container. Does
+	 * nothing by default.
+	 * 
+	 * @param element
+	 *            Root of the removed subtree.
+	 */
+	void descendantRemoved(@NotNull final MenuElement element) {
+		// Override if necessary
+	}
+
+	/**
+	 * Called after an attribute of a project somewhere below this container
+	 * was changed. Does nothing by default.
+	 * 
+	 * @param project
+	 *            Changed project.
+	 * @param oldGroupId
+	 *            Group ID before the change.
+	 * @param oldArtifactId
+	 *            Artifact ID before the change.
+	 */
+	void projectChanged(@NotNull final Project project,
+			@Nullable final String oldGroupId,
+			@Nullable final String oldArtifactId) {
+		// Override if necessary
+	}
+
 }
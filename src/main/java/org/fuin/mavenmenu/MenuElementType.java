@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Type of a menu element.
+ */
+public enum MenuElementType {
+
+	/** A {@link Menu}. */
+	MENU,
+
+	/** A {@link Project}. */
+	PROJECT,
+
+	/** A {@link Page}. */
+	PAGE;
+
+	/**
+	 * Returns the type of an element.
+	 * 
+	 * @param element
+	 *            Element to return the type for.
+	 * 
+	 * @return Type.
+	 */
+	@NeverNull
+	public static MenuElementType of(@NotNull final MenuElement element) {
+		Contract.requireArgNotNull("element", element);
+		if (element instanceof Menu) {
+			return MENU;
+		}
+		if (element instanceof Project) {
+			return PROJECT;
+		}
+		if (element instanceof Page) {
+			return PAGE;
+		}
+		throw new IllegalArgumentException("Unknown element type: "
+				+ element.getClass().getName());
+	}
+
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Renders a menu as nested HTML lists that can be used for a site
+ * navigation. The markup is written directly to the target while walking the
+ * tree. The renderer keeps the markup of every container from the last call
+ * together with the content hash. On the next call an unchanged container is
+ * written from the cache without visiting it's descendants, so a small change
+ * only renders the path to the changed element again. Use one instance per
+ * menu. The structure of the result looks like this:
+ * 
+ * <pre>
+ * &lt;ul class="menu"&gt;
+ * &lt;li class="menu"&gt;&lt;span&gt;A&lt;/span&gt;
+ * &lt;ul&gt;
+ * &lt;li class="project"&gt;&lt;a href="/a/kickstart-4-j"&gt;Kickstart4J&lt;/a&gt;
+ * &lt;ul&gt;
+ * &lt;li class="page"&gt;&lt;a href="/a/kickstart-4-j/background"&gt;Background&lt;/a&gt;&lt;/li&gt;
+ * &lt;/ul&gt;
+ * &lt;/li&gt;
+ * &lt;/ul&gt;
+ * &lt;/li&gt;
+ * &lt;/ul&gt;
+ * </pre>
+ */
+public final class MenuHtmlRenderer {
+
+	private final String baseUrl;
+
+	/** Root of the last rendered menu. */
+	private volatile Fragment last;
+
+	/** Number of containers that were not taken from the cache in the last call. */
+	private volatile int renderedContainers;
+
+	/**
+	 * Constructor without base URL. Links start with the path of the element.
+	 */
+	public MenuHtmlRenderer() {
+		this("");
+	}
+
+	/**
+	 * Constructor with base URL.
+	 * 
+	 * @param baseUrl
+	 *            Prefix for all links, for example "http://www.fuin.org".
+	 */
+	public MenuHtmlRenderer(@NotNull final String baseUrl) {
+		super();
+		Contract.requireArgNotNull("baseUrl", baseUrl);
+		this.baseUrl = baseUrl;
+	}
+
+	/**
+	 * Renders a menu to a writer. The writer is neither flushed nor closed.
+	 * 
+	 * @param menu
+	 *            Menu to render.
+	 * @param writer
+	 *            Target.
+	 * 
+	 * @throws IOException
+	 *             Error writing to the target.
+	 */
+	public void render(@NotNull final Menu menu, @NotNull final Writer writer)
+			throws IOException {
+		Contract.requireArgNotNull("menu", menu);
+		Contract.requireArgNotNull("writer", writer);
+		final int[] counter = new int[1];
+		last = render(true, "", menu, last, writer, counter);
+		renderedContainers = counter[0];
+	}
+
+	/**
+	 * Renders a menu to a stream using UTF-8. The stream is flushed but not
+	 * closed.
+	 * 
+	 * @param menu
+	 *            Menu to render.
+	 * @param out
+	 *            Target.
+	 * 
+	 * @throws IOException
+	 *             Error writing to the target.
+	 */
+	public void render(@NotNull final Menu menu, @NotNull final OutputStream out)
+			throws IOException {
+		Contract.requireArgNotNull("out", out);
+		final Writer writer = new OutputStreamWriter(out, "UTF-8");
+		render(menu, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Returns the number of containers that were rendered without the cache in
+	 * the last call.
+	 * 
+	 * @return Number of containers.
+	 */
+	int getRenderedContainers() {
+		return renderedContainers;
+	}
+
+	private Fragment render(final boolean root, final String path,
+			final MenuElementContainer container, final Fragment cached,
+			final Writer writer, final int[] counter) throws IOException {
+
+		// Read the hash before the content, so a concurrent change is never
+		// cached under the new hash
+		final long hash = container.getContentHash();
+		if ((cached != null) && (cached.hash == hash)) {
+			cached.writeTo(writer);
+			return cached;
+		}
+		counter[0]++;
+
+		final Fragment fragment = new Fragment(hash);
+		final StringBuilder sb = new StringBuilder();
+		if (root) {
+			sb.append("<ul class=\"menu\">\n");
+		} else {
+			open(sb, container, path);
+		}
+		final List<MenuElement> children = container.getElements();
+		if ((children != null) && !children.isEmpty()) {
+			if (!root) {
+				sb.append("\n<ul>\n");
+			}
+			for (final MenuElement child : children) {
+				final String childPath = path + "/" + child.getCalcName();
+				if (child instanceof MenuElementContainer) {
+					fragment.append(sb.toString(), writer);
+					sb.setLength(0);
+					final Fragment childFragment = render(false, childPath,
+							(MenuElementContainer) child,
+							(cached == null) ? null : cached
+									.child(child.getCalcName()), writer,
+							counter);
+					fragment.append(child.getCalcName(), childFragment);
+				} else {
+					open(sb, child, childPath);
+					sb.append("</li>\n");
+				}
+			}
+			if (!root) {
+				sb.append("</ul>\n");
+			}
+		}
+		if (root) {
+			sb.append("</ul>\n");
+		} else {
+			sb.append("</li>\n");
+		}
+		fragment.append(sb.toString(), writer);
+		return fragment;
+	}
+
+	private void open(final StringBuilder sb, final MenuElement element,
+			final String path) {
+		final MenuElementType type = MenuElementType.of(element);
+		sb.append("<li class=\"");
+		sb.append(type.name().toLowerCase());
+		sb.append("\">");
+		if (type == MenuElementType.MENU) {
+			sb.append("<span>");
+			escape(sb, element.getTitle());
+			sb.append("</span>");
+		} else {
+			sb.append("<a href=\"");
+			escape(sb, baseUrl);
+			escape(sb, path);
+			sb.append("\">");
+			escape(sb, element.getTitle());
+			sb.append("</a>");
+		}
+	}
+
+	private static void escape(final StringBuilder sb, final String str) {
+		for (int i = 0; i < str.length(); i++) {
+			final char ch = str.charAt(i);
+			switch (ch) {
+			case '<':
+				sb.append("&lt;");
+				break;
+			case '>':
+				sb.append("&gt;");
+				break;
+			case '&':
+				sb.append("&amp;");
+				break;
+			case '"':
+				sb.append("&quot;");
+				break;
+			case '\'':
+				sb.append("&#39;");
+				break;
+			default:
+				sb.append(ch);
+			}
+		}
+	}
+
+	/**
+	 * Rendered markup of a container. Consists of text parts and the
+	 * fragments of the child containers in output order.
+	 */
+	private static final class Fragment {
+
+		private final long hash;
+
+		private final List<Object> parts;
+
+		private final Map<String, Fragment> children;
+
+		Fragment(final long hash) {
+			super();
+			this.hash = hash;
+			this.parts = new ArrayList<Object>();
+			this.children = new HashMap<String, Fragment>();
+		}
+
+		void append(final String text, final Writer writer) throws IOException {
+			if (text.length() > 0) {
+				writer.write(text);
+				parts.add(text);
+			}
+		}
+
+		void append(final String calcName, final Fragment child) {
+			parts.add(child);
+			if (!children.containsKey(calcName)) {
+				children.put(calcName, child);
+			}
+		}
+
+		Fragment child(final String calcName) {
+			return children.get(calcName);
+		}
+
+		void writeTo(final Writer writer) throws IOException {
+			for (final Object part : parts) {
+				if (part instanceof Fragment) {
+					((Fragment) part).writeTo(writer);
+				} else {
+					writer.write((String) part);
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Element found by a search together with it's path and a score.
+ */
+public final class MenuMatch {
+
+	private final MenuElement element;
+
+	private final String path;
+
+	private final String key;
+
+	private final double score;
+
+	/**
+	 * Constructor with all data.
+	 * 
+	 * @param element
+	 *            Found element.
+	 * @param path
+	 *            Calculated names from the searched menu to the element
+	 *            separated by '/'.
+	 * @param key
+	 *            Text of the element that matched the query.
+	 * @param score
+	 *            Quality of the match between 0.0 (worst) and 1.0 (best).
+	 */
+	public MenuMatch(@NotNull final MenuElement element,
+			@NotNull final String path, @NotNull final String key,
+			final double score) {
+		super();
+		Contract.requireArgNotNull("element", element);
+		Contract.requireArgNotNull("path", path);
+		Contract.requireArgNotNull("key", key);
+		this.element = element;
+		this.path = path;
+		this.key = key;
+		this.score = score;
+	}
+
+	/**
+	 * Returns the found element.
+	 * 
+	 * @return Element.
+	 */
+	@NeverNull
+	public MenuElement getElement() {
+		return element;
+	}
+
+	/**
+	 * Returns the path that can be used with
+	 * {@link MenuElementContainer#findByPath(String)} on the searched menu.
+	 * 
+	 * @return Path like "/a/kickstart-4-j".
+	 */
+	@NeverNull
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Returns the text of the element that matched the query.
+	 * 
+	 * @return Normalized (lower case) text.
+	 */
+	@NeverNull
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns the quality of the match.
+	 * 
+	 * @return Value between 0.0 (worst) and 1.0 (best).
+	 */
+	public double getScore() {
+		return score;
+	}
+
+	@Override
+	public String toString() {
+		return path + " (" + key + ")";
+	}
+
+	/**
+	 * Builds the path of an element relative to one of it's ancestors.
+	 * 
+	 * @param root
+	 *            Ancestor the path starts with.
+	 * @param element
+	 *            Element below the root.
+	 * 
+	 * @return Calculated names separated by '/' - "/" for the root itself.
+	 */
+	@NeverNull
+	static String path(@NotNull final MenuElementContainer root,
+			@NotNull final MenuElement element) {
+		if (element == root) {
+			return "/";
+		}
+		final StringBuilder sb = new StringBuilder();
+		MenuElement current = element;
+		while ((current != null) && (current != root)) {
+			sb.insert(0, current.getCalcName());
+			sb.insert(0, '/');
+			current = current.getParent();
+		}
+		return sb.toString();
+	}
+
+}
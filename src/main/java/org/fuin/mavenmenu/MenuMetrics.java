@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Lookup statistics of a menu and all elements below it. Created with
+ * {@link Menu#enableMetrics()}. A lookup is recorded by the nearest menu
+ * above the container (or the container itself) that has metrics enabled.<br>
+ * <br>
+ * As long as no menu in the application has metrics enabled, a lookup only
+ * reads a single static counter. Otherwise every lookup searches the parent
+ * chain for a menu with metrics and measures the duration only if one was
+ * found.
+ */
+public final class MenuMetrics {
+
+	/** Number of menus with enabled metrics. */
+	private static final AtomicInteger ENABLED = new AtomicInteger();
+
+	private final LookupMetrics nameLookups = new LookupMetrics();
+
+	private final LookupMetrics titleLookups = new LookupMetrics();
+
+	/**
+	 * Package visible default constructor.
+	 */
+	MenuMetrics() {
+		super();
+	}
+
+	/**
+	 * Returns the statistics of
+	 * {@link MenuElementContainer#findByName(String)}.
+	 * 
+	 * @return Metrics.
+	 */
+	@NeverNull
+	public final LookupMetrics getNameLookups() {
+		return nameLookups;
+	}
+
+	/**
+	 * Returns the statistics of
+	 * {@link MenuElementContainer#findByTitle(String)}.
+	 * 
+	 * @return Metrics.
+	 */
+	@NeverNull
+	public final LookupMetrics getTitleLookups() {
+		return titleLookups;
+	}
+
+	/**
+	 * Sets all counters to zero.
+	 */
+	public final void reset() {
+		nameLookups.reset();
+		titleLookups.reset();
+	}
+
+	@Override
+	public final String toString() {
+		return "findByName: " + nameLookups + ", findByTitle: " + titleLookups;
+	}
+
+	/**
+	 * Determines if any menu has metrics enabled.
+	 * 
+	 * @return TRUE if lookups have to search for metrics.
+	 */
+	static boolean isActive() {
+		return ENABLED.get() > 0;
+	}
+
+	/**
+	 * Informs that a menu enabled it's metrics.
+	 */
+	static void enabled() {
+		ENABLED.incrementAndGet();
+	}
+
+	/**
+	 * Informs that a menu disabled it's metrics.
+	 */
+	static void disabled() {
+		ENABLED.decrementAndGet();
+	}
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Locale;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Defines the order of the elements of a container based on their titles.
+ * Set with {@link MenuElementContainer#setOrdering(MenuOrdering)}. Instances
+ * are immutable and thread safe.
+ */
+public abstract class MenuOrdering implements Comparator<MenuElement> {
+
+	/**
+	 * Compares the titles with {@link String#compareTo(String)}, like
+	 * {@link MenuElement#compareTo(MenuElement)}. Upper case letters come
+	 * before all lower case letters and accented characters come after all
+	 * ASCII characters. This is the default.
+	 */
+	public static final MenuOrdering NATURAL = new MenuOrdering("natural") {
+		@Override
+		public int compare(final MenuElement a, final MenuElement b) {
+			return a.compareTo(b);
+		}
+	};
+
+	/**
+	 * Compares the titles with
+	 * {@link String#CASE_INSENSITIVE_ORDER}.
+	 */
+	public static final MenuOrdering CASE_INSENSITIVE = new MenuOrdering(
+			"caseInsensitive") {
+		@Override
+		public int compare(final MenuElement a, final MenuElement b) {
+			return String.CASE_INSENSITIVE_ORDER.compare(a.getTitle(),
+					b.getTitle());
+		}
+	};
+
+	private final String name;
+
+	/**
+	 * Constructor with name.
+	 * 
+	 * @param name
+	 *            Name used for {@link #toString()}.
+	 */
+	MenuOrdering(@NotNull final String name) {
+		super();
+		this.name = name;
+	}
+
+	/**
+	 * Returns an ordering that uses the rules of a language. The collation
+	 * key of every title is created only once and cached by the element, so
+	 * a comparison only compares the bytes of two keys.
+	 * 
+	 * @param locale
+	 *            Locale to get the collator for.
+	 * 
+	 * @return New ordering.
+	 */
+	@NeverNull
+	public static MenuOrdering collation(@NotNull final Locale locale) {
+		Contract.requireArgNotNull("locale", locale);
+		return new Collation(Collator.getInstance(locale), locale.toString());
+	}
+
+	/**
+	 * Returns an ordering that uses a given collator. The collator is copied,
+	 * so later changes of it have no effect. The collation key of every title
+	 * is created only once and cached by the element, so a comparison only
+	 * compares the bytes of two keys.
+	 * 
+	 * @param collator
+	 *            Collator with the rules to apply.
+	 * 
+	 * @return New ordering.
+	 */
+	@NeverNull
+	public static MenuOrdering collation(@NotNull final Collator collator) {
+		Contract.requireArgNotNull("collator", collator);
+		return new Collation((Collator) collator.clone(), "custom");
+	}
+
+	@Override
+	public final String toString() {
+		return name;
+	}
+
+	/**
+	 * Ordering by collation keys.
+	 */
+	static final class Collation extends MenuOrdering {
+
+		private final Collator collator;
+
+		/**
+		 * Constructor with collator.
+		 * 
+		 * @param collator
+		 *            Collator that is exclusively used by this instance.
+		 * @param locale
+		 *            Name of the locale for {@link #toString()}.
+		 */
+		Collation(@NotNull final Collator collator, @NotNull final String locale) {
+			super("collation(" + locale + ")");
+			this.collator = collator;
+		}
+
+		@Override
+		public int compare(final MenuElement a, final MenuElement b) {
+			return a.getCollationKey(this).compareTo(b.getCollationKey(this));
+		}
+
+		/**
+		 * Creates the collation key for a title.
+		 * 
+		 * @param title
+		 *            Title.
+		 * 
+		 * @return New key.
+		 */
+		@NeverNull
+		CollationKey createKey(@NotNull final String title) {
+			synchronized (collator) {
+				return collator.getCollationKey(title);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Size and shape of a container and all elements below it. Created with
+ * {@link MenuElementContainer#getStats()} in a single depth first pass. The
+ * open levels are kept on an explicit stack instead of recursing, so the
+ * depth of the tree is not limited by the stack of the thread. Lazily loaded
+ * children are loaded, so the statistics of a menu read by
+ * {@link LazyMenuReader} parse the whole document. The container itself is
+ * included in the counts and has depth 0.
+ */
+public final class MenuStats {
+
+	private final MenuElementContainer root;
+
+	private int menuCount;
+
+	private int projectCount;
+
+	private int pageCount;
+
+	private int maxDepth;
+
+	private int maxWidth;
+
+	private MenuElementContainer widestContainer;
+
+	/**
+	 * Constructor with the container to analyze.
+	 * 
+	 * @param root
+	 *            Container.
+	 */
+	private MenuStats(final MenuElementContainer root) {
+		super();
+		this.root = root;
+		this.widestContainer = root;
+	}
+
+	/**
+	 * Analyzes a container and all elements below it.
+	 * 
+	 * @param root
+	 *            Container to analyze.
+	 * 
+	 * @return New statistics.
+	 */
+	@NeverNull
+	static MenuStats of(@NotNull final MenuElementContainer root) {
+		final MenuStats stats = new MenuStats(root);
+		stats.count(root, 0);
+
+		// Children of every open level and the index of the next one to visit
+		final List<List<MenuElement>> levels = new ArrayList<List<MenuElement>>();
+		int[] next = new int[16];
+		levels.add(stats.children(root));
+		while (!levels.isEmpty()) {
+			final int top = levels.size() - 1;
+			final List<MenuElement> level = levels.get(top);
+			if (next[top] == level.size()) {
+				levels.remove(top);
+				continue;
+			}
+			final MenuElement element = level.get(next[top]++);
+			stats.count(element, top + 1);
+			if (element instanceof MenuElementContainer) {
+				final List<MenuElement> children = stats
+						.children((MenuElementContainer) element);
+				if (!children.isEmpty()) {
+					if (levels.size() == next.length) {
+						next = Arrays.copyOf(next, next.length * 2);
+					}
+					next[levels.size()] = 0;
+					levels.add(children);
+				}
+			}
+		}
+		return stats;
+	}
+
+	private void count(final MenuElement element, final int depth) {
+		if (element instanceof Menu) {
+			menuCount++;
+		} else if (element instanceof Project) {
+			projectCount++;
+		} else {
+			pageCount++;
+		}
+		if (depth > maxDepth) {
+			maxDepth = depth;
+		}
+	}
+
+	private List<MenuElement> children(final MenuElementContainer container) {
+		final List<MenuElement> children = container.children();
+		if (children.size() > maxWidth) {
+			maxWidth = children.size();
+			widestContainer = container;
+		}
+		return children;
+	}
+
+	/**
+	 * Returns the analyzed container.
+	 * 
+	 * @return Container the statistics were created for.
+	 */
+	@NeverNull
+	public final MenuElementContainer getRoot() {
+		return root;
+	}
+
+	/**
+	 * Returns the number of all elements.
+	 * 
+	 * @return Number of menus, projects and pages.
+	 */
+	public final int getElementCount() {
+		return menuCount + projectCount + pageCount;
+	}
+
+	/**
+	 * Returns the number of menus.
+	 * 
+	 * @return Number of {@link Menu} instances.
+	 */
+	public final int getMenuCount() {
+		return menuCount;
+	}
+
+	/**
+	 * Returns the number of projects.
+	 * 
+	 * @return Number of {@link Project} instances.
+	 */
+	public final int getProjectCount() {
+		return projectCount;
+	}
+
+	/**
+	 * Returns the number of pages.
+	 * 
+	 * @return Number of {@link Page} instances.
+	 */
+	public final int getPageCount() {
+		return pageCount;
+	}
+
+	/**
+	 * Returns the distance of the deepest element from the root.
+	 * 
+	 * @return Maximum depth - 0 if the root has no children.
+	 */
+	public final int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Returns the highest number of children of a single container.
+	 * 
+	 * @return Maximum width - 0 if the root has no children.
+	 */
+	public final int getMaxWidth() {
+		return maxWidth;
+	}
+
+	/**
+	 * Returns the first container in depth first order that has
+	 * {@link #getMaxWidth()} children.
+	 * 
+	 * @return Widest container - The root if it has no children.
+	 */
+	@NeverNull
+	public final MenuElementContainer getWidestContainer() {
+		return widestContainer;
+	}
+
+	@Override
+	public final String toString() {
+		return "elements=" + getElementCount() + ", menus=" + menuCount
+				+ ", projects=" + projectCount + ", pages=" + pageCount
+				+ ", maxDepth=" + maxDepth + ", maxWidth=" + maxWidth
+				+ ", widest='" + widestContainer.getTitle() + "'";
+	}
+
+}
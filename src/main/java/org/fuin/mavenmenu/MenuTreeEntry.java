@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Element visited during a traversal together with it's depth.
+ */
+public final class MenuTreeEntry {
+
+	private final MenuElement element;
+
+	private final int depth;
+
+	/**
+	 * Constructor with all data.
+	 * 
+	 * @param element
+	 *            Visited element.
+	 * @param depth
+	 *            Distance from the container where the traversal started - 1
+	 *            for the direct children.
+	 */
+	public MenuTreeEntry(@NotNull final MenuElement element, final int depth) {
+		super();
+		Contract.requireArgNotNull("element", element);
+		this.element = element;
+		this.depth = depth;
+	}
+
+	/**
+	 * Returns the visited element.
+	 * 
+	 * @return Element.
+	 */
+	@NeverNull
+	public MenuElement getElement() {
+		return element;
+	}
+
+	/**
+	 * Returns the distance from the container where the traversal started.
+	 * 
+	 * @return Depth - 1 for the direct children.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	@Override
+	public String toString() {
+		return depth + ":" + element.getTitle();
+	}
+
+}
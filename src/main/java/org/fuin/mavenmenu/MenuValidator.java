@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Pattern;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Validates a menu tree. In addition to the bean validation constraints it
+ * checks that titles and calculated names are unique inside a container,
+ * because {@link MenuElementContainer#findByName(String)} and
+ * {@link MenuElementContainer#findByTitle(String)} can only return one of
+ * them. For projects the syntax of the Maven coordinates and the CI server
+ * URL is checked. Subtrees are validated in parallel and all violations are
+ * collected in a single pass.
+ */
+public final class MenuValidator {
+
+	/** Pattern for group and artifact IDs used by Maven. */
+	private static final Pattern ID = Pattern.compile("[A-Za-z0-9_\\-.]+");
+
+	/** Queued tasks of a worker above which subtrees are validated inline. */
+	private static final int SURPLUS = 3;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructor using the common pool that is also used by parallel
+	 * streams.
+	 */
+	public MenuValidator() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor with pool to use.
+	 * 
+	 * @param pool
+	 *            Pool that runs the validation.
+	 */
+	public MenuValidator(@NotNull final ForkJoinPool pool) {
+		super();
+		Contract.requireArgNotNull("pool", pool);
+		this.pool = pool;
+	}
+
+	/**
+	 * Validates a container and all it's descendants.
+	 * 
+	 * @param root
+	 *            Root of the tree to validate.
+	 * 
+	 * @return Violations in depth first order - Empty if the tree is valid.
+	 */
+	@NeverNull
+	public List<MenuViolation> validate(
+			@NotNull final MenuElementContainer root) {
+		Contract.requireArgNotNull("root", root);
+		final List<MenuViolation> violations = new ArrayList<MenuViolation>();
+		validateElement("/", root, violations);
+		violations.addAll(pool.invoke(new ContainerTask("", root)));
+		return violations;
+	}
+
+	/**
+	 * Checks the attributes of a single element.
+	 * 
+	 * @param path
+	 *            Path of the element.
+	 * @param element
+	 *            Element to check.
+	 * @param violations
+	 *            List to add violations to.
+	 */
+	private static void validateElement(final String path,
+			final MenuElement element, final List<MenuViolation> violations) {
+		final String title = element.getTitle();
+		if ((title == null) || (title.trim().length() == 0)) {
+			violations.add(new MenuViolation(path, element,
+					"Title is empty"));
+		}
+		if (element instanceof Project) {
+			validateProject(path, (Project) element, violations);
+		}
+	}
+
+	private static void validateProject(final String path,
+			final Project project, final List<MenuViolation> violations) {
+		final String groupId = project.getGroupId();
+		final String artifactId = project.getArtifactId();
+		if ((groupId != null) && !ID.matcher(groupId).matches()) {
+			violations.add(new MenuViolation(path, project,
+					"Invalid group ID '" + groupId + "'"));
+		}
+		if ((artifactId != null) && !ID.matcher(artifactId).matches()) {
+			violations.add(new MenuViolation(path, project,
+					"Invalid artifact ID '" + artifactId + "'"));
+		}
+		final String ci = project.getCi();
+		if (ci != null) {
+			try {
+				if (!new URI(ci).isAbsolute()) {
+					violations.add(new MenuViolation(path, project,
+							"CI URL is not absolute '" + ci + "'"));
+				}
+			} catch (final URISyntaxException ex) {
+				violations.add(new MenuViolation(path, project,
+						"Invalid CI URL '" + ci + "'"));
+			}
+		}
+	}
+
+	/**
+	 * Returns the calculated name without failing for a missing title.
+	 * 
+	 * @param element
+	 *            Element.
+	 * 
+	 * @return Calculated name or null.
+	 */
+	private static String calcName(final MenuElement element) {
+		if ((element.getName() == null) && (element.getTitle() == null)) {
+			return null;
+		}
+		return element.getCalcName();
+	}
+
+	private static String path(final String prefix, final MenuElement element) {
+		return prefix + "/" + calcName(element);
+	}
+
+	/**
+	 * Validates the children of a container and forks a task for every child
+	 * container.
+	 */
+	private static final class ContainerTask extends
+			RecursiveTask<List<MenuViolation>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String prefix;
+
+		private final MenuElementContainer container;
+
+		/**
+		 * Constructor with container.
+		 * 
+		 * @param prefix
+		 *            Path of the container without the trailing '/' - Empty
+		 *            string for the root.
+		 * @param container
+		 *            Container to validate.
+		 */
+		ContainerTask(final String prefix,
+				final MenuElementContainer container) {
+			super();
+			this.prefix = prefix;
+			this.container = container;
+		}
+
+		@Override
+		protected List<MenuViolation> compute() {
+			final List<MenuViolation> violations = new ArrayList<MenuViolation>();
+			final List<MenuElement> children = container.getElements();
+			if (children == null) {
+				return violations;
+			}
+
+			final Set<String> titles = new HashSet<String>();
+			final Set<String> names = new HashSet<String>();
+			// Violations and forked tasks in child order
+			final List<Object> results = new ArrayList<Object>();
+			for (final MenuElement child : children) {
+				final String path = path(prefix, child);
+				validateElement(path, child, violations);
+				final String title = child.getTitle();
+				if ((title != null) && !titles.add(title)) {
+					violations.add(new MenuViolation(path, child,
+							"Duplicate title '" + title + "'"));
+				} else {
+					final String name = calcName(child);
+					if ((name != null) && !names.add(name)) {
+						violations.add(new MenuViolation(path, child,
+								"Duplicate calculated name '" + name + "'"));
+					}
+				}
+				if (child instanceof MenuElementContainer) {
+					final ContainerTask task = new ContainerTask(path,
+							(MenuElementContainer) child);
+					if (getSurplusQueuedTaskCount() > SURPLUS) {
+						violations.addAll(task.compute());
+					} else {
+						task.fork();
+						results.addAll(violations);
+						violations.clear();
+						results.add(task);
+					}
+				}
+			}
+			if (results.isEmpty()) {
+				return violations;
+			}
+			results.addAll(violations);
+			violations.clear();
+
+			// Join in child order to keep the result deterministic
+			for (final Object result : results) {
+				if (result instanceof ContainerTask) {
+					violations.addAll(((ContainerTask) result).join());
+				} else {
+					violations.add((MenuViolation) result);
+				}
+			}
+			return violations;
+		}
+
+	}
+
+}
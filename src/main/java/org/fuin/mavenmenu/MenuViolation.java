@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Problem found by the {@link MenuValidator}.
+ */
+public final class MenuViolation {
+
+	private final String path;
+
+	private final MenuElement element;
+
+	private final String message;
+
+	/**
+	 * Constructor with all data.
+	 * 
+	 * @param path
+	 *            Path of the element built from calculated names.
+	 * @param element
+	 *            Element with the problem.
+	 * @param message
+	 *            Description of the problem.
+	 */
+	public MenuViolation(@NotNull final String path,
+			@NotNull final MenuElement element, @NotNull final String message) {
+		super();
+		Contract.requireArgNotNull("path", path);
+		Contract.requireArgNotNull("element", element);
+		Contract.requireArgNotNull("message", message);
+		this.path = path;
+		this.element = element;
+		this.message = message;
+	}
+
+	/**
+	 * Returns the path of the element.
+	 * 
+	 * @return Path built from calculated names.
+	 */
+	@NeverNull
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Returns the element with the problem.
+	 * 
+	 * @return Element.
+	 */
+	@NeverNull
+	public MenuElement getElement() {
+		return element;
+	}
+
+	/**
+	 * Returns a description of the problem.
+	 * 
+	 * @return Message.
+	 */
+	@NeverNull
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return path + ": " + message;
+	}
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.validation.constraints.NotNull;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Reads and writes menus with JAXB. The JAXB context for {@link Menu},
+ * {@link Project} and {@link Page} is created only once for the whole
+ * application and every thread reuses it's own marshaller and unmarshaller,
+ * so repeated calls only cost the parsing or writing itself. Call
+ * {@link #warmUp()} during startup to create the context before the first
+ * request.
+ */
+public final class MenuXml {
+
+	private static final Object LOCK = new Object();
+
+	private static volatile JAXBContext context;
+
+	private static final ThreadLocal<Unmarshaller> UNMARSHALLER = new ThreadLocal<Unmarshaller>();
+
+	private static final ThreadLocal<Marshaller> MARSHALLER = new ThreadLocal<Marshaller>();
+
+	/**
+	 * Private utility class constructor.
+	 */
+	private MenuXml() {
+		throw new UnsupportedOperationException(
+				"It's not allowed to create an instance of a utility class");
+	}
+
+	/**
+	 * Returns the shared JAXB context. It's created with the first call.
+	 * 
+	 * @return Context that knows all menu classes.
+	 * 
+	 * @throws JAXBException
+	 *             Error creating the context.
+	 */
+	@NeverNull
+	public static JAXBContext getContext() throws JAXBException {
+		JAXBContext ctx = context;
+		if (ctx == null) {
+			synchronized (LOCK) {
+				ctx = context;
+				if (ctx == null) {
+					ctx = JAXBContext.newInstance(Menu.class, Project.class,
+							Page.class);
+					context = ctx;
+				}
+			}
+		}
+		return ctx;
+	}
+
+	/**
+	 * Creates the shared JAXB context and the unmarshaller for the current
+	 * thread, if not already done.
+	 * 
+	 * @throws JAXBException
+	 *             Error creating the context.
+	 */
+	public static void warmUp() throws JAXBException {
+		unmarshaller();
+	}
+
+	/**
+	 * Reads a menu from a stream. The stream is not closed.
+	 * 
+	 * @param in
+	 *            Stream with a menu XML document.
+	 * 
+	 * @return New menu.
+	 * 
+	 * @throws JAXBException
+	 *             Error reading the document.
+	 */
+	@NeverNull
+	public static Menu read(@NotNull final InputStream in) throws JAXBException {
+		Contract.requireArgNotNull("in", in);
+		return (Menu) unmarshaller().unmarshal(in);
+	}
+
+	/**
+	 * Writes a menu as UTF-8 encoded and formatted XML document to a stream.
+	 * The stream is not closed.
+	 * 
+	 * @param menu
+	 *            Menu to write.
+	 * @param out
+	 *            Stream to write to.
+	 * 
+	 * @throws JAXBException
+	 *             Error writing the document.
+	 */
+	public static void write(@NotNull final Menu menu,
+			@NotNull final OutputStream out) throws JAXBException {
+		Contract.requireArgNotNull("menu", menu);
+		Contract.requireArgNotNull("out", out);
+		marshaller().marshal(menu, out);
+	}
+
+	private static Unmarshaller unmarshaller() throws JAXBException {
+		Unmarshaller unmarshaller = UNMARSHALLER.get();
+		if (unmarshaller == null) {
+			unmarshaller = getContext().createUnmarshaller();
+			UNMARSHALLER.set(unmarshaller);
+		}
+		return unmarshaller;
+	}
+
+	private static Marshaller marshaller() throws JAXBException {
+		Marshaller marshaller = MARSHALLER.get();
+		if (marshaller == null) {
+			marshaller = getContext().createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
+					Boolean.TRUE);
+			MARSHALLER.set(marshaller);
+		}
+		return marshaller;
+	}
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Informed by a {@link PomWatcher} after changed POM files were applied to
+ * the menu.
+ */
+public interface PomChangeListener {
+
+	/**
+	 * Called once for every batch of changes. Runs on the thread of the
+	 * watcher, so the next batch waits until the method returns.
+	 * 
+	 * @param menu
+	 *            Patched menu.
+	 * @param poms
+	 *            POM files whose changes were applied.
+	 */
+	void pomsChanged(@NotNull Menu menu, @NotNull Set<Path> poms);
+
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.fuin.objects4j.common.NeverNull;
+import org.fuin.objects4j.common.Nullable;
+
+/**
+ * The parts of a Maven POM file that are used to build a menu. Instances are
+ * immutable.
+ */
+final class PomInfo {
+
+	/** Name of a POM file. */
+	static final String POM = "pom.xml";
+
+	private final Path pom;
+
+	private final String groupId;
+
+	private final String artifactId;
+
+	private final String name;
+
+	private final List<Path> modules;
+
+	/**
+	 * Constructor with all data.
+	 * 
+	 * @param pom
+	 *            Absolute and normalized path of the POM file.
+	 * @param groupId
+	 *            Group ID or the group ID of the parent if not set.
+	 * @param artifactId
+	 *            Artifact ID.
+	 * @param name
+	 *            Content of the name element.
+	 * @param modules
+	 *            Absolute and normalized paths of the module POM files.
+	 */
+	PomInfo(@NotNull final Path pom, @Nullable final String groupId,
+			@Nullable final String artifactId, @Nullable final String name,
+			@NotNull final List<Path> modules) {
+		super();
+		this.pom = pom;
+		this.groupId = groupId;
+		this.artifactId = artifactId;
+		this.name = name;
+		this.modules = Collections.unmodifiableList(new ArrayList<Path>(
+				modules));
+	}
+
+	/**
+	 * Returns the path of the POM file.
+	 * 
+	 * @return Absolute and normalized path.
+	 */
+	@NeverNull
+	Path getPom() {
+		return pom;
+	}
+
+	/**
+	 * Returns the group ID. If the POM does not define one, the group ID of
+	 * the parent is returned.
+	 * 
+	 * @return Group ID or null.
+	 */
+	@Nullable
+	String getGroupId() {
+		return groupId;
+	}
+
+	/**
+	 * Returns the artifact ID.
+	 * 
+	 * @return Artifact ID or null.
+	 */
+	@Nullable
+	String getArtifactId() {
+		return artifactId;
+	}
+
+	/**
+	 * Returns the human readable name.
+	 * 
+	 * @return Name or null.
+	 */
+	@Nullable
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the POM files of the modules.
+	 * 
+	 * @return Unmodifiable list of absolute and normalized paths.
+	 */
+	@NeverNull
+	List<Path> getModules() {
+		return modules;
+	}
+
+	/**
+	 * Reads a POM file.
+	 * 
+	 * @param factory
+	 *            Factory for the parser.
+	 * @param pom
+	 *            Absolute and normalized path of the file to read.
+	 * 
+	 * @return Content of the file.
+	 * 
+	 * @throws IOException
+	 *             Error reading the file.
+	 * @throws XMLStreamException
+	 *             The file is not a valid POM.
+	 */
+	@NeverNull
+	static PomInfo read(@NotNull final XMLInputFactory factory,
+			@NotNull final Path pom) throws IOException, XMLStreamException {
+		final InputStream in = Files.newInputStream(pom);
+		try {
+			final XMLStreamReader reader = factory.createXMLStreamReader(in);
+			try {
+				return read(reader, pom);
+			} finally {
+				reader.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	private static PomInfo read(final XMLStreamReader reader, final Path pom)
+			throws XMLStreamException {
+		reader.nextTag();
+		if (!"project".equals(reader.getLocalName())) {
+			throw new XMLStreamException("Expected root element 'project', "
+					+ "but was: " + reader.getLocalName(), reader.getLocation());
+		}
+		String groupId = null;
+		String parentGroupId = null;
+		String artifactId = null;
+		String name = null;
+		final List<Path> modules = new ArrayList<Path>();
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			final String element = reader.getLocalName();
+			if ("groupId".equals(element)) {
+				groupId = reader.getElementText().trim();
+			} else if ("artifactId".equals(element)) {
+				artifactId = reader.getElementText().trim();
+			} else if ("name".equals(element)) {
+				name = reader.getElementText().trim();
+			} else if ("parent".equals(element)) {
+				while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+					if ("groupId".equals(reader.getLocalName())) {
+						parentGroupId = reader.getElementText().trim();
+					} else {
+						skip(reader);
+					}
+				}
+			} else if ("modules".equals(element)) {
+				while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+					if ("module".equals(reader.getLocalName())) {
+						modules.add(modulePom(pom,
+								reader.getElementText().trim()));
+					} else {
+						skip(reader);
+					}
+				}
+			} else {
+				skip(reader);
+			}
+		}
+		return new PomInfo(pom, (groupId == null) ? parentGroupId : groupId,
+				artifactId, name, modules);
+	}
+
+	/**
+	 * Skips an element including all children. The reader must be positioned
+	 * on the start tag and will be positioned on the end tag afterwards.
+	 * 
+	 * @param reader
+	 *            Reader to use.
+	 * 
+	 * @throws XMLStreamException
+	 *             Error reading the stream.
+	 */
+	private static void skip(final XMLStreamReader reader)
+			throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			final int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	private static Path modulePom(final Path pom, final String module) {
+		final Path path = pom.getParent().resolve(module);
+		if (module.endsWith(".xml")) {
+			return path.normalize();
+		}
+		return path.resolve(POM).normalize();
+	}
+
+	// CHECKSTYLE:OFF Generated code
+	@Override
+	public int hashCode() {
+		return pom.hashCode();
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		final PomInfo other = (PomInfo) obj;
+		return pom.equals(other.pom) && equal(groupId, other.groupId)
+				&& equal(artifactId, other.artifactId)
+				&& equal(name, other.name) && modules.equals(other.modules);
+	}
+
+	private static boolean equal(final Object a, final Object b) {
+		if (a == null)
+			return b == null;
+		return a.equals(b);
+	}
+
+	// CHECKSTYLE:ON
+
+	@Override
+	public String toString() {
+		return pom.toString();
+	}
+
+}
@@ -0,0 +1,631 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.validation.constraints.NotNull;
+import javax.xml.stream.XMLInputFactory;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+import org.fuin.objects4j.common.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a menu from the Maven POM files found in a directory tree. The
+ * files are parsed in parallel on a pool with a fixed number of threads.
+ * Every POM becomes a {@link Project} with it's group and artifact ID. The
+ * modules of a POM become child projects, all other POMs are added directly
+ * to the menu. The title of a project is the name of the POM, or the
+ * artifact ID or the relative directory if the name is missing or already
+ * used by a sibling. Hidden directories and "target" directories are
+ * skipped. Files that cannot be parsed are logged and left out.
+ */
+public final class PomScanner {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PomScanner.class);
+
+	private final String title;
+
+	private final int threads;
+
+	private final XMLInputFactory factory;
+
+	private final Map<Path, Project> projects;
+
+	private final Map<Path, PomInfo> infos;
+
+	/** Projects for modules without a readable POM file. */
+	private final Map<Path, Project> placeholders;
+
+	private final Map<Path, Exception> failures;
+
+	private volatile Path dir;
+
+	private volatile Menu menu;
+
+	/**
+	 * Constructor with menu title. Uses two threads per processor.
+	 * 
+	 * @param title
+	 *            Title of the menu to create.
+	 */
+	public PomScanner(@NotNull final String title) {
+		this(title, Runtime.getRuntime().availableProcessors() * 2);
+	}
+
+	/**
+	 * Constructor with menu title and number of threads.
+	 * 
+	 * @param title
+	 *            Title of the menu to create.
+	 * @param threads
+	 *            Maximum number of files parsed at the same time.
+	 */
+	public PomScanner(@NotNull final String title, final int threads) {
+		super();
+		Contract.requireArgNotEmpty("title", title);
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"The number of threads must be at least 1, but was: "
+							+ threads);
+		}
+		this.title = title;
+		this.threads = threads;
+		factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+				Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		projects = new ConcurrentHashMap<Path, Project>();
+		infos = new ConcurrentHashMap<Path, PomInfo>();
+		placeholders = new ConcurrentHashMap<Path, Project>();
+		failures = new ConcurrentHashMap<Path, Exception>();
+	}
+
+	/**
+	 * Scans a directory tree and builds a new menu. The result of a previous
+	 * scan is discarded.
+	 * 
+	 * @param directory
+	 *            Directory to scan.
+	 * 
+	 * @return New menu.
+	 * 
+	 * @throws IOException
+	 *             Error walking the directory tree.
+	 */
+	@NeverNull
+	public synchronized Menu scan(@NotNull final Path directory)
+			throws IOException {
+		Contract.requireArgNotNull("directory", directory);
+		final Path root = directory.toAbsolutePath().normalize();
+		projects.clear();
+		infos.clear();
+		placeholders.clear();
+		failures.clear();
+		infos.putAll(parse(find(root)));
+		final Menu created = new Menu(title);
+		final Set<Path> modules = new HashSet<Path>();
+		for (final PomInfo info : infos.values()) {
+			modules.addAll(info.getModules());
+		}
+		final List<Path> tops = new ArrayList<Path>();
+		for (final Path pom : infos.keySet()) {
+			if (!modules.contains(pom)) {
+				tops.add(pom);
+			}
+		}
+		Collections.sort(tops);
+		final List<MenuElement> elements = createProjects(root, tops,
+				new HashSet<Path>());
+		if (!elements.isEmpty()) {
+			created.addElements(elements);
+		}
+		dir = root;
+		menu = created;
+		return created;
+	}
+
+	/**
+	 * Reads changed POM files again and patches the menu of the last scan in
+	 * place. Projects of deleted files are removed, new files get a project
+	 * and changed coordinates, names and modules are applied with the setters
+	 * and {@link MenuElementContainer#addElement(MenuElement)} and
+	 * {@link MenuElementContainer#removeElement(MenuElement)}. A project
+	 * whose title changes is replaced by a new one that takes over the
+	 * children. Files that cannot be parsed keep their old state. Switch the
+	 * menu to concurrent mode if it's read by other threads during a refresh.
+	 * 
+	 * @param poms
+	 *            POM files that were created, changed or deleted.
+	 * 
+	 * @return POM files whose changes were applied to the menu.
+	 */
+	@NeverNull
+	public synchronized Set<Path> refresh(@NotNull final Collection<Path> poms) {
+		Contract.requireArgNotNull("poms", poms);
+		final Menu current = menu;
+		if (current == null) {
+			throw new IllegalStateException("There was no scan yet");
+		}
+		final Set<Path> changed = new TreeSet<Path>();
+		final Set<Path> affected = new TreeSet<Path>();
+		final List<Path> existing = new ArrayList<Path>();
+		for (final Path pom : poms) {
+			final Path normalized = pom.toAbsolutePath().normalize();
+			if (Files.isRegularFile(normalized)) {
+				existing.add(normalized);
+			} else {
+				failures.remove(normalized);
+				final PomInfo old = infos.remove(normalized);
+				if (old != null) {
+					changed.add(normalized);
+					affected.add(normalized);
+					affected.addAll(old.getModules());
+				}
+			}
+		}
+		final Map<Path, PomInfo> parsed = parse(existing);
+		for (final Map.Entry<Path, PomInfo> entry : parsed.entrySet()) {
+			final Path pom = entry.getKey();
+			final PomInfo info = entry.getValue();
+			failures.remove(pom);
+			final PomInfo old = infos.put(pom, info);
+			if (!info.equals(old)) {
+				changed.add(pom);
+				affected.add(pom);
+				affected.addAll(info.getModules());
+				if (old != null) {
+					affected.addAll(old.getModules());
+				}
+			}
+		}
+		if (changed.isEmpty()) {
+			return changed;
+		}
+
+		final Map<Path, Path> parents = parents();
+		for (final Path pom : affected) {
+			if (!infos.containsKey(pom)) {
+				detach(projects.remove(pom));
+			}
+		}
+		final Set<Path> placed = new HashSet<Path>();
+		for (final Path pom : affected) {
+			place(current, pom, parents, affected, placed);
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns the POM that lists a module for every module POM. If more than
+	 * one POM lists the same module, the first in path order wins.
+	 * 
+	 * @return Map of module POM to parent POM.
+	 */
+	private Map<Path, Path> parents() {
+		final Map<Path, Path> parents = new HashMap<Path, Path>();
+		for (final PomInfo info : new TreeMap<Path, PomInfo>(infos).values()) {
+			for (final Path module : info.getModules()) {
+				if (!module.equals(info.getPom())
+						&& !parents.containsKey(module)) {
+					parents.put(module, info.getPom());
+				}
+			}
+		}
+		return parents;
+	}
+
+	/**
+	 * Makes sure that the project of a POM file has the current title and
+	 * coordinates and is a child of the right container. The parent is placed
+	 * first if it was also affected by the change.
+	 * 
+	 * @param current
+	 *            Menu to patch.
+	 * @param pom
+	 *            POM file to place.
+	 * @param parents
+	 *            Map of module POM to parent POM.
+	 * @param affected
+	 *            All POM files that need to be placed.
+	 * @param placed
+	 *            POM files that are already placed or in progress.
+	 */
+	private void place(final Menu current, final Path pom,
+			final Map<Path, Path> parents, final Set<Path> affected,
+			final Set<Path> placed) {
+		if (!placed.add(pom)) {
+			return;
+		}
+		final Path parentPom = parents.get(pom);
+		MenuElementContainer target = current;
+		if (parentPom != null) {
+			if (affected.contains(parentPom)) {
+				place(current, parentPom, parents, affected, placed);
+			}
+			final Project parentProject = projects.get(parentPom);
+			if (parentProject != null) {
+				target = parentProject;
+			}
+		}
+
+		final PomInfo info = infos.get(pom);
+		Project project;
+		if (info == null) {
+			if (target == current) {
+				// Neither a readable POM nor a module of one
+				detach(placeholders.remove(pom));
+				return;
+			}
+			project = placeholders.get(pom);
+		} else {
+			detach(placeholders.remove(pom));
+			project = projects.get(pom);
+		}
+
+		final Set<String> titles = new HashSet<String>();
+		final List<MenuElement> siblings = target.getElements();
+		if (siblings != null) {
+			for (final MenuElement sibling : siblings) {
+				if (sibling != project) {
+					titles.add(sibling.getTitle());
+				}
+			}
+		}
+		final String title = title(dir, pom, info, titles);
+		if ((project == null) || !project.getTitle().equals(title)) {
+			final Project replacement = new Project(title);
+			if (project != null) {
+				final List<MenuElement> children = project.getElements();
+				if ((children != null) && !children.isEmpty()) {
+					final List<MenuElement> moved = new ArrayList<MenuElement>(
+							children);
+					for (final MenuElement child : moved) {
+						project.removeElement(child);
+					}
+					replacement.addElements(moved);
+				}
+				detach(project);
+			}
+			project = replacement;
+			if (info == null) {
+				placeholders.put(pom, project);
+			} else {
+				projects.put(pom, project);
+			}
+		}
+		if (info != null) {
+			if (!equal(project.getGroupId(), info.getGroupId())) {
+				project.setGroupId(info.getGroupId());
+			}
+			if (!equal(project.getArtifactId(), info.getArtifactId())) {
+				project.setArtifactId(info.getArtifactId());
+			}
+		}
+		if (project.getParent() != target) {
+			detach(project);
+			target.addElement(project);
+		}
+	}
+
+	private static void detach(final MenuElement element) {
+		if (element == null) {
+			return;
+		}
+		final MenuElementContainer parent = element.getParent();
+		if (parent != null) {
+			parent.removeElement(element);
+		}
+	}
+
+	private static boolean equal(final String a, final String b) {
+		if (a == null) {
+			return b == null;
+		}
+		return a.equals(b);
+	}
+
+	/**
+	 * Returns the directory of the last scan.
+	 * 
+	 * @return Absolute and normalized directory or null if nothing was
+	 *         scanned yet.
+	 */
+	@Nullable
+	public Path getDirectory() {
+		return dir;
+	}
+
+	/**
+	 * Returns the menu created by the last scan.
+	 * 
+	 * @return Menu or null if nothing was scanned yet.
+	 */
+	@Nullable
+	public Menu getMenu() {
+		return menu;
+	}
+
+	/**
+	 * Returns the project that was created for a POM file.
+	 * 
+	 * @param pom
+	 *            Path of the POM file.
+	 * 
+	 * @return Project or null if the file is not part of the menu.
+	 */
+	@Nullable
+	public Project getProject(@NotNull final Path pom) {
+		Contract.requireArgNotNull("pom", pom);
+		return projects.get(pom.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Returns all projects created for POM files.
+	 * 
+	 * @return Unmodifiable map of absolute and normalized POM paths to
+	 *         projects.
+	 */
+	@NeverNull
+	public Map<Path, Project> getProjects() {
+		return Collections.unmodifiableMap(projects);
+	}
+
+	/**
+	 * Returns the files that could not be parsed during the last scan.
+	 * 
+	 * @return Unmodifiable map of absolute and normalized POM paths to the
+	 *         problem.
+	 */
+	@NeverNull
+	public Map<Path, Exception> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * Finds all POM files below a directory.
+	 * 
+	 * @param root
+	 *            Directory to start with.
+	 * 
+	 * @return Absolute and normalized paths.
+	 * 
+	 * @throws IOException
+	 *             Error walking the directory tree.
+	 */
+	static List<Path> find(@NotNull final Path root) throws IOException {
+		final List<Path> poms = new ArrayList<Path>();
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(final Path dir,
+					final BasicFileAttributes attrs) {
+				if (!dir.equals(root) && skip(dir)) {
+					return FileVisitResult.SKIP_SUBTREE;
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(final Path file,
+					final BasicFileAttributes attrs) {
+				if (isPom(file)) {
+					poms.add(file);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(final Path file,
+					final IOException ex) {
+				LOG.warn("Cannot read: " + file, ex);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return poms;
+	}
+
+	/**
+	 * Determines if a directory is never searched for POM files.
+	 * 
+	 * @param dir
+	 *            Directory to check.
+	 * 
+	 * @return TRUE for hidden and "target" directories.
+	 */
+	static boolean skip(@NotNull final Path dir) {
+		final Path name = dir.getFileName();
+		if (name == null) {
+			return false;
+		}
+		final String str = name.toString();
+		return str.startsWith(".") || str.equals("target");
+	}
+
+	/**
+	 * Determines if a file is a POM file.
+	 * 
+	 * @param file
+	 *            File to check.
+	 * 
+	 * @return TRUE if the name of the file is "pom.xml".
+	 */
+	static boolean isPom(@NotNull final Path file) {
+		final Path name = file.getFileName();
+		return (name != null) && name.toString().equals(PomInfo.POM);
+	}
+
+	/**
+	 * Parses POM files in parallel. Files with errors are added to the
+	 * failures.
+	 * 
+	 * @param poms
+	 *            Absolute and normalized paths of the files.
+	 * 
+	 * @return Content of all readable files by path.
+	 */
+	Map<Path, PomInfo> parse(@NotNull final List<Path> poms) {
+		final Map<Path, PomInfo> result = new HashMap<Path, PomInfo>();
+		if (poms.isEmpty()) {
+			return result;
+		}
+		final ExecutorService pool = Executors.newFixedThreadPool(Math.min(
+				threads, poms.size()));
+		try {
+			final List<Future<PomInfo>> futures = new ArrayList<Future<PomInfo>>(
+					poms.size());
+			for (final Path pom : poms) {
+				futures.add(pool.submit(new Callable<PomInfo>() {
+					@Override
+					public PomInfo call() throws Exception {
+						return PomInfo.read(factory, pom);
+					}
+				}));
+			}
+			for (int i = 0; i < poms.size(); i++) {
+				final Path pom = poms.get(i);
+				try {
+					result.put(pom, futures.get(i).get());
+				} catch (final ExecutionException ex) {
+					Exception cause = ex;
+					if (ex.getCause() instanceof Exception) {
+						cause = (Exception) ex.getCause();
+					}
+					LOG.warn("Cannot parse: " + pom, cause);
+					failures.put(pom, cause);
+				} catch (final InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(
+							"Interrupted while parsing POM files", ex);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the projects for a list of POM files and all their modules.
+	 * 
+	 * @param root
+	 *            Scanned directory.
+	 * @param poms
+	 *            POM files in the order they should get their titles.
+	 * @param assigned
+	 *            POM files that already have a project - A POM that is the
+	 *            module of two others is only added once.
+	 * 
+	 * @return New projects.
+	 */
+	private List<MenuElement> createProjects(final Path root,
+			final List<Path> poms, final Set<Path> assigned) {
+		final Set<String> titles = new HashSet<String>();
+		final List<MenuElement> result = new ArrayList<MenuElement>();
+		for (final Path pom : poms) {
+			if (!assigned.add(pom)) {
+				continue;
+			}
+			final PomInfo info = infos.get(pom);
+			final Project project = new Project(title(root, pom, info, titles));
+			if (info != null) {
+				project.setGroupId(info.getGroupId());
+				project.setArtifactId(info.getArtifactId());
+				final List<MenuElement> children = createProjects(root,
+						info.getModules(), assigned);
+				if (!children.isEmpty()) {
+					project.addElements(children);
+				}
+				projects.put(pom, project);
+			} else {
+				placeholders.put(pom, project);
+			}
+			result.add(project);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a title that is not used by a sibling.
+	 * 
+	 * @param root
+	 *            Scanned directory.
+	 * @param pom
+	 *            POM file.
+	 * @param info
+	 *            Content of the POM or null if it's a module that could not
+	 *            be read.
+	 * @param titles
+	 *            Titles used by the siblings - The result is added.
+	 * 
+	 * @return Title.
+	 */
+	static String title(@NotNull final Path root, @NotNull final Path pom,
+			@Nullable final PomInfo info, @NotNull final Set<String> titles) {
+		final List<String> candidates = new ArrayList<String>();
+		if (info != null) {
+			candidates.add(info.getName());
+			candidates.add(info.getArtifactId());
+		}
+		final Path dir = pom.getParent();
+		final String relative = root.relativize(dir).toString();
+		if (relative.length() > 0) {
+			candidates.add(relative);
+		} else if (dir.getFileName() != null) {
+			candidates.add(dir.getFileName().toString());
+		} else {
+			candidates.add(dir.toString());
+		}
+		for (final String candidate : candidates) {
+			if ((candidate != null) && (candidate.trim().length() > 0)
+					&& titles.add(candidate)) {
+				return candidate;
+			}
+		}
+		final String base = candidates.get(candidates.size() - 1);
+		int i = 2;
+		while (!titles.add(base + " (" + i + ")")) {
+			i++;
+		}
+		return base + " (" + i + ")";
+	}
+
+}
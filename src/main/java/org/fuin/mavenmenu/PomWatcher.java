@@ -0,0 +1,345 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the menu of a {@link PomScanner} up to date by watching the scanned
+ * directory tree. File events are collected until no new event arrived for a
+ * quiet period, then all changed POM files of the batch are applied with
+ * {@link PomScanner#refresh(java.util.Collection)} and the listeners are
+ * informed once. New directories are watched as soon as they are created. If
+ * the file system dropped events, all POM files are read again. Errors while
+ * processing a batch are logged and the watcher continues with the next
+ * batch, only {@link #close()} stops it.
+ */
+public final class PomWatcher implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PomWatcher.class);
+
+	/** A batch is applied after this multiple of the quiet period at the latest. */
+	private static final int MAX_DELAY_FACTOR = 10;
+
+	private final PomScanner scanner;
+
+	private final long quietMillis;
+
+	private final List<PomChangeListener> listeners;
+
+	private final Map<WatchKey, Path> keys;
+
+	private WatchService watchService;
+
+	private Thread thread;
+
+	private volatile boolean closed;
+
+	/**
+	 * Constructor with a quiet period of 500 milliseconds.
+	 * 
+	 * @param scanner
+	 *            Scanner that already scanned the directory to watch.
+	 */
+	public PomWatcher(@NotNull final PomScanner scanner) {
+		this(scanner, 500);
+	}
+
+	/**
+	 * Constructor with all data.
+	 * 
+	 * @param scanner
+	 *            Scanner that already scanned the directory to watch.
+	 * @param quietMillis
+	 *            Time without new events before a batch is applied.
+	 */
+	public PomWatcher(@NotNull final PomScanner scanner,
+			final long quietMillis) {
+		super();
+		Contract.requireArgNotNull("scanner", scanner);
+		if (quietMillis < 1) {
+			throw new IllegalArgumentException(
+					"The quiet period must be at least 1 millisecond, but was: "
+							+ quietMillis);
+		}
+		this.scanner = scanner;
+		this.quietMillis = quietMillis;
+		this.listeners = new CopyOnWriteArrayList<PomChangeListener>();
+		this.keys = new ConcurrentHashMap<WatchKey, Path>();
+	}
+
+	/**
+	 * Adds a listener.
+	 * 
+	 * @param listener
+	 *            Listener to inform after every batch.
+	 */
+	public void addListener(@NotNull final PomChangeListener listener) {
+		Contract.requireArgNotNull("listener", listener);
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener.
+	 * 
+	 * @param listener
+	 *            Listener to remove.
+	 */
+	public void removeListener(@NotNull final PomChangeListener listener) {
+		Contract.requireArgNotNull("listener", listener);
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Registers all directories and starts a daemon thread that processes the
+	 * file events.
+	 * 
+	 * @throws IOException
+	 *             Error registering the directories.
+	 */
+	public synchronized void start() throws IOException {
+		if (thread != null) {
+			throw new IllegalStateException("The watcher was already started");
+		}
+		final Path dir = scanner.getDirectory();
+		if (dir == null) {
+			throw new IllegalStateException("The scanner did not scan yet");
+		}
+		watchService = dir.getFileSystem().newWatchService();
+		register(dir);
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				watch();
+			}
+		}, "pom-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops watching and waits until a batch that is currently applied is
+	 * finished. If a listener calls this method, it returns without waiting
+	 * and the watcher stops after the current batch.
+	 * 
+	 * @throws IOException
+	 *             Error closing the watch service.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		closed = true;
+		if (watchService != null) {
+			watchService.close();
+		}
+		if ((thread != null) && (thread != Thread.currentThread())) {
+			try {
+				thread.join();
+			} catch (final InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Processes batches until the watcher is closed. A failing batch is
+	 * logged and does not stop the watcher.
+	 */
+	private void watch() {
+		while (!closed) {
+			try {
+				watchBatch();
+			} catch (final ClosedWatchServiceException ex) {
+				// Closed
+				return;
+			} catch (final InterruptedException ex) {
+				// Closed
+				return;
+			} catch (final IOException ex) {
+				failed(ex);
+			} catch (final RuntimeException ex) {
+				failed(ex);
+			}
+		}
+	}
+
+	private void failed(final Exception ex) {
+		if (!closed) {
+			LOG.error("Cannot process changes below: "
+					+ scanner.getDirectory(), ex);
+		}
+	}
+
+	/**
+	 * Waits for the next batch of events and applies it.
+	 * 
+	 * @throws InterruptedException
+	 *             Interrupted while waiting.
+	 * @throws IOException
+	 *             Error reading the directory after lost events.
+	 */
+	private void watchBatch() throws InterruptedException, IOException {
+		WatchKey key = watchService.take();
+		final Set<Path> batch = new HashSet<Path>();
+		final long start = System.currentTimeMillis();
+		boolean overflow = collect(key, batch);
+		while ((System.currentTimeMillis() - start < quietMillis
+				* MAX_DELAY_FACTOR)
+				&& ((key = watchService.poll(quietMillis,
+						TimeUnit.MILLISECONDS)) != null)) {
+			overflow = collect(key, batch) || overflow;
+		}
+		if (overflow) {
+			batch.addAll(scanner.getProjects().keySet());
+			batch.addAll(PomScanner.find(scanner.getDirectory()));
+		}
+		apply(batch);
+	}
+
+	/**
+	 * Adds the POM files affected by the events of a key to a batch. An event
+	 * that cannot be processed, for example because a new directory was
+	 * already deleted again, is logged and skipped.
+	 * 
+	 * @param key
+	 *            Key with events.
+	 * @param batch
+	 *            Changed POM files.
+	 * 
+	 * @return TRUE if events were lost.
+	 */
+	private boolean collect(final WatchKey key, final Set<Path> batch) {
+		boolean overflow = false;
+		final Path dir = keys.get(key);
+		try {
+			for (final WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					overflow = true;
+				} else if (dir != null) {
+					final Path child = dir.resolve((Path) event.context());
+					try {
+						collect(event, child, batch);
+					} catch (final IOException ex) {
+						LOG.warn("Cannot process " + event.kind() + ": "
+								+ child, ex);
+					} catch (final UncheckedIOException ex) {
+						LOG.warn("Cannot process " + event.kind() + ": "
+								+ child, ex);
+					}
+				}
+			}
+		} finally {
+			if (!key.reset()) {
+				keys.remove(key);
+			}
+		}
+		return overflow;
+	}
+
+	private void collect(final WatchEvent<?> event, final Path child,
+			final Set<Path> batch) throws IOException {
+		if (PomScanner.isPom(child)) {
+			batch.add(child);
+		} else if ((event.kind() == ENTRY_CREATE) && Files.isDirectory(child)
+				&& !PomScanner.skip(child)) {
+			register(child);
+			batch.addAll(PomScanner.find(child));
+		} else if (event.kind() == ENTRY_DELETE) {
+			for (final Path pom : scanner.getProjects().keySet()) {
+				if (pom.startsWith(child)) {
+					batch.add(pom);
+				}
+			}
+		}
+	}
+
+	private void apply(final Set<Path> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		final Set<Path> applied;
+		try {
+			applied = scanner.refresh(batch);
+		} catch (final RuntimeException ex) {
+			LOG.error("Cannot apply changes: " + batch, ex);
+			return;
+		}
+		if (applied.isEmpty()) {
+			return;
+		}
+		final Set<Path> poms = Collections.unmodifiableSet(applied);
+		for (final PomChangeListener listener : listeners) {
+			try {
+				listener.pomsChanged(scanner.getMenu(), poms);
+			} catch (final RuntimeException ex) {
+				LOG.error("Listener failed: " + listener, ex);
+			}
+		}
+	}
+
+	private void register(final Path start) throws IOException {
+		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(final Path dir,
+					final BasicFileAttributes attrs) throws IOException {
+				if (!dir.equals(start) && PomScanner.skip(dir)) {
+					return FileVisitResult.SKIP_SUBTREE;
+				}
+				keys.put(dir.register(watchService, ENTRY_CREATE,
+						ENTRY_DELETE, ENTRY_MODIFY), dir);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(final Path file,
+					final IOException ex) {
+				LOG.warn("Cannot watch: " + file, ex);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+}
@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Sorted index of lower case keys for all elements below a container. The
+ * keys of an element are it's title, every word of the title up to the end of
+ * the title and it's calculated name. A prefix query is a range scan in the
+ * sorted map that keeps the best matches in a heap bounded by the requested
+ * number of elements, so it only depends on the number of keys that start
+ * with the prefix and not on the size of the menu. Not thread safe.
+ */
+final class PrefixIndex {
+
+	private final MenuElementContainer root;
+
+	private final TreeMap<String, List<MenuElement>> keys;
+
+	/**
+	 * Creates an index for all elements below a container.
+	 * 
+	 * @param root
+	 *            Container to index. The container itself is not indexed.
+	 */
+	PrefixIndex(@NotNull final MenuElementContainer root) {
+		super();
+		this.root = root;
+		this.keys = new TreeMap<String, List<MenuElement>>();
+		final List<MenuElement> children = root.getElements();
+		if (children != null) {
+			for (final MenuElement child : children) {
+				add(child);
+			}
+		}
+	}
+
+	/**
+	 * Adds an element and all elements below it.
+	 * 
+	 * @param element
+	 *            Element to add.
+	 */
+	void add(@NotNull final MenuElement element) {
+		for (final String key : keys(element)) {
+			List<MenuElement> elements = keys.get(key);
+			if (elements == null) {
+				elements = new ArrayList<MenuElement>(1);
+				keys.put(key, elements);
+			}
+			elements.add(element);
+		}
+		if (element instanceof MenuElementContainer) {
+			final List<MenuElement> children = ((MenuElementContainer) element)
+					.getElements();
+			if (children != null) {
+				for (final MenuElement child : children) {
+					add(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes an element and all elements below it.
+	 * 
+	 * @param element
+	 *            Element to remove.
+	 */
+	void remove(@NotNull final MenuElement element) {
+		for (final String key : keys(element)) {
+			final List<MenuElement> elements = keys.get(key);
+			if (elements != null) {
+				for (int i = 0; i < elements.size(); i++) {
+					if (elements.get(i) == element) {
+						elements.remove(i);
+						break;
+					}
+				}
+				if (elements.isEmpty()) {
+					keys.remove(key);
+				}
+			}
+		}
+		if (element instanceof MenuElementContainer) {
+			final List<MenuElement> children = ((MenuElementContainer) element)
+					.getElements();
+			if (children != null) {
+				for (final MenuElement child : children) {
+					remove(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the elements with a key that starts with a prefix that match
+	 * best. An element with more than one such key is scored with the
+	 * shortest one.
+	 * 
+	 * @param prefix
+	 *            Start of a key. The case is ignored.
+	 * @param limit
+	 *            Maximum number of elements to return. Nothing is returned if
+	 *            it's zero or less.
+	 * 
+	 * @return Matches sorted by descending score, matching key and path - The
+	 *         score is the share of the key that is covered by the prefix.
+	 */
+	@NeverNull
+	List<MenuMatch> find(@NotNull final String prefix, final int limit) {
+		if (limit <= 0) {
+			return Collections.emptyList();
+		}
+		final String normalized = normalize(prefix);
+
+		final Map<MenuElement, Candidate> found = new IdentityHashMap<MenuElement, Candidate>();
+		for (final Map.Entry<String, List<MenuElement>> entry : keys.tailMap(
+				normalized, true).entrySet()) {
+			final String key = entry.getKey();
+			if (!key.startsWith(normalized)) {
+				break;
+			}
+			final double score = key.length() == 0 ? 1.0
+					: (double) normalized.length() / key.length();
+			for (final MenuElement element : entry.getValue()) {
+				final Candidate candidate = found.get(element);
+				if ((candidate == null) || (candidate.score < score)) {
+					found.put(element, new Candidate(element, key, score));
+				}
+			}
+		}
+
+		// Keep the best "limit" candidates with the worst one on top
+		final PriorityQueue<Candidate> best = new PriorityQueue<Candidate>(
+				Math.min(limit, 16) + 1, Collections.reverseOrder());
+		for (final Candidate candidate : found.values()) {
+			best.add(candidate);
+			if (best.size() > limit) {
+				best.poll();
+			}
+		}
+		final List<Candidate> sorted = new ArrayList<Candidate>(best);
+		Collections.sort(sorted);
+		final List<MenuMatch> matches = new ArrayList<MenuMatch>(sorted.size());
+		for (final Candidate candidate : sorted) {
+			matches.add(new MenuMatch(candidate.element, candidate.path(),
+					candidate.key, candidate.score));
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns the number of distinct keys.
+	 * 
+	 * @return Size of the index.
+	 */
+	int size() {
+		return keys.size();
+	}
+
+	/**
+	 * Returns the keys of an element.
+	 * 
+	 * @param element
+	 *            Element.
+	 * 
+	 * @return Lower case title, all word suffixes of it and the calculated
+	 *         name.
+	 */
+	@NeverNull
+	static Set<String> keys(@NotNull final MenuElement element) {
+		final Set<String> result = new TreeSet<String>();
+		final String title = element.getTitle();
+		final String normalized = normalize(title);
+		result.add(normalized);
+		for (int i = 1; i < title.length(); i++) {
+			final char prev = title.charAt(i - 1);
+			final char ch = title.charAt(i);
+			if ((!Character.isLetterOrDigit(prev) && Character
+					.isLetterOrDigit(ch))
+					|| (Character.isLowerCase(prev) && Character
+							.isUpperCase(ch))) {
+				result.add(normalized.substring(i));
+			}
+		}
+		result.add(element.getCalcName());
+		return result;
+	}
+
+	/**
+	 * Converts a text into the form used for keys.
+	 * 
+	 * @param text
+	 *            Text to convert.
+	 * 
+	 * @return Text with every character converted to lower case.
+	 */
+	@NeverNull
+	static String normalize(@NotNull final String text) {
+		final char[] chars = text.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Element with it's best matching key. Ordered by descending score, the
+	 * key and the path. The path is only built if score and key are equal.
+	 */
+	private final class Candidate implements Comparable<Candidate> {
+
+		private final MenuElement element;
+
+		private final String key;
+
+		private final double score;
+
+		private String path;
+
+		Candidate(final MenuElement element, final String key,
+				final double score) {
+			super();
+			this.element = element;
+			this.key = key;
+			this.score = score;
+		}
+
+		String path() {
+			if (path == null) {
+				path = MenuMatch.path(root, element);
+			}
+			return path;
+		}
+
+		@Override
+		public int compareTo(final Candidate other) {
+			int result = Double.compare(other.score, score);
+			if (result == 0) {
+				result = key.compareTo(other.key);
+				if (result == 0) {
+					result = path().compareTo(other.path());
+				}
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -89,7 +89,10 @@ public class Project extends MenuElementContainer {
 	 *            ID to set.
 	 */
 	public final void setGroupId(@Nullable final String groupId) {
+		final String oldGroupId = this.groupId;
 		this.groupId = groupId;
+		invalidateContentHash();
+		fireChanged(oldGroupId, artifactId);
 	}
 
 	/**
@@ -108,7 +111,10 @@ public class Project extends MenuElementContainer {
 	 *            ID to set.
 	 */
 	public final void setArtifactId(@Nullable final String artifactId) {
+		final String oldArtifactId = this.artifactId;
 		this.artifactId = artifactId;
+		invalidateContentHash();
+		fireChanged(groupId, oldArtifactId);
 	}
 
 	/**
@@ -129,6 +135,37 @@ public class Project extends MenuElementContainer {
 	 */
 	public final void setCi(@Nullable final String ci) {
 		this.ci = ci;
+		invalidateContentHash();
+	}
+
+	/**
+	 * Adds the Maven coordinates and the CI server URL to the hash of the
+	 * container.
+	 * 
+	 * @return Hash.
+	 */
+	@Override
+	final long calculateContentHash() {
+		long hash = super.calculateContentHash();
+		hash = ContentHash.add(hash, groupId);
+		hash = ContentHash.add(hash, artifactId);
+		return ContentHash.add(hash, ci);
+	}
+
+	/**
+	 * Informs all ancestors that an attribute of this project changed.
+	 * 
+	 * @param oldGroupId
+	 *            Group ID before the change.
+	 * @param oldArtifactId
+	 *            Artifact ID before the change.
+	 */
+	private void fireChanged(final String oldGroupId, final String oldArtifactId) {
+		MenuElementContainer container = getParent();
+		while (container != null) {
+			container.projectChanged(this, oldGroupId, oldArtifactId);
+			container = container.getParent();
+		}
 	}
 
 	@Override
@@ -0,0 +1,364 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.NeverNull;
+import org.fuin.objects4j.common.Nullable;
+
+/**
+ * List of the direct children of a container sorted by a comparator (usually
+ * a {@link MenuOrdering}) together with a name-to-element and a
+ * title-to-element index. Each index entry refers to
+ * the element that comes first in list order, so lookups return the same
+ * element as a scan of the list would. Not thread safe.
+ */
+final class SortedElements {
+
+	private final Comparator<MenuElement> comparator;
+
+	private List<MenuElement> list;
+
+	private final Map<String, MenuElement> nameIndex;
+
+	private final Map<String, MenuElement> titleIndex;
+
+	/**
+	 * Creates an empty instance.
+	 *
+	 * @param comparator
+	 *            Defines the order of the list.
+	 */
+	SortedElements(@NotNull final Comparator<MenuElement> comparator) {
+		super();
+		this.comparator = comparator;
+		list = new ArrayList<MenuElement>();
+		nameIndex = new HashMap<String, MenuElement>();
+		titleIndex = new HashMap<String, MenuElement>();
+	}
+
+	/**
+	 * Creates an independent copy of another instance.
+	 *
+	 * @param other
+	 *            Instance to copy.
+	 */
+	SortedElements(@NotNull final SortedElements other) {
+		super();
+		comparator = other.comparator;
+		list = new ArrayList<MenuElement>(other.list);
+		nameIndex = new HashMap<String, MenuElement>(other.nameIndex);
+		titleIndex = new HashMap<String, MenuElement>(other.titleIndex);
+	}
+
+	/**
+	 * Creates an instance from a list in any order. Duplicates are not
+	 * checked. The sort is stable, so equal elements keep their order.
+	 *
+	 * @param elements
+	 *            Elements to sort and index.
+	 * @param comparator
+	 *            Defines the order of the list.
+	 */
+	SortedElements(@NotNull final List<MenuElement> elements,
+			@NotNull final Comparator<MenuElement> comparator) {
+		this(comparator);
+		list.addAll(elements);
+		Collections.sort(list, comparator);
+		for (final MenuElement element : list) {
+			index(element);
+		}
+	}
+
+	/**
+	 * Returns the sorted list.
+	 *
+	 * @return Internal list - Must not be changed by the caller.
+	 */
+	@NeverNull
+	List<MenuElement> list() {
+		return list;
+	}
+
+	/**
+	 * Locates an element by it's calculated name.
+	 *
+	 * @param name
+	 *            Name.
+	 *
+	 * @return Element or null.
+	 */
+	@Nullable
+	MenuElement findByName(@NotNull final String name) {
+		return nameIndex.get(name);
+	}
+
+	/**
+	 * Locates an element by it's title.
+	 *
+	 * @param title
+	 *            Title.
+	 *
+	 * @return Element or null.
+	 */
+	@Nullable
+	MenuElement findByTitle(@NotNull final String title) {
+		return titleIndex.get(title);
+	}
+
+	/**
+	 * Inserts an element at it's sorted position, after all elements that
+	 * compare equal to it.
+	 *
+	 * @param element
+	 *            Element to add.
+	 */
+	void add(@NotNull final MenuElement element) {
+		if (contains(element)) {
+			throw new IllegalArgumentException(
+					"The element is already contained in the list: " + element);
+		}
+		list.add(upperBound(element), element);
+		index(element);
+	}
+
+	/**
+	 * Adds a batch of elements. The complete batch is checked for duplicates
+	 * first, then sorted once and merged with the existing elements.
+	 *
+	 * @param elements
+	 *            Elements to add.
+	 *
+	 * @return Added elements in sorted order.
+	 */
+	@NeverNull
+	List<MenuElement> addAll(@NotNull final List<MenuElement> elements) {
+		final Set<MenuElement> batch = new HashSet<MenuElement>();
+		for (final MenuElement element : elements) {
+			if (contains(element) || !batch.add(element)) {
+				throw new IllegalArgumentException(
+						"The element is already contained in the list: "
+								+ element);
+			}
+		}
+		final List<MenuElement> sorted = new ArrayList<MenuElement>(elements);
+		Collections.sort(sorted, comparator);
+		list = merge(list, sorted);
+		for (final MenuElement element : sorted) {
+			index(element);
+		}
+		return sorted;
+	}
+
+	/**
+	 * Removes an element that is equal to the given one.
+	 *
+	 * @param element
+	 *            Element to remove.
+	 *
+	 * @return Removed instance.
+	 */
+	@NeverNull
+	MenuElement remove(@NotNull final MenuElement element) {
+		final int idx = indexOf(element);
+		if (idx < 0) {
+			throw new IllegalArgumentException(
+					"The element is not in the list: " + element);
+		}
+		final MenuElement removed = list.remove(idx);
+		unindex(removed);
+		return removed;
+	}
+
+	/**
+	 * Determines if an equal element is already in the list.
+	 *
+	 * @param element
+	 *            Element to check.
+	 *
+	 * @return TRUE if the list contains an equal element.
+	 */
+	boolean contains(@NotNull final MenuElement element) {
+		final MenuElement first = titleIndex.get(element.getTitle());
+		if (first == null) {
+			return false;
+		}
+		if (first.equals(element)) {
+			return true;
+		}
+		// Same title but different type - Only this rare case needs a search
+		return indexOf(element) >= 0;
+	}
+
+	/**
+	 * Returns the position of an equal element in the sorted list.
+	 *
+	 * @param element
+	 *            Element to find.
+	 *
+	 * @return Index or -1 if there is no equal element in the list.
+	 */
+	private int indexOf(final MenuElement element) {
+		for (int i = lowerBound(element); i < list.size(); i++) {
+			final MenuElement other = list.get(i);
+			if (comparator.compare(other, element) != 0) {
+				break;
+			}
+			if (other.equals(element)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the position of the first element that is not less than the
+	 * given one.
+	 *
+	 * @param element
+	 *            Element to compare with.
+	 *
+	 * @return Insertion point before all equal elements.
+	 */
+	private int lowerBound(final MenuElement element) {
+		int low = 0;
+		int high = list.size();
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (comparator.compare(list.get(mid), element) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the position of the first element that is greater than the
+	 * given one.
+	 *
+	 * @param element
+	 *            Element to compare with.
+	 *
+	 * @return Insertion point after all equal elements.
+	 */
+	private int upperBound(final MenuElement element) {
+		int low = 0;
+		int high = list.size();
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (comparator.compare(list.get(mid), element) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Merges two sorted lists. Elements of the first list come before equal
+	 * elements of the second one.
+	 *
+	 * @param first
+	 *            First sorted list.
+	 * @param second
+	 *            Second sorted list.
+	 *
+	 * @return New sorted list with all elements.
+	 */
+	private List<MenuElement> merge(final List<MenuElement> first,
+			final List<MenuElement> second) {
+		final List<MenuElement> result = new ArrayList<MenuElement>(
+				first.size() + second.size());
+		int i = 0;
+		int j = 0;
+		while ((i < first.size()) && (j < second.size())) {
+			if (comparator.compare(second.get(j), first.get(i)) < 0) {
+				result.add(second.get(j++));
+			} else {
+				result.add(first.get(i++));
+			}
+		}
+		while (i < first.size()) {
+			result.add(first.get(i++));
+		}
+		while (j < second.size()) {
+			result.add(second.get(j++));
+		}
+		return result;
+	}
+
+	/**
+	 * Adds an element that was just inserted into the list to the indexes.
+	 *
+	 * @param element
+	 *            Element to add.
+	 */
+	private void index(final MenuElement element) {
+		if (!titleIndex.containsKey(element.getTitle())) {
+			titleIndex.put(element.getTitle(), element);
+		}
+		final String calcName = element.getCalcName();
+		final MenuElement first = nameIndex.get(calcName);
+		if ((first == null) || (comparator.compare(element, first) < 0)) {
+			nameIndex.put(calcName, element);
+		}
+	}
+
+	/**
+	 * Removes an element that was just removed from the list from the
+	 * indexes. If another element with the same key exists, it takes over the
+	 * index entry.
+	 *
+	 * @param element
+	 *            Element to remove.
+	 */
+	private void unindex(final MenuElement element) {
+		if (titleIndex.get(element.getTitle()) == element) {
+			titleIndex.remove(element.getTitle());
+			for (final MenuElement other : list) {
+				if (other.getTitle().equals(element.getTitle())) {
+					titleIndex.put(other.getTitle(), other);
+					break;
+				}
+			}
+		}
+		final String calcName = element.getCalcName();
+		if (nameIndex.get(calcName) == element) {
+			nameIndex.remove(calcName);
+			for (final MenuElement other : list) {
+				if (other.getCalcName().equals(calcName)) {
+					nameIndex.put(calcName, other);
+					break;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.objects4j.common.NeverNull;
+
+/**
+ * Reads a menu XML document with a StAX pull parser. Creates the same object
+ * tree as unmarshalling {@link Menu}, {@link Project} and {@link Page} with
+ * JAXB, but without the cost of creating a JAXB context and without
+ * reflection. Instances are thread safe.
+ */
+public final class StaxMenuReader {
+
+	/** Name of the menu element. */
+	static final String MENU = "menu";
+
+	/** Name of the project element. */
+	static final String PROJECT = "project";
+
+	/** Name of the page element. */
+	static final String PAGE = "page";
+
+	/** Name of the title attribute. */
+	static final String TITLE = "title";
+
+	/** Name of the name attribute. */
+	static final String NAME = "name";
+
+	/** Name of the group ID attribute. */
+	static final String GROUP_ID = "groupId";
+
+	/** Name of the artifact ID attribute. */
+	static final String ARTIFACT_ID = "artifactId";
+
+	/** Name of the CI attribute. */
+	static final String CI = "ci";
+
+	private final XMLInputFactory factory;
+
+	/**
+	 * Default constructor.
+	 */
+	public StaxMenuReader() {
+		super();
+		factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+				Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+	}
+
+	/**
+	 * Reads a menu from a stream. The stream is not closed.
+	 * 
+	 * @param in
+	 *            Stream to read the XML document from.
+	 * 
+	 * @return New menu.
+	 * 
+	 * @throws XMLStreamException
+	 *             Error reading the stream or invalid document.
+	 */
+	@NeverNull
+	public Menu read(@NotNull final InputStream in)
+			throws XMLStreamException {
+		Contract.requireArgNotNull("in", in);
+		return read(factory.createXMLStreamReader(in));
+	}
+
+	/**
+	 * Reads a menu from a reader. The reader is not closed.
+	 * 
+	 * @param reader
+	 *            Reader to read the XML document from.
+	 * 
+	 * @return New menu.
+	 * 
+	 * @throws XMLStreamException
+	 *             Error reading the stream or invalid document.
+	 */
+	@NeverNull
+	public Menu read(@NotNull final Reader reader)
+			throws XMLStreamException {
+		Contract.requireArgNotNull("reader", reader);
+		return read(factory.createXMLStreamReader(reader));
+	}
+
+	private Menu read(final XMLStreamReader reader) throws XMLStreamException {
+		try {
+			reader.nextTag();
+			if (!MENU.equals(reader.getLocalName())) {
+				throw new XMLStreamException("Expected root element '" + MENU
+						+ "', but was: " + reader.getLocalName(),
+						reader.getLocation());
+			}
+			return (Menu) readElement(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Reads an element including all children. The reader must be positioned
+	 * on the start tag and will be positioned on the end tag afterwards.
+	 * 
+	 * @param reader
+	 *            Reader to use.
+	 * 
+	 * @return Element.
+	 * 
+	 * @throws XMLStreamException
+	 *             Error reading the stream or invalid document.
+	 */
+	private MenuElement readElement(final XMLStreamReader reader)
+			throws XMLStreamException {
+
+		final String localName = reader.getLocalName();
+		final String title = reader.getAttributeValue(null, TITLE);
+		if ((title == null) || (title.length() == 0)) {
+			throw new XMLStreamException("Attribute '" + TITLE
+					+ "' is required for element '" + localName + "'",
+					reader.getLocation());
+		}
+		final String name = reader.getAttributeValue(null, NAME);
+
+		final MenuElement element;
+		if (MENU.equals(localName)) {
+			element = new Menu(title, name);
+		} else if (PROJECT.equals(localName)) {
+			final Project project = new Project(title, name);
+			project.setGroupId(reader.getAttributeValue(null, GROUP_ID));
+			project.setArtifactId(reader.getAttributeValue(null, ARTIFACT_ID));
+			project.setCi(reader.getAttributeValue(null, CI));
+			element = project;
+		} else if (PAGE.equals(localName)) {
+			element = new Page(title, name);
+		} else {
+			throw new XMLStreamException("Unknown element: " + localName,
+					reader.getLocation());
+		}
+
+		List<MenuElement> children = null;
+		while (reader.hasNext()) {
+			final int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				break;
+			}
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				if (!(element instanceof MenuElementContainer)) {
+					throw new XMLStreamException("Element '" + localName
+							+ "' cannot have children", reader.getLocation());
+				}
+				if (children == null) {
+					children = new ArrayList<MenuElement>();
+				}
+				children.add(readElement(reader));
+			}
+		}
+		if (children != null) {
+			try {
+				((MenuElementContainer) element).addElements(children);
+			} catch (final IllegalArgumentException ex) {
+				throw new XMLStreamException(ex.getMessage(),
+						reader.getLocation(), ex);
+			}
+		}
+		return element;
+
+	}
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.fuin.units4j.Units4JUtils;
+
+/**
+ * Helper methods for tests.
+ */
+public final class MenuTestUtils {
+
+	private MenuTestUtils() {
+		throw new UnsupportedOperationException(
+				"It's not allowed to create an instance of a utility class");
+	}
+
+	// CHECKSTYLE:OFF
+
+	/**
+	 * Loads the example menu with JAXB.
+	 * 
+	 * @return Example menu.
+	 */
+	public static Menu loadExample() {
+		try {
+			final String xml = IOUtils.toString(MenuTestUtils.class
+					.getResourceAsStream("/example.xml"));
+			return Units4JUtils.unmarshal(xml, Menu.class, Project.class,
+					Page.class);
+		} catch (final IOException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	/**
+	 * Verifies that two trees have the same structure and content.
+	 * 
+	 * @param expected
+	 *            Expected element.
+	 * @param actual
+	 *            Actual element.
+	 */
+	public static void assertSameTree(final MenuElement expected,
+			final MenuElement actual) {
+		final String path = expected.getTitle();
+		assertThat(actual).as(path).isNotNull();
+		assertThat(actual.getClass()).as(path).isEqualTo(expected.getClass());
+		assertThat(actual.getTitle()).as(path).isEqualTo(expected.getTitle());
+		assertThat(actual.getName()).as(path).isEqualTo(expected.getName());
+		if (expected instanceof Project) {
+			final Project exp = (Project) expected;
+			final Project act = (Project) actual;
+			assertThat(act.getGroupId()).as(path).isEqualTo(exp.getGroupId());
+			assertThat(act.getArtifactId()).as(path).isEqualTo(
+					exp.getArtifactId());
+			assertThat(act.getCi()).as(path).isEqualTo(exp.getCi());
+		}
+		if (expected instanceof MenuElementContainer) {
+			final List<MenuElement> exp = ((MenuElementContainer) expected)
+					.getElements();
+			final List<MenuElement> act = ((MenuElementContainer) actual)
+					.getElements();
+			if (exp == null || exp.isEmpty()) {
+				assertThat(act == null || act.isEmpty()).as(path).isTrue();
+			} else {
+				assertThat(act).as(path).isNotNull();
+				assertThat(act.size()).as(path).isEqualTo(exp.size());
+				for (int i = 0; i < exp.size(); i++) {
+					assertSameTree(exp.get(i), act.get(i));
+				}
+			}
+		}
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.assertSameTree;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link BinaryMenuReader} and {@link BinaryMenuWriter}.
+ */
+public class TestBinaryMenuReader {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testWriteAndReadExample() throws Exception {
+
+		// PREPARE
+		final Menu expected = loadExample();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// TEST
+		new BinaryMenuWriter().write(expected, out);
+		final Menu actual = new BinaryMenuReader().read(new ByteArrayInputStream(out.toByteArray()));
+
+		// VERIFY
+		assertSameTree(expected, actual);
+		assertThat(actual.findProject("org.fuin", "kickstart4j")).isNotNull();
+
+	}
+
+	@Test
+	public final void testStringsAreDeduplicated() throws Exception {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		for (int i = 0; i < 100; i++) {
+			final Project project = new Project("Project " + i);
+			project.setGroupId("org.fuin.a.very.long.group.id");
+			project.setCi("https://fuin-org.ci.cloudbees.com/job/");
+			menu.addElement(project);
+		}
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// TEST
+		new BinaryMenuWriter().write(menu, out);
+
+		// VERIFY
+		final String content = new String(out.toByteArray(), "ISO-8859-1");
+		assertThat(content.indexOf("org.fuin.a.very.long.group.id")).isEqualTo(
+				content.lastIndexOf("org.fuin.a.very.long.group.id"));
+		assertSameTree(menu, new BinaryMenuReader().read(new ByteArrayInputStream(out.toByteArray())));
+
+	}
+
+	@Test(expected = IOException.class)
+	public final void testReadInvalidData() throws Exception {
+		new BinaryMenuReader().read(new ByteArrayInputStream("<menu title=\"A\"/>".getBytes("UTF-8")));
+	}
+
+	@Test
+	public final void testReadTruncatedData() throws Exception {
+		final byte[] bytes = write(createMenu());
+		assertInvalid(Arrays.copyOf(bytes, bytes.length - 3), null);
+	}
+
+	@Test
+	public final void testReadCorruptHeaderCounts() throws Exception {
+		final byte[] bytes = write(createMenu());
+		for (final int pos : new int[] { 8, 12, 16 }) {
+			final byte[] corrupt = bytes.clone();
+			setInt(corrupt, pos, 0x7ffffff0);
+			assertInvalid(corrupt, null);
+		}
+	}
+
+	@Test
+	public final void testReadInvalidStringOffset() throws Exception {
+		final byte[] bytes = write(createMenu());
+		setInt(bytes, BinaryMenuFormat.HEADER_SIZE + 4, getInt(bytes, 16) + 1);
+		assertInvalid(bytes, "Invalid offset of string 1");
+	}
+
+	@Test
+	public final void testReadInvalidStringIndex() throws Exception {
+		final byte[] bytes = write(createMenu());
+		setField(bytes, 1, BinaryMenuFormat.TITLE, 9999);
+		assertInvalid(bytes, "Invalid string index: 9999");
+	}
+
+	@Test
+	public final void testReadChildRangeOutOfBounds() throws Exception {
+		final byte[] bytes = write(createMenu());
+		setField(bytes, 0, BinaryMenuFormat.CHILD_COUNT, 99);
+		assertInvalid(bytes, "Invalid children of node 0");
+	}
+
+	@Test
+	public final void testReadPageWithChildren() throws Exception {
+		final byte[] bytes = write(createMenu());
+		// Node 1 is page "A" and node 2 is menu "B"
+		setField(bytes, 1, BinaryMenuFormat.CHILD_COUNT, 1);
+		setField(bytes, 1, BinaryMenuFormat.FIRST_CHILD, 3);
+		assertInvalid(bytes, "Node 1 of type PAGE cannot have children");
+	}
+
+	@Test
+	public final void testReadCycle() throws Exception {
+		final byte[] bytes = write(createMenu());
+		// Node 2 is menu "B" with page "C" at node 3
+		setField(bytes, 2, BinaryMenuFormat.FIRST_CHILD, 2);
+		assertInvalid(bytes, "Invalid children of node 2");
+		setField(bytes, 2, BinaryMenuFormat.FIRST_CHILD, 0);
+		assertInvalid(bytes, "Invalid children of node 2");
+	}
+
+	@Test
+	public final void testReadInvalidChildOrder() throws Exception {
+		final byte[] bytes = write(createMenu());
+		// The name order table directly follows the four nodes. Node 3 is
+		// page "C", a child of node 2 and not of the root.
+		setField(bytes, 4, 1, 3);
+		assertInvalid(bytes, "Invalid entry in name order at position 1: 3");
+	}
+
+	@Test
+	public final void testReadUnreachableNode() throws Exception {
+		final byte[] bytes = write(createMenu());
+		setField(bytes, 2, BinaryMenuFormat.CHILD_COUNT, 0);
+		assertInvalid(bytes, "Nodes are not part of the tree: 3..3");
+	}
+
+	private static Menu createMenu() {
+		final Menu menu = new Menu("Menu");
+		menu.addElement(new Page("A"));
+		final Menu sub = new Menu("B");
+		sub.addElement(new Page("C"));
+		menu.addElement(sub);
+		return menu;
+	}
+
+	private static byte[] write(final Menu menu) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BinaryMenuWriter().write(menu, out);
+		return out.toByteArray();
+	}
+
+	private static void assertInvalid(final byte[] bytes, final String message) {
+		try {
+			new BinaryMenuReader().read(new ByteArrayInputStream(bytes));
+			org.junit.Assert.fail();
+		} catch (final IOException ex) {
+			if (message != null) {
+				assertThat(ex.getMessage()).contains(message);
+			}
+		}
+	}
+
+	private static void setField(final byte[] bytes, final int node, final int field, final int value) {
+		final int stringCount = getInt(bytes, 8);
+		final int dataLength = getInt(bytes, 16);
+		final int nodeTable = BinaryMenuFormat.HEADER_SIZE + (stringCount + 1) * 4 + dataLength;
+		setInt(bytes, nodeTable + (node * BinaryMenuFormat.NODE_INTS + field) * 4, value);
+	}
+
+	private static int getInt(final byte[] bytes, final int pos) {
+		return ByteBuffer.wrap(bytes).getInt(pos);
+	}
+
+	private static void setInt(final byte[] bytes, final int pos, final int value) {
+		ByteBuffer.wrap(bytes).putInt(pos, value);
+	}
+
+	// CHECKSTYLE:ON
+
+}
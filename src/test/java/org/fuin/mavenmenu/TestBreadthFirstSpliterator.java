@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link BreadthFirstSpliterator}.
+ */
+public class TestBreadthFirstSpliterator {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testTraverse() {
+
+		// PREPARE
+		final BreadthFirstSpliterator testee = new BreadthFirstSpliterator(loadExample());
+		final List<String> titles = new ArrayList<String>();
+
+		// TEST
+		testee.forEachRemaining(entry -> titles.add(entry.getElement().getTitle()));
+
+		// VERIFY
+		assertThat(titles).containsExactly("A", "SrcMixins4J", "Kickstart4J", "More", "Examples", "Parent", "Background", "Examples",
+				"Feature", "Plugin", "Repository");
+
+	}
+
+	@Test
+	public final void testSplitWhileTraversing() {
+
+		// PREPARE
+		final BreadthFirstSpliterator testee = new BreadthFirstSpliterator(loadExample());
+		final List<String> titles = new ArrayList<String>();
+
+		// TEST
+		collect(testee, titles);
+
+		// VERIFY
+		assertThat(titles).containsOnly("A", "SrcMixins4J", "Kickstart4J", "More", "Examples", "Parent", "Background", "Examples",
+				"Feature", "Plugin", "Repository");
+		assertThat(titles).hasSize(11);
+
+	}
+
+	/**
+	 * Splits as often as possible and visits one element between the splits.
+	 * The prefix returned by a split is collected before the rest.
+	 */
+	private static void collect(final Spliterator<MenuTreeEntry> spliterator, final List<String> titles) {
+		while (true) {
+			final Spliterator<MenuTreeEntry> prefix = spliterator.trySplit();
+			if (prefix != null) {
+				collect(prefix, titles);
+			}
+			if (!spliterator.tryAdvance(entry -> titles.add(entry.getElement().getTitle()))) {
+				return;
+			}
+		}
+	}
+
+	// CHECKSTYLE:ON
+
+}
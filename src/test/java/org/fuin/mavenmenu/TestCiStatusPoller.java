@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test for {@link CiStatusPoller}.
+ */
+public class TestCiStatusPoller {
+
+	// CHECKSTYLE:OFF
+
+	private HttpServer server;
+
+	private String baseUrl;
+
+	private AtomicInteger requests;
+
+	private AtomicInteger notModified;
+
+	@Before
+	public final void setUp() throws IOException {
+		requests = new AtomicInteger();
+		notModified = new AtomicInteger();
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/job/", exchange -> {
+			requests.incrementAndGet();
+			final String path = exchange.getRequestURI().getPath();
+			if (path.startsWith("/job/ok/")) {
+				if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+					notModified.incrementAndGet();
+					exchange.sendResponseHeaders(304, -1);
+					exchange.close();
+				} else {
+					exchange.getResponseHeaders().add("ETag", "\"v1\"");
+					send(exchange, 200, "{\"building\":false,\"result\":\"SUCCESS\"}");
+				}
+			} else if (path.startsWith("/job/failed/")) {
+				send(exchange, 200, "{\"building\":false,\"result\":\"FAILURE\"}");
+			} else if (path.startsWith("/job/running/")) {
+				send(exchange, 200, "{\"building\":true,\"result\":null}");
+			} else {
+				send(exchange, 500, "Error");
+			}
+		});
+		server.start();
+		baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/job/";
+	}
+
+	@After
+	public final void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	public final void testPoll() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Project ok = project(menu, "Ok", "ok/");
+		final Project okToo = project(menu, "Ok Too", "ok/");
+		final Project failed = project(menu, "Failed", "failed");
+		final Project running = project(menu, "Running", "running/");
+		final Project broken = project(menu, "Broken", "broken/");
+		menu.addElement(new Project("No CI"));
+		final CiStatusPoller testee = new CiStatusPoller(2, 60000);
+		try {
+
+			// TEST
+			final Map<Project, CiStatus> result = testee.poll(menu);
+
+			// VERIFY
+			assertThat(result).hasSize(5);
+			assertThat(result.get(ok).getState()).isEqualTo(CiState.SUCCESS);
+			assertThat(result.get(ok).getEtag()).isEqualTo("\"v1\"");
+			assertThat(result.get(okToo)).isSameAs(result.get(ok));
+			assertThat(result.get(failed).getState()).isEqualTo(CiState.FAILURE);
+			assertThat(result.get(running).getState()).isEqualTo(CiState.BUILDING);
+			assertThat(result.get(broken).getState()).isEqualTo(CiState.UNKNOWN);
+			assertThat(result.get(broken).getError()).isEqualTo("HTTP 500");
+			assertThat(requests.get()).isEqualTo(4);
+			assertThat(testee.getStatus(ok)).isSameAs(result.get(ok));
+
+		} finally {
+			testee.close();
+		}
+
+	}
+
+	@Test
+	public final void testCacheAndConditionalRequest() throws Exception {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Project ok = project(menu, "Ok", "ok/");
+		final AtomicLong now = new AtomicLong(1000);
+		final CiStatusPoller cached = new CiStatusPoller(1, 60000);
+		final CiStatusPoller expired = new CiStatusPoller(1, 60000, 10000, now::get);
+		try {
+
+			// TEST & VERIFY
+			cached.poll(menu);
+			cached.poll(menu);
+			assertThat(requests.get()).isEqualTo(1);
+
+			expired.poll(menu);
+			now.addAndGet(60000);
+			final CiStatus status = expired.poll(menu).get(ok);
+			assertThat(requests.get()).isEqualTo(3);
+			assertThat(notModified.get()).isEqualTo(1);
+			assertThat(status.getState()).isEqualTo(CiState.SUCCESS);
+
+		} finally {
+			cached.close();
+			expired.close();
+		}
+
+	}
+
+	@Test
+	public final void testEvictExpiredEntries() throws Exception {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Menu menuA = new Menu("A");
+		final Project ok = project(menuA, "Ok", "ok/");
+		menu.addElement(menuA);
+		final Menu menuB = new Menu("B");
+		final Project failed = project(menuB, "Failed", "failed");
+		menu.addElement(menuB);
+		final AtomicLong now = new AtomicLong(1000);
+		final CiStatusPoller testee = new CiStatusPoller(1, 60000, 10000, now::get);
+		try {
+
+			// TEST
+			testee.poll(menuA);
+			testee.poll(menuB);
+			testee.poll(menuA);
+
+			// VERIFY
+			assertThat(requests.get()).isEqualTo(2);
+			assertThat(testee.getStatus(ok)).isNotNull();
+			assertThat(testee.getStatus(failed)).isNotNull();
+
+			// TEST
+			now.addAndGet(60000);
+			testee.poll(menuB);
+
+			// VERIFY
+			assertThat(requests.get()).isEqualTo(3);
+			assertThat(testee.getStatus(ok)).isNull();
+			assertThat(testee.getStatus(failed)).isNotNull();
+
+		} finally {
+			testee.close();
+		}
+
+	}
+
+	@Test
+	public final void testNotHttp() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Project project = new Project("File");
+		project.setCi("file:///tmp/job/");
+		menu.addElement(project);
+		final CiStatusPoller testee = new CiStatusPoller(1, 60000);
+		try {
+
+			// TEST
+			final CiStatus status = testee.poll(menu).get(project);
+
+			// VERIFY
+			assertThat(status.getState()).isEqualTo(CiState.UNKNOWN);
+			assertThat(status.getError()).contains("Not an HTTP URL");
+			assertThat(testee.getStatus(project)).isSameAs(status);
+
+		} finally {
+			testee.close();
+		}
+
+	}
+
+	@Test
+	public final void testPollAfterClose() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		project(menu, "Ok", "ok/");
+		final CiStatusPoller testee = new CiStatusPoller(1, 60000);
+		testee.close();
+
+		// TEST & VERIFY
+		for (int i = 0; i < 2; i++) {
+			try {
+				testee.poll(menu);
+				org.junit.Assert.fail();
+			} catch (final IllegalStateException ex) {
+				assertThat(ex.getMessage()).contains("closed");
+			}
+		}
+		assertThat(requests.get()).isEqualTo(0);
+
+	}
+
+	@Test
+	public final void testInvalidArguments() {
+		try {
+			new CiStatusPoller(1, 0);
+			org.junit.Assert.fail();
+		} catch (final IllegalArgumentException ex) {
+			assertThat(ex.getMessage()).contains("time to live");
+		}
+		try {
+			new CiStatusPoller(1, 1000, 0);
+			org.junit.Assert.fail();
+		} catch (final IllegalArgumentException ex) {
+			assertThat(ex.getMessage()).contains("timeout");
+		}
+	}
+
+	@Test
+	public final void testParse() {
+		assertThat(CiStatusPoller.parse("{\"result\":\"UNSTABLE\"}")).isEqualTo(CiState.UNSTABLE);
+		assertThat(CiStatusPoller.parse("{\"result\" : \"ABORTED\", \"building\" : false}")).isEqualTo(CiState.ABORTED);
+		assertThat(CiStatusPoller.parse("{\"result\":\"NOT_BUILT\"}")).isEqualTo(CiState.UNKNOWN);
+		assertThat(CiStatusPoller.parse("{}")).isEqualTo(CiState.UNKNOWN);
+	}
+
+	private Project project(final Menu menu, final String title, final String job) {
+		final Project project = new Project(title);
+		project.setCi(baseUrl + job);
+		menu.addElement(project);
+		return project;
+	}
+
+	private static void send(final HttpExchange exchange, final int code, final String body) throws IOException {
+		final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(code, bytes.length);
+		final OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.close();
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link DepthFirstSpliterator}.
+ */
+public class TestDepthFirstSpliterator {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testTraverse() {
+
+		// PREPARE
+		final DepthFirstSpliterator testee = new DepthFirstSpliterator(loadExample());
+		final List<String> titles = new ArrayList<String>();
+
+		// TEST
+		testee.forEachRemaining(entry -> titles.add(entry.getElement().getTitle()));
+
+		// VERIFY
+		assertThat(titles).containsExactly("A", "Kickstart4J", "Background", "Examples", "More", "SrcMixins4J", "Examples", "Parent",
+				"Feature", "Plugin", "Repository");
+
+	}
+
+	@Test
+	public final void testSplitWhileTraversing() {
+
+		// PREPARE
+		final DepthFirstSpliterator testee = new DepthFirstSpliterator(loadExample());
+		final List<String> titles = new ArrayList<String>();
+
+		// TEST
+		collect(testee, titles);
+
+		// VERIFY
+		assertThat(titles).containsExactly("A", "Kickstart4J", "Background", "Examples", "More", "SrcMixins4J", "Examples", "Parent",
+				"Feature", "Plugin", "Repository");
+
+	}
+
+	@Test
+	public final void testSplitLargeStartedSubtree() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Menu big = new Menu("Big");
+		for (int i = 0; i < 10; i++) {
+			final Menu sub = new Menu("Sub " + i);
+			for (int j = 0; j < 10; j++) {
+				sub.addElement(new Page("Page " + j));
+			}
+			big.addElement(sub);
+		}
+		menu.addElement(big);
+		menu.addElement(new Page("X"));
+		menu.addElement(new Page("Y"));
+		final DepthFirstSpliterator testee = new DepthFirstSpliterator(menu);
+		testee.tryAdvance(entry -> { });
+
+		// TEST
+		final Spliterator<MenuTreeEntry> prefix = testee.trySplit();
+		final Spliterator<MenuTreeEntry> started = prefix.trySplit();
+		final Spliterator<MenuTreeEntry> part = started.trySplit();
+
+		// VERIFY
+		assertThat(count(testee)).isEqualTo(1);
+		assertThat(count(prefix)).isEqualTo(1);
+		assertThat(count(part)).isEqualTo(55);
+		assertThat(count(started)).isEqualTo(55);
+
+	}
+
+	private static int count(final Spliterator<MenuTreeEntry> spliterator) {
+		final int[] count = new int[1];
+		spliterator.forEachRemaining(entry -> count[0]++);
+		return count[0];
+	}
+
+	/**
+	 * Splits as often as possible and visits one element between the splits.
+	 * The prefix returned by a split is collected before the rest.
+	 */
+	private static void collect(final Spliterator<MenuTreeEntry> spliterator, final List<String> titles) {
+		while (true) {
+			final Spliterator<MenuTreeEntry> prefix = spliterator.trySplit();
+			if (prefix != null) {
+				collect(prefix, titles);
+			}
+			if (!spliterator.tryAdvance(entry -> titles.add(entry.getElement().getTitle()))) {
+				return;
+			}
+		}
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link FrozenMenu}.
+ */
+public class TestFrozenMenu {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testFreezeExample() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+
+		// TEST
+		final FrozenMenu testee = menu.freeze();
+
+		// VERIFY
+		assertThat(testee.size()).isEqualTo(12);
+		assertThat(testee.getParent(FrozenMenu.ROOT)).isEqualTo(FrozenMenu.NOT_FOUND);
+		assertSame(menu, testee, FrozenMenu.ROOT);
+
+	}
+
+	@Test
+	public final void testLookup() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+		final FrozenMenu testee = menu.freeze();
+
+		// TEST & VERIFY
+		final int a = testee.findByName(FrozenMenu.ROOT, "a");
+		assertThat(testee.getTitle(a)).isEqualTo("A");
+		assertThat(testee.findByTitle(FrozenMenu.ROOT, "A")).isEqualTo(a);
+		final int kickstart = testee.findByName(a, "kickstart-4-j");
+		assertThat(testee.getType(kickstart)).isEqualTo(MenuElementType.PROJECT);
+		assertThat(testee.getArtifactId(kickstart)).isEqualTo("kickstart4j");
+		assertThat(testee.getParent(kickstart)).isEqualTo(a);
+		assertThat(testee.findByName(FrozenMenu.ROOT, "kickstart-4-j")).isEqualTo(FrozenMenu.NOT_FOUND);
+
+		final int examples = testee.findByPath("/a/kickstart-4-j/examples");
+		assertThat(testee.getType(examples)).isEqualTo(MenuElementType.PAGE);
+		assertThat(testee.getParent(examples)).isEqualTo(kickstart);
+		assertThat(testee.findByPath("src-mixins-4-j/examples")).isNotEqualTo(examples);
+		assertThat(testee.findByPath("/")).isEqualTo(FrozenMenu.ROOT);
+		assertThat(testee.findByPath("/a/unknown")).isEqualTo(FrozenMenu.NOT_FOUND);
+
+	}
+
+	@Test
+	public final void testSnapshotIsIndependent() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+		final FrozenMenu testee = menu.freeze();
+
+		// TEST
+		menu.addElement(new Page("New"));
+
+		// VERIFY
+		assertThat(testee.findByName(FrozenMenu.ROOT, "new")).isEqualTo(FrozenMenu.NOT_FOUND);
+		assertThat(testee.getChildCount(FrozenMenu.ROOT)).isEqualTo(2);
+
+	}
+
+	private static void assertSame(final MenuElement expected, final FrozenMenu frozen, final int node) {
+		assertThat(frozen.getType(node)).isEqualTo(MenuElementType.of(expected));
+		assertThat(frozen.getTitle(node)).isEqualTo(expected.getTitle());
+		assertThat(frozen.getName(node)).isEqualTo(expected.getName());
+		assertThat(frozen.getCalcName(node)).isEqualTo(expected.getCalcName());
+		if (expected instanceof Project) {
+			final Project project = (Project) expected;
+			assertThat(frozen.getGroupId(node)).isEqualTo(project.getGroupId());
+			assertThat(frozen.getArtifactId(node)).isEqualTo(project.getArtifactId());
+			assertThat(frozen.getCi(node)).isEqualTo(project.getCi());
+		}
+		int count = 0;
+		if (expected instanceof MenuElementContainer) {
+			final List<MenuElement> children = ((MenuElementContainer) expected).getElements();
+			if (children != null) {
+				count = children.size();
+				for (int i = 0; i < count; i++) {
+					final int child = frozen.getChild(node, i);
+					assertThat(frozen.getParent(child)).isEqualTo(node);
+					assertSame(children.get(i), frozen, child);
+				}
+			}
+		}
+		assertThat(frozen.getChildCount(node)).isEqualTo(count);
+	}
+
+	// CHECKSTYLE:ON
+
+}
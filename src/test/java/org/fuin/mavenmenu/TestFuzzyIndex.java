@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link FuzzyIndex}.
+ */
+public class TestFuzzyIndex {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testTrigrams() {
+
+		assertThat(FuzzyIndex.trigrams("ab")).isEqualTo(
+				new String[] { "  a", " ab", "ab " });
+		assertThat(FuzzyIndex.trigrams("aaaa")).isEqualTo(
+				new String[] { "  a", " aa", "aa ", "aaa" });
+
+	}
+
+	@Test
+	public final void testDice() {
+
+		final String[] abc = new String[] { "a", "b", "c" };
+		final String[] bcd = new String[] { "b", "c", "d" };
+		final String[] xyz = new String[] { "x", "y", "z" };
+
+		assertThat(FuzzyIndex.dice(abc, abc)).isEqualTo(1.0);
+		assertThat(FuzzyIndex.dice(abc, xyz)).isEqualTo(0.0);
+		assertThat(FuzzyIndex.dice(abc, bcd)).isEqualTo(4.0 / 6.0);
+		assertThat(FuzzyIndex.dice(new String[0], new String[0])).isEqualTo(0.0);
+
+	}
+
+	@Test
+	public final void testRequired() {
+
+		assertThat(FuzzyIndex.required(1.0, 12)).isEqualTo(12);
+		assertThat(FuzzyIndex.required(0.5, 12)).isEqualTo(4);
+		assertThat(FuzzyIndex.required(0.3, 12)).isEqualTo(3);
+		assertThat(FuzzyIndex.required(0.3, 1)).isEqualTo(1);
+		assertThat(FuzzyIndex.dice(new String[] { "a", "b", "c", "d" },
+				new String[] { "a", "b", "c", "d" })).isEqualTo(1.0);
+
+	}
+
+	@Test
+	public final void testTexts() {
+
+		// PREPARE
+		final Project project = new Project("Kickstart4J");
+		project.setGroupId("org.fuin");
+		project.setArtifactId("kickstart4j");
+
+		// TEST & VERIFY
+		assertThat(FuzzyIndex.texts(project)).isEqualTo(
+				new String[] { "kickstart-4-j", "kickstart4j", "org.fuin" });
+		assertThat(FuzzyIndex.texts(new Page("More"))).isEqualTo(
+				new String[] { "more" });
+
+	}
+
+	@Test
+	public final void testAddUpdateRemove() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Project project = new Project("Project");
+		project.addElement(new Page("Page"));
+		final FuzzyIndex testee = new FuzzyIndex(menu);
+		assertThat(testee.size()).isEqualTo(0);
+
+		// TEST
+		testee.add(project);
+
+		// VERIFY
+		assertThat(testee.search("pag", 10)).hasSize(1);
+		assertThat(testee.search("projetc", 10)).hasSize(1);
+
+		// TEST
+		project.setArtifactId("kickstart4j");
+		testee.update(project);
+
+		// VERIFY
+		final List<MenuMatch> matches = testee.search("kickstart", 10);
+		assertThat(matches).hasSize(1);
+		assertThat(matches.get(0).getKey()).isEqualTo("kickstart4j");
+
+		// TEST
+		testee.remove(project);
+
+		// VERIFY
+		assertThat(testee.size()).isEqualTo(0);
+		assertThat(testee.search("pag", 10)).isEmpty();
+
+	}
+
+	// CHECKSTYLE:ON
+
+}
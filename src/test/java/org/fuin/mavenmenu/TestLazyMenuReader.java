@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.assertSameTree;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+/**
+ * Test for {@link LazyMenuReader}.
+ */
+public class TestLazyMenuReader {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testReadFile() throws Exception {
+
+		// PREPARE
+		final File file = File.createTempFile("menu", ".xml");
+		try {
+			final InputStream in = this.getClass().getResourceAsStream("/example.xml");
+			try {
+				FileUtils.copyInputStreamToFile(in, file);
+			} finally {
+				in.close();
+			}
+
+			// TEST
+			final Menu menu = new LazyMenuReader().read(file);
+
+			// VERIFY
+			assertSameTree(loadExample(), menu);
+
+		} finally {
+			file.delete();
+		}
+
+	}
+
+	@Test
+	public final void testLoadedOnDemand() throws Exception {
+
+		// PREPARE
+		final byte[] bytes = IOUtils.toByteArray(this.getClass().getResourceAsStream("/example.xml"));
+
+		// TEST
+		final Menu menu = new LazyMenuReader().read(ByteBuffer.wrap(bytes));
+
+		// VERIFY
+		assertThat(menu.getTitle()).isEqualTo("Menu");
+		assertThat(menu.getName()).isEqualTo("root");
+		assertThat(menu.isLoaded()).isFalse();
+
+		final Menu menuA = menu.findByTitle("A");
+		assertThat(menu.isLoaded()).isTrue();
+		assertThat(menuA.isLoaded()).isFalse();
+		final Menu menuSrcMixins4J = menu.findByTitle("SrcMixins4J");
+		assertThat(menuSrcMixins4J.isLoaded()).isFalse();
+
+		final Page examples = menu.findByPath("/a/kickstart-4-j/examples");
+		assertThat(examples).isNotNull();
+		assertThat(menuA.isLoaded()).isTrue();
+		assertThat(menuSrcMixins4J.isLoaded()).isFalse();
+
+	}
+
+	@Test
+	public final void testReadSpecialContent() throws Exception {
+
+		// PREPARE
+		final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<!-- Comment <menu> -->\n"
+				+ "<menu title=\"R&amp;D\" name='r'>\n"
+				+ "  <!-- <page title=\"Hidden\"/> -->\n"
+				+ "  <project title=\"A &gt; B\" ci=\"http://x/?a=1&amp;b=2\">\n"
+				+ "    <page title=\"\u00c4pfel\"/>\n"
+				+ "  </project>\n"
+				+ "  <menu title='Empty'></menu>\n"
+				+ "</menu>\n";
+
+		// TEST
+		final Menu menu = new LazyMenuReader().read(ByteBuffer.wrap(xml.getBytes("UTF-8")));
+
+		// VERIFY
+		assertThat(menu.getTitle()).isEqualTo("R&D");
+		assertThat(menu.getName()).isEqualTo("r");
+		assertThat(menu.getElements()).hasSize(2);
+		final Project project = menu.findByTitle("A > B");
+		assertThat(project.getCi()).isEqualTo("http://x/?a=1&b=2");
+		assertThat(project.getElements()).containsOnly(new Page("\u00c4pfel"));
+		final Menu empty = menu.findByTitle("Empty");
+		assertThat(empty.getElements()).isNull();
+
+	}
+
+	@Test
+	public final void testWriteLazyMenu() throws Exception {
+
+		// PREPARE
+		final byte[] bytes = IOUtils.toByteArray(this.getClass().getResourceAsStream("/example.xml"));
+		final Menu menu = new LazyMenuReader().read(ByteBuffer.wrap(bytes));
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// TEST
+		MenuXml.write(menu, out);
+
+		// VERIFY
+		final Menu copy = MenuXml.read(new ByteArrayInputStream(out.toByteArray()));
+		assertSameTree(loadExample(), copy);
+
+	}
+
+	@Test
+	public final void testEndTagDoesNotMatch() throws Exception {
+
+		// PREPARE
+		final Menu menu = read("<menu title=\"R\"><menu title=\"A\"><page title=\"B\"/></project></menu>");
+
+		// TEST & VERIFY
+		try {
+			menu.getElements();
+			org.junit.Assert.fail();
+		} catch (final IllegalStateException ex) {
+			assertThat(ex.getMessage()).contains("End tag 'project' does not match start tag 'menu'");
+		}
+
+	}
+
+	@Test
+	public final void testRootEndTagDoesNotMatch() throws Exception {
+		try {
+			read("<menu title=\"R\"><page title=\"A\"/></project>");
+			org.junit.Assert.fail();
+		} catch (final IllegalStateException ex) {
+			assertThat(ex.getMessage()).contains("End tag 'project' does not match start tag 'menu'");
+		}
+	}
+
+	@Test
+	public final void testPageWithChildren() throws Exception {
+
+		// PREPARE
+		final Menu menu = read("<menu title=\"R\"><page title=\"A\"><!-- ok --><page title=\"B\"/></page></menu>");
+
+		// TEST & VERIFY
+		try {
+			menu.getElements();
+			org.junit.Assert.fail();
+		} catch (final IllegalStateException ex) {
+			assertThat(ex.getMessage()).contains("Element 'page' cannot have children");
+		}
+
+	}
+
+	private static Menu read(final String xml) throws Exception {
+		return new LazyMenuReader().read(ByteBuffer.wrap(xml.getBytes("UTF-8")));
+	}
+
+	// CHECKSTYLE:ON
+
+}
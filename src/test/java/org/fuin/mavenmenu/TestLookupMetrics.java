@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link LookupMetrics}.
+ */
+public class TestLookupMetrics {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testRecord() {
+
+		// PREPARE
+		final LookupMetrics testee = new LookupMetrics();
+
+		// TEST
+		testee.record(true, 100);
+		testee.record(true, 200);
+		testee.record(true, 300);
+		testee.record(false, 400);
+
+		// VERIFY
+		assertThat(testee.getCount()).isEqualTo(4);
+		assertThat(testee.getHits()).isEqualTo(3);
+		assertThat(testee.getMisses()).isEqualTo(1);
+		assertThat(testee.getHitRate()).isEqualTo(0.75);
+		assertThat(testee.getMissRate()).isEqualTo(0.25);
+		assertThat(testee.getTotalNanos()).isEqualTo(1000);
+		assertThat(testee.getMeanNanos()).isEqualTo(250.0);
+		final long[] histogram = testee.getHistogram();
+		assertThat(histogram.length).isEqualTo(LookupMetrics.BUCKETS);
+		assertThat(histogram[7]).isEqualTo(1);
+		assertThat(histogram[8]).isEqualTo(1);
+		assertThat(histogram[9]).isEqualTo(2);
+
+	}
+
+	@Test
+	public final void testEmpty() {
+
+		// PREPARE
+		final LookupMetrics testee = new LookupMetrics();
+
+		// TEST & VERIFY
+		assertThat(testee.getCount()).isEqualTo(0);
+		assertThat(testee.getHitRate()).isEqualTo(0.0);
+		assertThat(testee.getMissRate()).isEqualTo(0.0);
+		assertThat(testee.getMeanNanos()).isEqualTo(0.0);
+		assertThat(testee.getPercentileNanos(0.5)).isEqualTo(0);
+
+	}
+
+	@Test
+	public final void testBucket() {
+
+		assertThat(LookupMetrics.bucket(-1)).isEqualTo(0);
+		assertThat(LookupMetrics.bucket(0)).isEqualTo(0);
+		assertThat(LookupMetrics.bucket(1)).isEqualTo(1);
+		assertThat(LookupMetrics.bucket(2)).isEqualTo(2);
+		assertThat(LookupMetrics.bucket(3)).isEqualTo(2);
+		assertThat(LookupMetrics.bucket(1024)).isEqualTo(11);
+		assertThat(LookupMetrics.bucket(Long.MAX_VALUE)).isEqualTo(
+				LookupMetrics.BUCKETS - 1);
+
+		for (int i = 1; i < LookupMetrics.BUCKETS - 1; i++) {
+			final long limit = LookupMetrics.getBucketLimit(i);
+			assertThat(LookupMetrics.bucket(limit - 1)).isEqualTo(i);
+			assertThat(LookupMetrics.bucket(limit)).isEqualTo(i + 1);
+		}
+		assertThat(LookupMetrics.getBucketLimit(LookupMetrics.BUCKETS - 1))
+				.isEqualTo(Long.MAX_VALUE);
+
+	}
+
+	@Test
+	public final void testPercentile() {
+
+		// PREPARE
+		final LookupMetrics testee = new LookupMetrics();
+		for (int i = 0; i < 99; i++) {
+			testee.record(true, 100);
+		}
+		testee.record(true, 5000);
+
+		// TEST & VERIFY
+		assertThat(testee.getPercentileNanos(0.0)).isEqualTo(128);
+		assertThat(testee.getPercentileNanos(0.5)).isEqualTo(128);
+		assertThat(testee.getPercentileNanos(0.99)).isEqualTo(128);
+		assertThat(testee.getPercentileNanos(1.0)).isEqualTo(8192);
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void testPercentileInvalid() {
+
+		new LookupMetrics().getPercentileNanos(1.5);
+
+	}
+
+	@Test
+	public final void testReset() {
+
+		// PREPARE
+		final LookupMetrics testee = new LookupMetrics();
+		testee.record(true, 100);
+		testee.record(false, 100);
+
+		// TEST
+		testee.reset();
+
+		// VERIFY
+		assertThat(testee.getCount()).isEqualTo(0);
+		assertThat(testee.getTotalNanos()).isEqualTo(0);
+		assertThat(testee.getHistogram()).isEqualTo(new long[LookupMetrics.BUCKETS]);
+
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MappedMenu}.
+ */
+public class TestMappedMenu {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testMapExample() throws Exception {
+
+		// PREPARE
+		final Menu menu = loadExample();
+		final FrozenMenu expected = menu.freeze();
+		final File file = File.createTempFile("menu", ".bin");
+		file.deleteOnExit();
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			new BinaryMenuWriter().write(menu, out);
+		} finally {
+			out.close();
+		}
+
+		// TEST
+		final MappedMenu testee = new MappedMenu(file);
+
+		// VERIFY
+		assertThat(testee.size()).isEqualTo(expected.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertThat(testee.getType(i)).isEqualTo(expected.getType(i));
+			assertThat(testee.getTitle(i)).isEqualTo(expected.getTitle(i));
+			assertThat(testee.getName(i)).isEqualTo(expected.getName(i));
+			assertThat(testee.getCalcName(i)).isEqualTo(expected.getCalcName(i));
+			assertThat(testee.getGroupId(i)).isEqualTo(expected.getGroupId(i));
+			assertThat(testee.getArtifactId(i)).isEqualTo(expected.getArtifactId(i));
+			assertThat(testee.getCi(i)).isEqualTo(expected.getCi(i));
+			assertThat(testee.getParent(i)).isEqualTo(expected.getParent(i));
+			assertThat(testee.getChildCount(i)).isEqualTo(expected.getChildCount(i));
+			for (int j = 0; j < expected.getChildCount(i); j++) {
+				assertThat(testee.getChild(i, j)).isEqualTo(expected.getChild(i, j));
+			}
+		}
+
+	}
+
+	@Test
+	public final void testLookup() throws Exception {
+
+		// PREPARE
+		final MappedMenu testee = map(loadExample());
+
+		// TEST & VERIFY
+		final int a = testee.findByName(MappedMenu.ROOT, "a");
+		assertThat(testee.getTitle(a)).isEqualTo("A");
+		assertThat(testee.findByTitle(MappedMenu.ROOT, "A")).isEqualTo(a);
+		final int kickstart = testee.findByName(a, "kickstart-4-j");
+		assertThat(testee.getType(kickstart)).isEqualTo(MenuElementType.PROJECT);
+		assertThat(testee.getArtifactId(kickstart)).isEqualTo("kickstart4j");
+		assertThat(testee.findByName(MappedMenu.ROOT, "kickstart-4-j")).isEqualTo(MappedMenu.NOT_FOUND);
+		final int examples = testee.findByPath("/a/kickstart-4-j/examples");
+		assertThat(testee.getType(examples)).isEqualTo(MenuElementType.PAGE);
+		assertThat(testee.getParent(examples)).isEqualTo(kickstart);
+		assertThat(testee.findByPath("/")).isEqualTo(MappedMenu.ROOT);
+		assertThat(testee.findByPath("/a/unknown")).isEqualTo(MappedMenu.NOT_FOUND);
+
+	}
+
+	@Test
+	public final void testLookupNonAscii() throws Exception {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final String[] titles = new String[] { "a\uFFFD", "a\uD83D\uDE00", "\u00DCbersicht", "a", "ab" };
+		for (final String title : titles) {
+			menu.addElement(new Page(title));
+		}
+		final MappedMenu testee = map(menu);
+
+		// TEST & VERIFY
+		for (final String title : titles) {
+			final int node = testee.findByTitle(MappedMenu.ROOT, title);
+			assertThat(node).as(title).isNotEqualTo(MappedMenu.NOT_FOUND);
+			assertThat(testee.getTitle(node)).isEqualTo(title);
+		}
+		assertThat(testee.findByTitle(MappedMenu.ROOT, "a\uD83D\uDE01")).isEqualTo(MappedMenu.NOT_FOUND);
+		assertThat(testee.findByTitle(MappedMenu.ROOT, "\u00DC")).isEqualTo(MappedMenu.NOT_FOUND);
+
+	}
+
+	@Test
+	public final void testLookupWideContainers() throws Exception {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Menu sub = new Menu("Sub");
+		for (int i = 0; i < 500; i++) {
+			final int n = (i * 7919) % 500;
+			menu.addElement(new Page((n % 2 == 0 ? "Zeta" : "alpha") + n));
+			sub.addElement(new Page("P" + i, "name-" + (500 - i)));
+		}
+		menu.addElement(sub);
+		final MappedMenu testee = map(menu);
+
+		// TEST & VERIFY
+		for (int node = 1; node < testee.size(); node++) {
+			final int parent = testee.getParent(node);
+			assertThat(testee.findByName(parent, testee.getCalcName(node))).isEqualTo(node);
+			assertThat(testee.findByTitle(parent, testee.getTitle(node))).isEqualTo(node);
+		}
+		final int subNode = testee.findByName(MappedMenu.ROOT, "sub");
+		assertThat(testee.findByName(subNode, "alpha-1")).isEqualTo(MappedMenu.NOT_FOUND);
+		assertThat(testee.findByName(MappedMenu.ROOT, "name-1")).isEqualTo(MappedMenu.NOT_FOUND);
+		assertThat(testee.findByTitle(MappedMenu.ROOT, "Zeta1")).isEqualTo(MappedMenu.NOT_FOUND);
+
+	}
+
+	@Test(expected = IOException.class)
+	public final void testMapInvalidData() throws Exception {
+		new MappedMenu(ByteBuffer.wrap("<menu title=\"A\"/>".getBytes("UTF-8")));
+	}
+
+	private static MappedMenu map(final Menu menu) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BinaryMenuWriter().write(menu, out);
+		return new MappedMenu(ByteBuffer.wrap(out.toByteArray()));
+	}
+
+	// CHECKSTYLE:ON
+
+}
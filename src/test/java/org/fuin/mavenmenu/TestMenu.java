@@ -20,11 +20,15 @@ import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
 import static org.fest.assertions.Assertions.assertThat;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
 import javax.validation.ConstraintViolation;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.fuin.units4j.Units4JUtils;
 import org.junit.Test;
 
@@ -51,6 +55,163 @@ public class TestMenu {
 
 	}
 
+	@Test
+	public final void testCalcNameCached() {
+
+		final Menu testee = new Menu("Kickstart4J");
+		assertThat(testee.getCalcName()).isEqualTo("kickstart-4-j");
+		assertThat(testee.getCalcName()).isSameAs(testee.getCalcName());
+		assertThat(new Menu("Kickstart4J", "k4j").getCalcName()).isEqualTo(
+				"k4j");
+
+	}
+
+	@Test
+	public final void testCalcNameSameAsSplitByCharacterType() {
+
+		final String[] titles = new String[] { "A", " A", "A ", "a  b",
+				"ABCdef", "XMLParser", "Kickstart4J", "SrcMixins4J",
+				"abc-def", "a.b_c", "\u00dcber \u00c4pfel", "1st Page", "x" };
+		for (final String title : titles) {
+			final StringBuilder sb = new StringBuilder();
+			for (final String part : StringUtils
+					.splitByCharacterTypeCamelCase(title)) {
+				if (!part.equals(" ")) {
+					if (sb.length() > 0) {
+						sb.append('-');
+					}
+					sb.append(part.toLowerCase());
+				}
+			}
+			assertThat(MenuElement.calcName(title)).as(title).isEqualTo(
+					sb.toString());
+		}
+
+	}
+
+	@Test
+	public final void testFindByNameAndTitle() {
+
+		// PREPARE
+		final Menu testee = new Menu("Menu");
+		final Page abCd = new Page("AbCd");
+		final Page abSpaceCd = new Page("Ab Cd");
+		final Project project = new Project("AbCd");
+		testee.addElement(abCd);
+		testee.addElement(project);
+		testee.addElement(abSpaceCd);
+
+		// TEST & VERIFY
+		assertThat((Object) testee.findByName("ab-cd")).isSameAs(abSpaceCd);
+		assertThat((Object) testee.findByTitle("AbCd")).isSameAs(abCd);
+		assertThat((Object) testee.findByName("xy")).isNull();
+		assertThat((Object) testee.findByTitle("Xy")).isNull();
+
+		testee.removeElement(abSpaceCd);
+		assertThat((Object) testee.findByName("ab-cd")).isSameAs(abCd);
+		testee.removeElement(new Page("AbCd"));
+		assertThat((Object) testee.findByName("ab-cd")).isSameAs(project);
+		assertThat((Object) testee.findByTitle("AbCd")).isSameAs(project);
+
+	}
+
+	@Test
+	public final void testFindByPath() throws IOException {
+
+		// PREPARE
+		final String xml = IOUtils.toString(this.getClass().getResourceAsStream("/example.xml"));
+		final Menu testee = Units4JUtils.unmarshal(xml, Menu.class, Project.class, Page.class);
+
+		// TEST & VERIFY
+		final Page examples = testee.findByPath("/a/kickstart-4-j/examples");
+		assertThat(examples).isNotNull();
+		assertThat(examples.getTitle()).isEqualTo("Examples");
+		final Project plugin = testee.findByPath("src-mixins-4-j/parent/plugin/");
+		assertThat(plugin).isNotNull();
+		assertThat(plugin.getArtifactId()).isEqualTo("org.fuin.srcmixins4j.plugin");
+		assertThat((Object) testee.findByPath("/")).isSameAs(testee);
+		assertThat((Object) testee.findByPath("/a/unknown")).isNull();
+		assertThat((Object) testee.findByPath("/a/more/below-page")).isNull();
+
+	}
+
+	@Test
+	public final void testFindProject() throws IOException {
+
+		// PREPARE
+		final String xml = IOUtils.toString(this.getClass().getResourceAsStream("/example.xml"));
+		final Menu testee = Units4JUtils.unmarshal(xml, Menu.class, Project.class, Page.class);
+		final Project parent = testee.findByPath("/src-mixins-4-j/parent");
+
+		// TEST & VERIFY
+		final Project plugin = testee.findProject("org.fuin.srcmixins4j", "org.fuin.srcmixins4j.plugin");
+		assertThat(plugin).isNotNull();
+		assertThat(plugin.getTitle()).isEqualTo("Plugin");
+		assertThat(plugin.getParent()).isSameAs(parent);
+		assertThat(testee.findProject("org.fuin", "unknown")).isNull();
+
+		plugin.setArtifactId("plugin");
+		assertThat(testee.findProject("org.fuin.srcmixins4j", "org.fuin.srcmixins4j.plugin")).isNull();
+		assertThat(testee.findProject("org.fuin.srcmixins4j", "plugin")).isSameAs(plugin);
+
+		final Project other = new Project("Other");
+		other.setGroupId("org.fuin.srcmixins4j");
+		other.setArtifactId("plugin");
+		final Project otherChild = new Project("Child");
+		otherChild.setGroupId("org.fuin");
+		otherChild.setArtifactId("child");
+		other.addElement(otherChild);
+		testee.addElement(other);
+		assertThat(testee.findProjects("org.fuin.srcmixins4j", "plugin")).containsOnly(plugin, other);
+		assertThat(testee.findProject("org.fuin", "child")).isSameAs(otherChild);
+
+		parent.removeElement(plugin);
+		assertThat(plugin.getParent()).isNull();
+		assertThat(testee.findProjects("org.fuin.srcmixins4j", "plugin")).containsOnly(other);
+		testee.removeElement(other);
+		assertThat(testee.findProject("org.fuin", "child")).isNull();
+
+	}
+
+	@Test
+	public final void testAddKeepsOrder() {
+
+		// PREPARE
+		final Menu testee = new Menu("Menu");
+		final Page d1 = new Page("D");
+		final Project d2 = new Project("D");
+
+		// TEST
+		testee.addElement(new Page("C"));
+		testee.addElement(d1);
+		testee.addElement(new Page("A"));
+		testee.addElements(Arrays.<MenuElement> asList(new Page("E"), d2,
+				new Page("B")));
+		testee.removeElement(new Page("C"));
+
+		// VERIFY
+		assertThat(testee.getElements()).containsExactly(new Page("A"),
+				new Page("B"), d1, d2, new Page("E"));
+		assertThat(testee.getElements().get(2)).isSameAs(d1);
+		assertThat(testee.getElements().get(3)).isSameAs(d2);
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void testAddElementsDuplicateInBatch() {
+		final Menu testee = new Menu("Menu");
+		testee.addElements(Arrays.<MenuElement> asList(new Page("One"),
+				new Page("One")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void testAddDuplicate() {
+		final Menu testee = new Menu("Menu");
+		testee.addElement(new Page("One"));
+		testee.addElement(new Project("One"));
+		testee.addElement(new Page("One"));
+	}
+
 	@Test
 	public final void testMarshal() throws Exception {
 
@@ -103,15 +264,15 @@ public class TestMenu {
 		assertThat(projectKickstart4J).isNotNull();
 		assertThat(projectKickstart4J.getName()).isNull();
 		assertThat(projectKickstart4J.getCalcName()).isEqualTo("kickstart-4-j");
-		assertThat(menuA.findByTitle("More")).isInstanceOf(Page.class);
-		assertThat(projectKickstart4J.findByTitle("Background")).isInstanceOf(Page.class);
-		assertThat(projectKickstart4J.findByTitle("Examples")).isInstanceOf(Page.class);
+		assertThat(menuA.<MenuElement> findByTitle("More")).isInstanceOf(Page.class);
+		assertThat(projectKickstart4J.<MenuElement> findByTitle("Background")).isInstanceOf(Page.class);
+		assertThat(projectKickstart4J.<MenuElement> findByTitle("Examples")).isInstanceOf(Page.class);
 		
 		final Menu menuSrcMixins4J = testee.findByTitle("SrcMixins4J");
 		assertThat(menuSrcMixins4J).isNotNull();
 		assertThat(menuSrcMixins4J.getName()).isNull();
 		assertThat(menuSrcMixins4J.getCalcName()).isEqualTo("src-mixins-4-j");
-		assertThat(menuSrcMixins4J.findByTitle("Examples")).isInstanceOf(Project.class);
+		assertThat(menuSrcMixins4J.<MenuElement> findByTitle("Examples")).isInstanceOf(Project.class);
 
 		final Project projectParent = menuSrcMixins4J.findByTitle("Parent");
 		assertThat(projectParent).isNotNull();
@@ -120,12 +281,185 @@ public class TestMenu {
 		assertThat(projectParent.getGroupId()).isEqualTo("org.fuin.srcmixins4j");
 		assertThat(projectParent.getArtifactId()).isEqualTo("srcmixins4j-eclipse-parent");
 		assertThat(projectParent.getCi()).isEqualTo("https://fuin-org.ci.cloudbees.com/view/srcmixins4j/job/srcmixins4j-eclipse/");
-		assertThat(projectParent.findByTitle("Feature")).isInstanceOf(Project.class);
-		assertThat(projectParent.findByTitle("Plugin")).isInstanceOf(Project.class);
-		assertThat(projectParent.findByTitle("Repository")).isInstanceOf(Project.class);
+		assertThat(projectParent.<MenuElement> findByTitle("Feature")).isInstanceOf(Project.class);
+		assertThat(projectParent.<MenuElement> findByTitle("Plugin")).isInstanceOf(Project.class);
+		assertThat(projectParent.<MenuElement> findByTitle("Repository")).isInstanceOf(Project.class);
 		
 	}
 
+	@Test
+	public final void testContentHash() {
+
+		// PREPARE
+		final Menu menu = MenuTestUtils.loadExample();
+		final Menu menuA = menu.findByTitle("A");
+		final Menu menuSrcMixins4J = menu.findByTitle("SrcMixins4J");
+		final Project kickstart = menuA.findByTitle("Kickstart4J");
+		final long rootHash = menu.getContentHash();
+		final long aHash = menuA.getContentHash();
+		final long srcMixinsHash = menuSrcMixins4J.getContentHash();
+
+		// TEST & VERIFY
+		assertThat(MenuTestUtils.loadExample().getContentHash()).isEqualTo(rootHash);
+		assertThat(new Page("A").getContentHash()).isNotEqualTo(new Menu("A").getContentHash());
+		assertThat(new Page("A").getContentHash()).isNotEqualTo(new Page("A", "a").getContentHash());
+
+		kickstart.setCi("http://localhost/");
+		assertThat(menu.getContentHash()).isNotEqualTo(rootHash);
+		assertThat(menuA.getContentHash()).isNotEqualTo(aHash);
+		assertThat(menuSrcMixins4J.getContentHash()).isEqualTo(srcMixinsHash);
+
+		kickstart.setCi("https://fuin-org.ci.cloudbees.com/job/kickstart4j/");
+		assertThat(menu.getContentHash()).isEqualTo(rootHash);
+
+		final Page page = new Page("New");
+		menuA.addElement(page);
+		assertThat(menu.getContentHash()).isNotEqualTo(rootHash);
+		menuA.removeElement(page);
+		assertThat(menu.getContentHash()).isEqualTo(rootHash);
+		assertThat(menuSrcMixins4J.getContentHash()).isEqualTo(srcMixinsHash);
+
+	}
+
+	@Test
+	public final void testContentHashIndependentOfInsertionOrder() {
+
+		// PREPARE
+		final Menu first = new Menu("Menu");
+		first.addElement(new Page("A"));
+		first.addElement(new Page("B"));
+		final Menu second = new Menu("Menu");
+		second.addElement(new Page("B"));
+		second.addElement(new Page("A"));
+		final Menu other = new Menu("Menu");
+		other.addElement(new Page("AB"));
+
+		// TEST & VERIFY
+		assertThat(first.getContentHash()).isEqualTo(second.getContentHash());
+		assertThat(first.getContentHash()).isNotEqualTo(other.getContentHash());
+
+	}
+
+	@Test
+	public final void testFindByPrefix() {
+
+		// PREPARE
+		final Menu menu = MenuTestUtils.loadExample();
+
+		// TEST & VERIFY
+		final List<MenuMatch> kick = menu.findByPrefix("Kick", 10);
+		assertThat(kick).hasSize(1);
+		assertThat(kick.get(0).getElement()).isSameAs(
+				menu.findByPath("/a/kickstart-4-j"));
+		assertThat(kick.get(0).getPath()).isEqualTo("/a/kickstart-4-j");
+		assertThat(kick.get(0).getKey()).isEqualTo("kickstart4j");
+		assertThat(paths(menu.findByPrefix("mix", 10))).containsExactly(
+				"/src-mixins-4-j");
+		assertThat(paths(menu.findByPrefix("ex", 10))).containsExactly(
+				"/a/kickstart-4-j/examples", "/src-mixins-4-j/examples");
+		assertThat(paths(menu.findByPrefix("ex", 1))).containsExactly(
+				"/a/kickstart-4-j/examples");
+		assertThat(menu.findByPrefix("unknown", 10)).isEmpty();
+		assertThat(menu.findByPrefix("a", 0)).isEmpty();
+		assertThat(menu.findByPrefix("a", -1)).isEmpty();
+		assertThat(paths(menu.findByPrefix("ex", Integer.MAX_VALUE)))
+				.hasSize(2);
+
+	}
+
+	@Test
+	public final void testFindByPrefixIncremental() {
+
+		// PREPARE
+		final Menu menu = MenuTestUtils.loadExample();
+		final Menu menuA = menu.findByName("a");
+		final Menu menuSrcMixins4J = menu.findByName("src-mixins-4-j");
+		assertThat(menu.findByPrefix("info", 10)).isEmpty();
+
+		// TEST
+		final Page page = new Page("Extra Info");
+		menuA.addElement(page);
+		menu.removeElement(menuSrcMixins4J);
+
+		// VERIFY
+		assertThat(paths(menu.findByPrefix("info", 10))).containsExactly(
+				"/a/extra-info");
+		assertThat(paths(menu.findByPrefix("ex", 10))).containsExactly(
+				"/a/kickstart-4-j/examples", "/a/extra-info");
+		assertThat(menu.findByPrefix("rep", 10)).isEmpty();
+		assertThat(paths(menuSrcMixins4J.findByPrefix("rep", 10)))
+				.containsExactly("/parent/repository");
+
+		// TEST
+		menuA.removeElement(page);
+
+		// VERIFY
+		assertThat(menu.findByPrefix("info", 10)).isEmpty();
+
+	}
+
+	@Test
+	public final void testSearch() {
+
+		// PREPARE
+		final Menu menu = MenuTestUtils.loadExample();
+
+		// TEST & VERIFY
+		final List<MenuMatch> kick = menu.search("kickstrt4j", 10);
+		assertThat(kick).hasSize(1);
+		assertThat(kick.get(0).getElement()).isSameAs(
+				menu.findByPath("/a/kickstart-4-j"));
+		assertThat(kick.get(0).getKey()).isEqualTo("kickstart4j");
+		assertThat(kick.get(0).getScore()).isGreaterThan(0.7);
+		assertThat(paths(menu.search("srcmixin", 2))).containsExactly(
+				"/src-mixins-4-j", "/src-mixins-4-j/parent");
+		assertThat(paths(menu.search("Plugn", 10))).containsExactly(
+				"/src-mixins-4-j/parent/plugin");
+		assertThat(paths(menu.search("examples", 10))).containsExactly(
+				"/a/kickstart-4-j/examples", "/src-mixins-4-j/examples");
+		assertThat(menu.search("kickstart4j", 1).get(0).getScore())
+				.isEqualTo(1.0);
+		assertThat(menu.search("xyz", 10)).isEmpty();
+		assertThat(menu.search(" ", 10)).isEmpty();
+		assertThat(menu.search("kickstrt4j", 0)).isEmpty();
+		assertThat(menu.search("kickstrt4j", -1)).isEmpty();
+		assertThat(paths(menu.search("kickstrt4j", Integer.MAX_VALUE)))
+				.containsExactly("/a/kickstart-4-j");
+
+	}
+
+	@Test
+	public final void testSearchIncremental() {
+
+		// PREPARE
+		final Menu menu = MenuTestUtils.loadExample();
+		final Menu menuA = menu.findByName("a");
+		final Project project = menu.findByPath("/a/kickstart-4-j");
+		assertThat(menu.search("changelog", 10)).isEmpty();
+
+		// TEST
+		menuA.addElement(new Page("Changelog"));
+		project.setArtifactId("quickstart");
+		menu.removeElement(menu.findByName("src-mixins-4-j"));
+
+		// VERIFY
+		assertThat(paths(menu.search("changelog", 10))).containsExactly(
+				"/a/changelog");
+		final List<MenuMatch> quick = menu.search("quickstart", 10);
+		assertThat(quick).hasSize(1);
+		assertThat(quick.get(0).getElement()).isSameAs(project);
+		assertThat(menu.search("srcmixin", 10)).isEmpty();
+
+	}
+
+	private static List<String> paths(final List<MenuMatch> matches) {
+		final List<String> paths = new ArrayList<String>();
+		for (final MenuMatch match : matches) {
+			paths.add(match.getPath());
+		}
+		return paths;
+	}
+
 	// CHECKSTYLE:ON
 
 }
@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MenuDiff}.
+ */
+public class TestMenuDiff {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testNoChanges() {
+
+		// TEST
+		final List<MenuChange> changes = MenuDiff.diff(loadExample(), loadExample());
+
+		// VERIFY
+		assertThat(changes).isEmpty();
+
+	}
+
+	@Test
+	public final void testChanges() {
+
+		// PREPARE
+		final Menu oldMenu = loadExample();
+		final Menu newMenu = loadExample();
+		final Menu menuA = newMenu.findByTitle("A");
+		final Project kickstart = menuA.findByTitle("Kickstart4J");
+		kickstart.setCi("http://localhost/kickstart4j");
+		menuA.removeElement(menuA.findByTitle("More"));
+		newMenu.addElement(new Page("New Page"));
+		final Project parent = newMenu.findByPath("/src-mixins-4-j/parent");
+		final Project feature = parent.findByTitle("Feature");
+		parent.removeElement(feature);
+		menuA.addElement(feature);
+
+		// TEST
+		final List<MenuChange> changes = MenuDiff.diff(oldMenu, newMenu);
+
+		// VERIFY
+		assertThat(toStrings(changes)).containsOnly(
+				"ADDED /new-page",
+				"MOVED /src-mixins-4-j/parent/feature -> /a/feature",
+				"CHANGED /a/kickstart-4-j",
+				"REMOVED /a/more");
+		for (final MenuChange change : changes) {
+			if (change.getType() == MenuChangeType.MOVED) {
+				assertThat(change.getNewElement()).isSameAs(feature);
+				assertThat(change.getOldElement()).isEqualTo(feature);
+			}
+		}
+
+	}
+
+	@Test
+	public final void testRetitled() {
+
+		// PREPARE
+		final Menu oldMenu = new Menu("Menu");
+		oldMenu.addElement(new Page("Old Title", "page"));
+		final Menu newMenu = new Menu("Menu");
+		final Page page = new Page("New Title", "page");
+		newMenu.addElement(page);
+
+		// TEST
+		final List<MenuChange> changes = MenuDiff.diff(oldMenu, newMenu);
+
+		// VERIFY
+		assertThat(toStrings(changes)).containsOnly("RETITLED /page");
+		assertThat(changes.get(0).getNewElement()).isSameAs(page);
+
+	}
+
+	@Test
+	public final void testRetitledWithoutName() {
+
+		// PREPARE
+		final Menu oldMenu = loadExample();
+		final Menu newMenu = loadExample();
+		final Menu menuA = newMenu.findByTitle("A");
+		final Project kickstart = menuA.findByTitle("Kickstart4J");
+		menuA.removeElement(kickstart);
+		final Project renamed = new Project("Kickstart");
+		renamed.setGroupId(kickstart.getGroupId());
+		renamed.setArtifactId(kickstart.getArtifactId());
+		renamed.setCi(kickstart.getCi());
+		for (final MenuElement child : new ArrayList<MenuElement>(kickstart.getElements())) {
+			kickstart.removeElement(child);
+			renamed.addElement(child);
+		}
+		menuA.addElement(renamed);
+
+		// TEST
+		final List<MenuChange> changes = MenuDiff.diff(oldMenu, newMenu);
+
+		// VERIFY
+		assertThat(toStrings(changes)).containsOnly("RETITLED /a/kickstart-4-j -> /a/kickstart");
+		assertThat(changes.get(0).getNewElement()).isSameAs(renamed);
+
+	}
+
+	@Test
+	public final void testRetitledAndChangedWithoutName() {
+
+		// PREPARE
+		final Menu oldMenu = new Menu("Menu");
+		final Menu oldSub = new Menu("Sub");
+		oldSub.addElement(new Page("One"));
+		oldSub.addElement(new Page("Two"));
+		oldMenu.addElement(oldSub);
+		oldMenu.addElement(new Page("Z"));
+		final Menu newMenu = new Menu("Menu");
+		final Menu newSub = new Menu("Renamed");
+		newSub.addElement(new Page("One"));
+		newSub.addElement(new Page("Three"));
+		newMenu.addElement(newSub);
+		newMenu.addElement(new Page("Z"));
+
+		// TEST
+		final List<MenuChange> changes = MenuDiff.diff(oldMenu, newMenu);
+
+		// VERIFY
+		assertThat(toStrings(changes)).containsOnly(
+				"RETITLED /sub -> /renamed",
+				"ADDED /renamed/three",
+				"REMOVED /sub/two");
+
+	}
+
+	@Test
+	public final void testRemovedAndAddedWithoutName() {
+
+		// PREPARE
+		final Menu oldMenu = new Menu("Menu");
+		oldMenu.addElement(new Page("One"));
+		oldMenu.addElement(new Page("Two"));
+		final Menu newMenu = new Menu("Menu");
+		newMenu.addElement(new Page("Three"));
+
+		// TEST
+		final List<MenuChange> changes = MenuDiff.diff(oldMenu, newMenu);
+
+		// VERIFY
+		assertThat(toStrings(changes)).containsOnly("ADDED /three", "REMOVED /one", "REMOVED /two");
+
+	}
+
+	@Test
+	public final void testReplacedWithoutName() {
+
+		// PREPARE
+		final Menu oldMenu = new Menu("Menu");
+		oldMenu.addElement(new Page("Alpha"));
+		oldMenu.addElement(new Page("Beta"));
+		final Menu newMenu = new Menu("Menu");
+		newMenu.addElement(new Page("Alpha"));
+		newMenu.addElement(new Page("Gamma"));
+
+		// TEST
+		final List<MenuChange> changes = MenuDiff.diff(oldMenu, newMenu);
+
+		// VERIFY
+		assertThat(toStrings(changes)).containsOnly("ADDED /gamma", "REMOVED /beta");
+
+	}
+
+	@Test
+	public final void testSwappedWithoutName() {
+
+		// PREPARE
+		final Menu oldMenu = new Menu("Menu");
+		final Menu oldX = new Menu("X");
+		oldX.addElement(project("P1", "p1"));
+		oldMenu.addElement(oldX);
+		final Menu oldY = new Menu("Y");
+		oldY.addElement(project("Q1", "q1"));
+		oldMenu.addElement(oldY);
+		final Menu newMenu = new Menu("Menu");
+		final Menu newX = new Menu("X");
+		newX.addElement(project("Q1", "q1"));
+		newMenu.addElement(newX);
+		final Menu newY = new Menu("Y");
+		newY.addElement(project("P1", "p1"));
+		newMenu.addElement(newY);
+
+		// TEST
+		final List<MenuChange> changes = MenuDiff.diff(oldMenu, newMenu);
+
+		// VERIFY
+		assertThat(toStrings(changes)).containsOnly(
+				"MOVED /y/q-1 -> /x/q-1",
+				"MOVED /x/p-1 -> /y/p-1");
+
+	}
+
+	@Test
+	public final void testTypeChanged() {
+
+		// PREPARE
+		final Menu oldMenu = new Menu("Menu");
+		oldMenu.addElement(new Page("A"));
+		final Menu newMenu = new Menu("Menu");
+		newMenu.addElement(new Menu("A"));
+
+		// TEST
+		final List<MenuChange> changes = MenuDiff.diff(oldMenu, newMenu);
+
+		// VERIFY
+		assertThat(toStrings(changes)).containsOnly("REMOVED /a", "ADDED /a");
+
+	}
+
+	private static Project project(final String title, final String artifactId) {
+		final Project project = new Project(title);
+		project.setGroupId("org.fuin");
+		project.setArtifactId(artifactId);
+		return project;
+	}
+
+	private static List<String> toStrings(final List<MenuChange> changes) {
+		final List<String> result = new ArrayList<String>();
+		for (final MenuChange change : changes) {
+			result.add(change.toString());
+		}
+		return result;
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,356 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MenuElementContainer}.
+ */
+public class TestMenuElementContainer {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testConcurrentModeIsInherited() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Project project = new Project("Project");
+		menu.addElement(project);
+
+		// TEST
+		menu.setConcurrent(true);
+		final Menu sub = new Menu("Sub");
+		project.addElement(sub);
+
+		// VERIFY
+		assertThat(project.isConcurrent()).isTrue();
+		assertThat(sub.isConcurrent()).isTrue();
+
+	}
+
+	@Test
+	public final void testAddElementWithOtherParent() {
+
+		// PREPARE
+		final Menu first = new Menu("First");
+		final Menu second = new Menu("Second");
+		final Project project = new Project("Project");
+		project.setGroupId("org.fuin");
+		project.setArtifactId("objects4j");
+		first.addElement(project);
+
+		// TEST & VERIFY
+		try {
+			second.addElement(project);
+			org.junit.Assert.fail();
+		} catch (final IllegalArgumentException ex) {
+			assertThat(ex.getMessage()).contains("another container");
+		}
+		final List<MenuElement> list = new ArrayList<MenuElement>();
+		list.add(new Page("Page"));
+		list.add(project);
+		try {
+			second.addElements(list);
+			org.junit.Assert.fail();
+		} catch (final IllegalArgumentException ex) {
+			assertThat(ex.getMessage()).contains("another container");
+		}
+		assertThat(second.getElements()).isNull();
+		assertThat(project.getParent()).isSameAs(first);
+		assertThat(first.findProject("org.fuin", "objects4j")).isSameAs(project);
+
+		// TEST
+		first.removeElement(project);
+		second.addElement(project);
+
+		// VERIFY
+		assertThat(project.getParent()).isSameAs(second);
+		assertThat(first.findProject("org.fuin", "objects4j")).isNull();
+		assertThat(second.findProject("org.fuin", "objects4j")).isSameAs(project);
+
+	}
+
+	@Test
+	public final void testSnapshotInConcurrentMode() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		menu.setConcurrent(true);
+		menu.addElement(new Page("A"));
+		final List<MenuElement> snapshot = menu.getElements();
+
+		// TEST
+		menu.addElement(new Page("B"));
+
+		// VERIFY
+		assertThat(snapshot).containsExactly(new Page("A"));
+		assertThat(menu.getElements()).containsExactly(new Page("A"), new Page("B"));
+
+	}
+
+	@Test
+	public final void testConcurrentReadersAndWriters() throws Exception {
+
+		// PREPARE
+		final int readers = 8;
+		final int writers = 4;
+		final int pagesPerWriter = 200;
+		final Menu menu = new Menu("Menu");
+		menu.setConcurrent(true);
+		final AtomicBoolean stop = new AtomicBoolean(false);
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(readers + writers);
+		try {
+			final List<Future<?>> writerFutures = new ArrayList<Future<?>>();
+			final List<Future<?>> readerFutures = new ArrayList<Future<?>>();
+
+			for (int w = 0; w < writers; w++) {
+				final int writer = w;
+				writerFutures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						await(start);
+						for (int i = 0; i < pagesPerWriter; i++) {
+							final Page page = new Page("Page " + writer + " " + i);
+							menu.addElement(page);
+							if (i % 2 == 0) {
+								menu.removeElement(page);
+							} else {
+								final List<MenuElement> batch = new ArrayList<MenuElement>();
+								batch.add(new Page("Batch " + writer + " " + i + " a"));
+								batch.add(new Page("Batch " + writer + " " + i + " b"));
+								menu.addElements(batch);
+							}
+						}
+					}
+				}));
+			}
+			for (int r = 0; r < readers; r++) {
+				readerFutures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						await(start);
+						while (!stop.get()) {
+							final List<MenuElement> elements = menu.getElements();
+							if (elements == null) {
+								continue;
+							}
+							MenuElement previous = null;
+							for (final MenuElement element : elements) {
+								if (previous != null && previous.compareTo(element) > 0) {
+									throw new IllegalStateException("Not sorted: " + previous + " > " + element);
+								}
+								previous = element;
+								if (element.getTitle().startsWith("Batch") && element.getTitle().endsWith(" a")) {
+									// Batch must be visible completely or not at all
+									final String other = element.getTitle().substring(0,
+											element.getTitle().length() - 1) + "b";
+									if (menu.findByTitle(other) == null) {
+										throw new IllegalStateException("Partial batch: " + element);
+									}
+								}
+							}
+							menu.findByName("page-0-1");
+						}
+					}
+				}));
+			}
+
+			// TEST
+			start.countDown();
+			for (final Future<?> future : writerFutures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+			stop.set(true);
+
+			// VERIFY
+			for (final Future<?> future : readerFutures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+			assertThat(menu.getElements()).hasSize(writers * (pagesPerWriter / 2) * 3);
+			assertThat((Object) menu.findByName("page-0-1")).isNotNull();
+			assertThat((Object) menu.findByName("page-0-0")).isNull();
+
+		} finally {
+			executor.shutdownNow();
+		}
+
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (final InterruptedException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	@Test
+	public final void testStream() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+
+		// TEST
+		final List<String> titles = menu.stream().map(MenuElement::getTitle).collect(Collectors.toList());
+
+		// VERIFY
+		assertThat(titles).containsExactly("A", "Kickstart4J", "Background", "Examples", "More", "SrcMixins4J",
+				"Examples", "Parent", "Feature", "Plugin", "Repository");
+
+	}
+
+	@Test
+	public final void testEntriesBreadthFirst() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+
+		// TEST
+		final List<String> entries = menu.entries(MenuTraversal.BREADTH_FIRST, false).map(MenuTreeEntry::toString)
+				.collect(Collectors.toList());
+
+		// VERIFY
+		assertThat(entries).containsExactly("1:A", "1:SrcMixins4J", "2:Kickstart4J", "2:More", "2:Examples",
+				"2:Parent", "3:Background", "3:Examples", "3:Feature", "3:Plugin", "3:Repository");
+
+	}
+
+	@Test
+	public final void testParallelStreamKeepsOrder() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		for (int i = 0; i < 20; i++) {
+			final Menu sub = new Menu("Menu " + i);
+			for (int j = 0; j < 100; j++) {
+				final Project project = new Project("Project " + j);
+				project.addElement(new Page("Page"));
+				sub.addElement(project);
+			}
+			menu.addElement(sub);
+		}
+		final List<MenuElement> expected = menu.stream().collect(Collectors.toList());
+
+		// TEST
+		final List<MenuElement> actual = menu.parallelStream().collect(Collectors.toList());
+		final long count = menu.entries(MenuTraversal.BREADTH_FIRST, true).filter(e -> e.getDepth() == 3).count();
+
+		// VERIFY
+		assertThat(expected).hasSize(20 + 20 * 100 * 2);
+		assertThat(actual).isEqualTo(expected);
+		assertThat(count).isEqualTo(20 * 100);
+
+	}
+
+	@Test
+	public final void testSetOrdering() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Menu sub = new Menu("sub");
+		sub.addElement(new Page("b"));
+		sub.addElement(new Page("A"));
+		menu.addElement(sub);
+		menu.addElement(new Page("B"));
+		menu.addElement(new Page("a"));
+		assertThat(titles(menu)).containsExactly("B", "a", "sub");
+		final long hash = menu.getContentHash();
+
+		// TEST
+		menu.setOrdering(MenuOrdering.CASE_INSENSITIVE);
+
+		// VERIFY
+		assertThat(menu.getOrdering()).isSameAs(MenuOrdering.CASE_INSENSITIVE);
+		assertThat(sub.getOrdering()).isSameAs(MenuOrdering.CASE_INSENSITIVE);
+		assertThat(titles(menu)).containsExactly("a", "B", "sub");
+		assertThat(titles(sub)).containsExactly("A", "b");
+		assertThat(menu.getContentHash()).isNotEqualTo(hash);
+		assertThat(menu.<MenuElement> findByName("a").getTitle()).isEqualTo("a");
+		assertThat(menu.<MenuElement> findByTitle("B").getTitle()).isEqualTo("B");
+
+		// TEST
+		final Menu added = new Menu("Added");
+		added.addElement(new Page("y"));
+		added.addElement(new Page("X"));
+		menu.addElement(added);
+		menu.addElement(new Page("c"));
+
+		// VERIFY
+		assertThat(added.getOrdering()).isSameAs(MenuOrdering.CASE_INSENSITIVE);
+		assertThat(titles(added)).containsExactly("X", "y");
+		assertThat(titles(menu)).containsExactly("a", "Added", "B", "c", "sub");
+
+	}
+
+	@Test
+	public final void testCollationOrdering() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		menu.setOrdering(MenuOrdering.collation(Locale.GERMAN));
+		final List<MenuElement> pages = new ArrayList<MenuElement>();
+		pages.add(new Page("Zebra"));
+		pages.add(new Page("\u00C4pfel"));
+		pages.add(new Page("Birne"));
+
+		// TEST
+		menu.addElements(pages);
+		menu.addElement(new Page("apfel"));
+		menu.addElement(new Page("\u00F6l"));
+
+		// VERIFY
+		assertThat(titles(menu)).containsExactly("apfel", "\u00C4pfel",
+				"Birne", "\u00F6l", "Zebra");
+		assertThat(menu.<MenuElement> findByTitle("\u00C4pfel")).isNotNull();
+
+		// TEST
+		menu.removeElement(new Page("Birne"));
+
+		// VERIFY
+		assertThat(titles(menu)).containsExactly("apfel", "\u00C4pfel",
+				"\u00F6l", "Zebra");
+
+	}
+
+	private static List<String> titles(final MenuElementContainer container) {
+		final List<String> titles = new ArrayList<String>();
+		for (final MenuElement element : container.getElements()) {
+			titles.add(element.getTitle());
+		}
+		return titles;
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MenuHtmlRenderer}.
+ */
+public class TestMenuHtmlRenderer {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testRender() throws Exception {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Menu menuA = new Menu("A");
+		final Project project = new Project("Kickstart4J");
+		project.addElement(new Page("Background"));
+		menuA.addElement(project);
+		menu.addElement(menuA);
+		menu.addElement(new Page("Q&A <1>"));
+
+		// TEST
+		final String html = render(new MenuHtmlRenderer("http://www.fuin.org"), menu);
+
+		// VERIFY
+		assertThat(html).isEqualTo("<ul class=\"menu\">\n"
+				+ "<li class=\"menu\"><span>A</span>\n"
+				+ "<ul>\n"
+				+ "<li class=\"project\"><a href=\"http://www.fuin.org/a/kickstart-4-j\">Kickstart4J</a>\n"
+				+ "<ul>\n"
+				+ "<li class=\"page\"><a href=\"http://www.fuin.org/a/kickstart-4-j/background\">Background</a></li>\n"
+				+ "</ul>\n"
+				+ "</li>\n"
+				+ "</ul>\n"
+				+ "</li>\n"
+				+ "<li class=\"page\"><a href=\"http://www.fuin.org/q-&amp;-a-&lt;-1-&gt;\">Q&amp;A &lt;1&gt;</a></li>\n"
+				+ "</ul>\n");
+
+	}
+
+	@Test
+	public final void testRenderUsesCache() throws Exception {
+
+		// PREPARE
+		final Menu menu = loadExample();
+		final MenuHtmlRenderer testee = new MenuHtmlRenderer();
+		final String first = render(testee, menu);
+		assertThat(testee.getRenderedContainers()).isEqualTo(9);
+
+		// TEST & VERIFY
+		assertThat(render(testee, menu)).isEqualTo(first);
+		assertThat(testee.getRenderedContainers()).isEqualTo(0);
+
+		final Project kickstart = menu.findByPath("/a/kickstart-4-j");
+		kickstart.addElement(new Page("New"));
+		final String second = render(testee, menu);
+		assertThat(testee.getRenderedContainers()).isEqualTo(3);
+		assertThat(second).isNotEqualTo(first);
+		assertThat(second).contains("<a href=\"/a/kickstart-4-j/new\">New</a>");
+		assertThat(second).isEqualTo(render(new MenuHtmlRenderer(), menu));
+
+	}
+
+	private static String render(final MenuHtmlRenderer renderer, final Menu menu) throws Exception {
+		final StringWriter writer = new StringWriter();
+		renderer.render(menu, writer);
+		return writer.toString();
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MenuMetrics}.
+ */
+public class TestMenuMetrics {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testDisabledByDefault() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+
+		// TEST
+		final Menu menuA = menu.findByName("a");
+
+		// VERIFY
+		assertThat(menuA).isNotNull();
+		assertThat(menu.getMetrics()).isNull();
+		assertThat(MenuMetrics.isActive()).isFalse();
+
+	}
+
+	@Test
+	public final void testRecordLookupsBelowMenu() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+		final MenuMetrics metrics = menu.enableMetrics();
+		try {
+			final Project project = menu.findByPath("/a/kickstart-4-j");
+
+			// TEST
+			assertThat(project.<MenuElement> findByName("background")).isNotNull();
+			assertThat(project.<MenuElement> findByName("unknown")).isNull();
+			assertThat(menu.<MenuElement> findByTitle("A")).isNotNull();
+
+			// VERIFY
+			assertThat(menu.enableMetrics()).isSameAs(metrics);
+			assertThat(menu.getMetrics()).isSameAs(metrics);
+			assertThat(MenuMetrics.isActive()).isTrue();
+			assertThat(metrics.getNameLookups().getCount()).isEqualTo(2);
+			assertThat(metrics.getNameLookups().getHits()).isEqualTo(1);
+			assertThat(metrics.getNameLookups().getMisses()).isEqualTo(1);
+			assertThat(metrics.getTitleLookups().getCount()).isEqualTo(1);
+			assertThat(metrics.getTitleLookups().getHitRate()).isEqualTo(1.0);
+
+		} finally {
+			menu.disableMetrics();
+		}
+		assertThat(menu.getMetrics()).isNull();
+		assertThat(MenuMetrics.isActive()).isFalse();
+
+	}
+
+	@Test
+	public final void testNearestMenuRecords() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+		final Menu menuA = menu.findByName("a");
+		final MenuMetrics rootMetrics = menu.enableMetrics();
+		final MenuMetrics metricsA = menuA.enableMetrics();
+		try {
+
+			// TEST
+			menuA.findByName("more");
+			menu.findByName("a");
+
+			// VERIFY
+			assertThat(metricsA.getNameLookups().getCount()).isEqualTo(1);
+			assertThat(rootMetrics.getNameLookups().getCount()).isEqualTo(1);
+
+		} finally {
+			menuA.disableMetrics();
+			menu.disableMetrics();
+		}
+
+	}
+
+	@Test
+	public final void testReset() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+		final MenuMetrics metrics = menu.enableMetrics();
+		try {
+			menu.findByName("a");
+			menu.findByTitle("A");
+
+			// TEST
+			metrics.reset();
+
+			// VERIFY
+			assertThat(metrics.getNameLookups().getCount()).isEqualTo(0);
+			assertThat(metrics.getTitleLookups().getCount()).isEqualTo(0);
+
+		} finally {
+			menu.disableMetrics();
+		}
+
+	}
+
+	// CHECKSTYLE:ON
+
+}
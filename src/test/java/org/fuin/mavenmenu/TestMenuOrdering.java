@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Locale;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MenuOrdering}.
+ */
+public class TestMenuOrdering {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testNatural() {
+
+		final MenuOrdering testee = MenuOrdering.NATURAL;
+
+		assertThat(testee.compare(new Page("B"), new Page("a"))).isLessThan(0);
+		assertThat(testee.compare(new Page("a"), new Page("a"))).isEqualTo(0);
+		assertThat(testee.compare(new Page("z"), new Page("\u00E4"))).isLessThan(0);
+		assertThat(testee.toString()).isEqualTo("natural");
+
+	}
+
+	@Test
+	public final void testCaseInsensitive() {
+
+		final MenuOrdering testee = MenuOrdering.CASE_INSENSITIVE;
+
+		assertThat(testee.compare(new Page("a"), new Page("B"))).isLessThan(0);
+		assertThat(testee.compare(new Page("a"), new Page("A"))).isEqualTo(0);
+		assertThat(testee.toString()).isEqualTo("caseInsensitive");
+
+	}
+
+	@Test
+	public final void testCollation() {
+
+		final MenuOrdering testee = MenuOrdering.collation(Locale.GERMAN);
+
+		assertThat(testee.compare(new Page("a"), new Page("B"))).isLessThan(0);
+		assertThat(testee.compare(new Page("\u00E4"), new Page("z"))).isLessThan(0);
+		assertThat(testee.compare(new Page("a"), new Page("\u00E4"))).isLessThan(0);
+		assertThat(testee.compare(new Page("a"), new Page("a"))).isEqualTo(0);
+		assertThat(testee.toString()).isEqualTo("collation(de)");
+
+	}
+
+	@Test
+	public final void testCollatorIsCopied() {
+
+		// PREPARE
+		final Collator collator = Collator.getInstance(Locale.GERMAN);
+		collator.setStrength(Collator.PRIMARY);
+		final MenuOrdering testee = MenuOrdering.collation(collator);
+
+		// TEST
+		collator.setStrength(Collator.TERTIARY);
+
+		// VERIFY
+		assertThat(testee.compare(new Page("a"), new Page("A"))).isEqualTo(0);
+		assertThat(testee.toString()).isEqualTo("collation(custom)");
+
+	}
+
+	@Test
+	public final void testCollationKeyIsCached() {
+
+		// PREPARE
+		final MenuOrdering.Collation first = (MenuOrdering.Collation) MenuOrdering
+				.collation(Locale.GERMAN);
+		final MenuOrdering.Collation second = (MenuOrdering.Collation) MenuOrdering
+				.collation(Locale.GERMAN);
+		final Page page = new Page("\u00C4pfel");
+
+		// TEST
+		final CollationKey key = page.getCollationKey(first);
+
+		// VERIFY
+		assertThat(key.getSourceString()).isEqualTo("\u00C4pfel");
+		assertThat(page.getCollationKey(first)).isSameAs(key);
+		final CollationKey other = page.getCollationKey(second);
+		assertThat(other).isNotSameAs(key);
+		assertThat(other.compareTo(key)).isEqualTo(0);
+
+	}
+
+	// CHECKSTYLE:ON
+
+}
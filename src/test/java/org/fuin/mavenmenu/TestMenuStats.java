@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MenuStats}.
+ */
+public class TestMenuStats {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testExample() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+
+		// TEST
+		final MenuStats stats = menu.getStats();
+
+		// VERIFY
+		assertThat(stats.getRoot()).isSameAs(menu);
+		assertThat(stats.getElementCount()).isEqualTo(12);
+		assertThat(stats.getMenuCount()).isEqualTo(3);
+		assertThat(stats.getProjectCount()).isEqualTo(6);
+		assertThat(stats.getPageCount()).isEqualTo(3);
+		assertThat(stats.getMaxDepth()).isEqualTo(3);
+		assertThat(stats.getMaxWidth()).isEqualTo(3);
+		assertThat(stats.getWidestContainer()).isSameAs(
+				menu.findByPath("/src-mixins-4-j/parent"));
+
+	}
+
+	@Test
+	public final void testSubtree() {
+
+		// PREPARE
+		final Menu menu = loadExample();
+		final Menu menuA = menu.findByName("a");
+
+		// TEST
+		final MenuStats stats = menuA.getStats();
+
+		// VERIFY
+		assertThat(stats.getElementCount()).isEqualTo(5);
+		assertThat(stats.getMenuCount()).isEqualTo(1);
+		assertThat(stats.getProjectCount()).isEqualTo(1);
+		assertThat(stats.getPageCount()).isEqualTo(3);
+		assertThat(stats.getMaxDepth()).isEqualTo(2);
+		assertThat(stats.getMaxWidth()).isEqualTo(2);
+		assertThat(stats.getWidestContainer()).isSameAs(menuA);
+
+	}
+
+	@Test
+	public final void testEmpty() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+
+		// TEST
+		final MenuStats stats = menu.getStats();
+
+		// VERIFY
+		assertThat(stats.getElementCount()).isEqualTo(1);
+		assertThat(stats.getMenuCount()).isEqualTo(1);
+		assertThat(stats.getMaxDepth()).isEqualTo(0);
+		assertThat(stats.getMaxWidth()).isEqualTo(0);
+		assertThat(stats.getWidestContainer()).isSameAs(menu);
+		assertThat(stats.toString()).isEqualTo(
+				"elements=1, menus=1, projects=0, pages=0, maxDepth=0, maxWidth=0, widest='Menu'");
+
+	}
+
+	@Test
+	public final void testDeepTree() throws Exception {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		Menu current = menu;
+		for (int i = 0; i < 5000; i++) {
+			final Menu child = new Menu("Level " + i);
+			current.addElement(child);
+			current = child;
+		}
+		current.addElement(new Page("Leaf"));
+		final MenuStats[] result = new MenuStats[1];
+
+		// TEST
+		final Thread thread = new Thread(null, () -> result[0] = menu.getStats(), "stats", 64 * 1024);
+		thread.start();
+		thread.join();
+
+		// VERIFY
+		assertThat(result[0]).isNotNull();
+		assertThat(result[0].getMenuCount()).isEqualTo(5001);
+		assertThat(result[0].getPageCount()).isEqualTo(1);
+		assertThat(result[0].getMaxDepth()).isEqualTo(5001);
+		assertThat(result[0].getMaxWidth()).isEqualTo(1);
+
+	}
+
+	// CHECKSTYLE:ON
+
+}
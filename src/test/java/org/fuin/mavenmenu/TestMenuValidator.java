@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MenuValidator}.
+ */
+public class TestMenuValidator {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testValidateExample() {
+
+		// TEST
+		final List<MenuViolation> violations = new MenuValidator().validate(loadExample());
+
+		// VERIFY
+		assertThat(violations).isEmpty();
+
+	}
+
+	@Test
+	public final void testValidateInvalid() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Menu menuA = new Menu("A");
+		menu.addElement(menuA);
+		menu.addElement(new Page("A"));
+		menu.addElement(new Page("a"));
+		menu.addElement(new Page(" "));
+		final Project project = new Project("Project");
+		project.setGroupId("org fuin");
+		project.setCi("job/project");
+		menuA.addElement(project);
+		final Project other = new Project("Other");
+		other.setGroupId("org.fuin");
+		other.setArtifactId("other");
+		other.setCi("http://ci host");
+		menuA.addElement(other);
+		final Project partial = new Project("Partial");
+		partial.setArtifactId("partial");
+		menuA.addElement(partial);
+
+		// TEST
+		final List<MenuViolation> violations = new MenuValidator().validate(menu);
+
+		// VERIFY
+		assertThat(toStrings(violations)).containsOnly(
+				"/: Title is empty",
+				"/a: Duplicate title 'A'",
+				"/a: Duplicate calculated name 'a'",
+				"/a/project: Invalid group ID 'org fuin'",
+				"/a/project: CI URL is not absolute 'job/project'",
+				"/a/other: Invalid CI URL 'http://ci host'");
+
+	}
+
+	@Test
+	public final void testValidateLargeMenuInParallel() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		for (int i = 0; i < 50; i++) {
+			final Menu sub = new Menu("Menu " + i);
+			for (int j = 0; j < 50; j++) {
+				final Project project = new Project("Project " + j);
+				project.addElement(new Page("Page"));
+				sub.addElement(project);
+			}
+			menu.addElement(sub);
+		}
+		final Project invalid = menu.findByPath("/menu-49/project-49");
+		invalid.setArtifactId("a b");
+
+		// TEST
+		final List<MenuViolation> violations = new MenuValidator().validate(menu);
+
+		// VERIFY
+		assertThat(toStrings(violations)).containsOnly(
+				"/menu-49/project-49: Invalid artifact ID 'a b'");
+
+	}
+
+	private static List<String> toStrings(final List<MenuViolation> violations) {
+		final List<String> result = new ArrayList<String>();
+		for (final MenuViolation violation : violations) {
+			result.add(violation.toString());
+		}
+		return result;
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.assertSameTree;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MenuXml}.
+ */
+public class TestMenuXml {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testContextIsShared() throws Exception {
+		MenuXml.warmUp();
+		assertThat(MenuXml.getContext()).isSameAs(MenuXml.getContext());
+	}
+
+	@Test
+	public final void testRead() throws Exception {
+
+		// PREPARE
+		final InputStream in = this.getClass().getResourceAsStream("/example.xml");
+
+		// TEST
+		final Menu menu;
+		try {
+			menu = MenuXml.read(in);
+		} finally {
+			in.close();
+		}
+
+		// VERIFY
+		assertSameTree(loadExample(), menu);
+
+	}
+
+	@Test
+	public final void testWriteAndRead() throws Exception {
+
+		// PREPARE
+		final Menu expected = loadExample();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// TEST
+		MenuXml.write(expected, out);
+		final Menu actual = MenuXml.read(new ByteArrayInputStream(out.toByteArray()));
+
+		// VERIFY
+		assertSameTree(expected, actual);
+
+	}
+
+	// CHECKSTYLE:ON
+
+}
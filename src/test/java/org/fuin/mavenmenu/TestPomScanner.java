@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link PomScanner}.
+ */
+public class TestPomScanner {
+
+	// CHECKSTYLE:OFF
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public final void testScan() throws Exception {
+
+		// PREPARE
+		final Path root = folder.getRoot().toPath();
+		pom(root.resolve("parent"), "<groupId>org.fuin</groupId><artifactId>parent</artifactId><name>Parent</name>"
+				+ "<modules><module>core</module><module>../other/ui</module><module>missing</module></modules>");
+		pom(root.resolve("parent/core"), "<parent><groupId>org.fuin</groupId><artifactId>parent</artifactId></parent>"
+				+ "<artifactId>core</artifactId><name>Core</name>");
+		pom(root.resolve("other/ui"), "<!-- UI --><artifactId>ui</artifactId><groupId>org.fuin.ui</groupId>"
+				+ "<build><plugins><plugin><artifactId>x</artifactId></plugin></plugins></build>");
+		pom(root.resolve("single"), "<groupId>org.fuin</groupId><artifactId>single</artifactId>");
+		pom(root.resolve("single/target/classes"), "<groupId>org.fuin</groupId><artifactId>copy</artifactId>");
+		pom(root.resolve(".git"), "<groupId>org.fuin</groupId><artifactId>hidden</artifactId>");
+		Files.createDirectories(root.resolve("broken"));
+		Files.write(root.resolve("broken/pom.xml"), "<project>".getBytes(StandardCharsets.UTF_8));
+
+		final PomScanner testee = new PomScanner("Projects", 2);
+
+		// TEST
+		final Menu menu = testee.scan(root);
+
+		// VERIFY
+		assertThat(menu.getTitle()).isEqualTo("Projects");
+		assertThat(menu.getElements()).hasSize(2);
+
+		final Project parent = menu.findByTitle("Parent");
+		assertThat(parent.getGroupId()).isEqualTo("org.fuin");
+		assertThat(parent.getArtifactId()).isEqualTo("parent");
+		assertThat(parent.getElements()).hasSize(3);
+
+		final Project core = parent.findByTitle("Core");
+		assertThat(core.getGroupId()).isEqualTo("org.fuin");
+		assertThat(core.getArtifactId()).isEqualTo("core");
+		final Project ui = parent.findByTitle("ui");
+		assertThat(ui.getGroupId()).isEqualTo("org.fuin.ui");
+		final Project missing = parent.findByTitle("parent/missing");
+		assertThat(missing.getArtifactId()).isNull();
+
+		final Project single = menu.findByTitle("single");
+		assertThat(single.getElements()).isNull();
+		assertThat(menu.findProject("org.fuin", "copy")).isNull();
+		assertThat(menu.findProject("org.fuin", "hidden")).isNull();
+		assertThat(menu.findProject("org.fuin", "core")).isSameAs(core);
+
+		assertThat(testee.getProject(root.resolve("parent/core/pom.xml"))).isSameAs(core);
+		assertThat(testee.getProjects()).hasSize(4);
+		assertThat(testee.getFailures().keySet()).containsOnly(root.resolve("broken/pom.xml").toAbsolutePath());
+
+	}
+
+	@Test
+	public final void testScanManyModules() throws Exception {
+
+		// PREPARE
+		final Path root = folder.getRoot().toPath();
+		final StringBuilder modules = new StringBuilder("<modules>");
+		for (int i = 0; i < 500; i++) {
+			modules.append("<module>m" + i + "</module>");
+			pom(root.resolve("m" + i), "<groupId>org.fuin</groupId><artifactId>m" + i + "</artifactId><name>Module</name>");
+		}
+		modules.append("</modules>");
+		pom(root, "<groupId>org.fuin</groupId><artifactId>root</artifactId>" + modules);
+
+		// TEST
+		final Menu menu = new PomScanner("Projects").scan(root);
+
+		// VERIFY
+		final Project project = menu.findByTitle("root");
+		assertThat(project.getElements()).hasSize(500);
+		assertThat(project.<MenuElement> findByTitle("Module")).isNotNull();
+		assertThat(project.<MenuElement> findByTitle("m499")).isNotNull();
+
+	}
+
+	@Test
+	public final void testRefresh() throws Exception {
+
+		// PREPARE
+		final Path root = folder.getRoot().toPath();
+		pom(root.resolve("parent"), "<groupId>org.fuin</groupId><artifactId>parent</artifactId><name>Parent</name>"
+				+ "<modules><module>a</module><module>b</module></modules>");
+		pom(root.resolve("parent/a"), "<groupId>org.fuin</groupId><artifactId>a</artifactId><name>A</name>");
+		pom(root.resolve("parent/b"), "<groupId>org.fuin</groupId><artifactId>b</artifactId><name>B</name>"
+				+ "<modules><module>b1</module></modules>");
+		pom(root.resolve("parent/b/b1"), "<groupId>org.fuin</groupId><artifactId>b1</artifactId><name>B1</name>");
+		final PomScanner testee = new PomScanner("Projects", 2);
+		final Menu menu = testee.scan(root);
+		final Project parent = menu.findByTitle("Parent");
+		final Project b1 = menu.findByPath("/parent/b/b-1");
+		assertThat(b1).isNotNull();
+
+		// Change coordinates, rename, add and delete modules
+		pom(root.resolve("parent"), "<groupId>org.fuin.new</groupId><artifactId>parent</artifactId><name>Parent</name>"
+				+ "<modules><module>b</module><module>c</module></modules>");
+		pom(root.resolve("parent/b"), "<groupId>org.fuin</groupId><artifactId>b</artifactId><name>Bee</name>"
+				+ "<modules><module>b1</module></modules>");
+		pom(root.resolve("parent/c"), "<groupId>org.fuin</groupId><artifactId>c</artifactId><name>C</name>");
+		Files.delete(root.resolve("parent/a/pom.xml"));
+
+		// TEST
+		final Set<Path> changed = testee.refresh(Arrays.asList(root.resolve("parent/pom.xml"),
+				root.resolve("parent/a/pom.xml"), root.resolve("parent/b/pom.xml"), root.resolve("parent/c/pom.xml"),
+				root.resolve("parent/b/b1/pom.xml")));
+
+		// VERIFY
+		assertThat(changed).hasSize(4);
+		assertThat(menu.<MenuElement> findByTitle("Parent")).isSameAs(parent);
+		assertThat(parent.getGroupId()).isEqualTo("org.fuin.new");
+		assertThat(menu.findProject("org.fuin.new", "parent")).isSameAs(parent);
+		assertThat(parent.<MenuElement> findByTitle("A")).isNull();
+		assertThat(parent.<MenuElement> findByTitle("B")).isNull();
+		assertThat(parent.<MenuElement> findByTitle("C")).isNotNull();
+		final Project bee = parent.findByTitle("Bee");
+		assertThat(bee.getArtifactId()).isEqualTo("b");
+		assertThat(bee.<MenuElement> findByTitle("B1")).isSameAs(b1);
+		assertThat(b1.getParent()).isSameAs(bee);
+		assertThat(menu.findProject("org.fuin", "a")).isNull();
+		assertThat(menu.findProject("org.fuin", "c")).isNotNull();
+		assertThat(testee.getProject(root.resolve("parent/b/pom.xml"))).isSameAs(bee);
+		assertThat(testee.getProject(root.resolve("parent/a/pom.xml"))).isNull();
+
+		// Nothing changed
+		assertThat(testee.refresh(Arrays.asList(root.resolve("parent/pom.xml")))).isEmpty();
+
+	}
+
+	private static void pom(final Path dir, final String content) throws IOException {
+		Files.createDirectories(dir);
+		Files.write(dir.resolve("pom.xml"), ("<?xml version=\"1.0\"?>\n<project xmlns=\"http://maven.apache.org/POM/4.0.0\">"
+				+ content + "</project>").getBytes(StandardCharsets.UTF_8));
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link PomWatcher}.
+ */
+public class TestPomWatcher {
+
+	// CHECKSTYLE:OFF
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test(timeout = 60000)
+	public final void testWatch() throws Exception {
+
+		// PREPARE
+		final Path root = folder.getRoot().toPath();
+		pom(root.resolve("parent"), "<groupId>org.fuin</groupId><artifactId>parent</artifactId><name>Parent</name>"
+				+ "<modules><module>a</module></modules>");
+		pom(root.resolve("parent/a"), "<groupId>org.fuin</groupId><artifactId>a</artifactId><name>A</name>");
+		final PomScanner scanner = new PomScanner("Projects", 2);
+		final Menu menu = scanner.scan(root);
+		final BlockingQueue<Set<Path>> batches = new LinkedBlockingQueue<Set<Path>>();
+		final PomWatcher testee = new PomWatcher(scanner, 200);
+		testee.addListener((changedMenu, poms) -> batches.add(poms));
+		testee.start();
+		try {
+
+			// TEST
+			pom(root.resolve("parent"), "<groupId>org.fuin</groupId><artifactId>parent</artifactId><name>Parent</name>"
+					+ "<modules><module>a</module><module>b</module></modules>");
+			pom(root.resolve("parent/b"), "<groupId>org.fuin</groupId><artifactId>b</artifactId><name>B</name>");
+			pom(root.resolve("parent/a"), "<groupId>org.fuin.a</groupId><artifactId>a</artifactId><name>A</name>");
+
+			// VERIFY
+			final Project parent = menu.findByTitle("Parent");
+			while (parent.<MenuElement> findByTitle("B") == null
+					|| !"org.fuin.a".equals(parent.<Project> findByTitle("A").getGroupId())) {
+				assertThat(batches.poll(10, TimeUnit.SECONDS)).isNotNull();
+			}
+			assertThat(menu.findProject("org.fuin", "b")).isNotNull();
+			assertThat(menu.findProject("org.fuin.a", "a")).isNotNull();
+
+		} finally {
+			testee.close();
+		}
+
+	}
+
+	@Test(timeout = 60000)
+	public final void testKeepWatchingAfterVanishedDirectories() throws Exception {
+
+		// PREPARE
+		final Path root = folder.getRoot().toPath();
+		pom(root.resolve("a"), "<groupId>org.fuin</groupId><artifactId>a</artifactId><name>A</name>");
+		final PomScanner scanner = new PomScanner("Projects", 2);
+		final Menu menu = scanner.scan(root);
+		final BlockingQueue<Set<Path>> batches = new LinkedBlockingQueue<Set<Path>>();
+		final PomWatcher testee = new PomWatcher(scanner, 100);
+		testee.addListener((changedMenu, poms) -> batches.add(poms));
+		testee.start();
+		try {
+
+			// TEST
+			for (int i = 0; i < 50; i++) {
+				final Path dir = Files.createDirectories(root.resolve("tmp" + i + "/sub"));
+				Files.delete(dir);
+				Files.delete(dir.getParent());
+			}
+			pom(root.resolve("a"), "<groupId>org.fuin.a</groupId><artifactId>a</artifactId><name>A</name>");
+
+			// VERIFY
+			while (menu.findProject("org.fuin.a", "a") == null) {
+				assertThat(batches.poll(10, TimeUnit.SECONDS)).isNotNull();
+			}
+
+		} finally {
+			testee.close();
+		}
+
+	}
+
+	@Test(timeout = 60000)
+	public final void testCloseFromListener() throws Exception {
+
+		// PREPARE
+		final Path root = folder.getRoot().toPath();
+		pom(root.resolve("a"), "<groupId>org.fuin</groupId><artifactId>a</artifactId><name>A</name>");
+		final PomScanner scanner = new PomScanner("Projects", 2);
+		scanner.scan(root);
+		final CountDownLatch closed = new CountDownLatch(1);
+		final PomWatcher testee = new PomWatcher(scanner, 100);
+		testee.addListener((changedMenu, poms) -> {
+			try {
+				testee.close();
+			} catch (final IOException ex) {
+				throw new RuntimeException(ex);
+			}
+			closed.countDown();
+		});
+		testee.start();
+		try {
+
+			// TEST
+			pom(root.resolve("a"), "<groupId>org.fuin.a</groupId><artifactId>a</artifactId><name>A</name>");
+
+			// VERIFY
+			assertThat(closed.await(10, TimeUnit.SECONDS)).isTrue();
+
+		} finally {
+			testee.close();
+		}
+
+	}
+
+	private static void pom(final Path dir, final String content) throws IOException {
+		Files.createDirectories(dir);
+		Files.write(dir.resolve("pom.xml"), ("<?xml version=\"1.0\"?>\n<project>" + content + "</project>")
+				.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// CHECKSTYLE:ON
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link PrefixIndex}.
+ */
+public class TestPrefixIndex {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testKeys() {
+
+		assertThat(PrefixIndex.keys(new Menu("SrcMixins4J"))).containsOnly(
+				"srcmixins4j", "mixins4j", "src-mixins-4-j");
+		assertThat(PrefixIndex.keys(new Page("Hello World"))).containsOnly(
+				"hello world", "world", "hello-world");
+		assertThat(PrefixIndex.keys(new Page("A", "x"))).containsOnly("a",
+				"x");
+
+	}
+
+	@Test
+	public final void testNormalize() {
+
+		assertThat(PrefixIndex.normalize("")).isEqualTo("");
+		assertThat(PrefixIndex.normalize("Kickstart4J")).isEqualTo(
+				"kickstart4j");
+		assertThat(PrefixIndex.normalize("\u00C4RGER")).isEqualTo(
+				"\u00E4rger");
+
+	}
+
+	@Test
+	public final void testAddRemove() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Project project = new Project("Project");
+		project.addElement(new Page("Page"));
+		final PrefixIndex testee = new PrefixIndex(menu);
+		assertThat(testee.size()).isEqualTo(0);
+
+		// TEST
+		testee.add(project);
+
+		// VERIFY
+		assertThat(testee.size()).isEqualTo(2);
+		assertThat(testee.find("p", 10)).hasSize(2);
+
+		// TEST
+		testee.remove(project);
+
+		// VERIFY
+		assertThat(testee.size()).isEqualTo(0);
+		assertThat(testee.find("p", 10)).isEmpty();
+
+	}
+
+	@Test
+	public final void testFindBest() {
+
+		// PREPARE
+		final Menu menu = new Menu("Menu");
+		final Page kickZzz = new Page("Kick Zzz");
+		menu.addElement(kickZzz);
+		final Page kicka = new Page("Kicka");
+		menu.addElement(kicka);
+		final Page quickKick = new Page("Quick Kick");
+		menu.addElement(quickKick);
+		final PrefixIndex testee = new PrefixIndex(menu);
+
+		// TEST
+		final List<MenuMatch> one = testee.find("kick", 1);
+		final List<MenuMatch> all = testee.find("kick", 10);
+
+		// VERIFY
+		assertThat(one).hasSize(1);
+		assertThat(one.get(0).getElement()).isSameAs(quickKick);
+		assertThat(one.get(0).getKey()).isEqualTo("kick");
+		assertThat(one.get(0).getScore()).isEqualTo(1.0);
+		assertThat(all).hasSize(3);
+		assertThat(all.get(1).getElement()).isSameAs(kicka);
+		assertThat(all.get(1).getScore()).isEqualTo(0.8);
+		assertThat(all.get(2).getElement()).isSameAs(kickZzz);
+		assertThat(all.get(2).getScore()).isEqualTo(0.5);
+
+	}
+
+	// CHECKSTYLE:ON
+
+}
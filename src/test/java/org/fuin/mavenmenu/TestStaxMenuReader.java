@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014 Michael Schnell. All rights reserved. <http://www.fuin.org/>
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fuin.mavenmenu;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fuin.mavenmenu.MenuTestUtils.assertSameTree;
+import static org.fuin.mavenmenu.MenuTestUtils.loadExample;
+
+import java.io.InputStream;
+import java.io.StringReader;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link StaxMenuReader}.
+ */
+public class TestStaxMenuReader {
+
+	// CHECKSTYLE:OFF
+
+	@Test
+	public final void testReadExample() throws Exception {
+
+		// PREPARE
+		final StaxMenuReader testee = new StaxMenuReader();
+		final InputStream in = this.getClass().getResourceAsStream("/example.xml");
+
+		// TEST
+		final Menu menu;
+		try {
+			menu = testee.read(in);
+		} finally {
+			in.close();
+		}
+
+		// VERIFY
+		assertSameTree(loadExample(), menu);
+		assertThat(menu.findProject("org.fuin", "kickstart4j")).isNotNull();
+
+	}
+
+	@Test
+	public final void testReadMissingTitle() {
+		try {
+			new StaxMenuReader().read(new StringReader("<menu title=\"A\"><page/></menu>"));
+			org.junit.Assert.fail();
+		} catch (final XMLStreamException ex) {
+			assertThat(ex.getMessage()).contains("Attribute 'title' is required");
+		}
+	}
+
+	@Test
+	public final void testReadUnknownElement() {
+		try {
+			new StaxMenuReader().read(new StringReader("<menu title=\"A\"><foo title=\"B\"/></menu>"));
+			org.junit.Assert.fail();
+		} catch (final XMLStreamException ex) {
+			assertThat(ex.getMessage()).contains("Unknown element: foo");
+		}
+	}
+
+	@Test
+	public final void testReadDuplicate() {
+		try {
+			new StaxMenuReader().read(new StringReader(
+					"<menu title=\"A\"><page title=\"B\"/><page title=\"B\"/></menu>"));
+			org.junit.Assert.fail();
+		} catch (final XMLStreamException ex) {
+			assertThat(ex.getMessage()).contains("already contained");
+		}
+	}
+
+	// CHECKSTYLE:ON
+
+}